@@ -280,6 +280,19 @@ suite = {
       "testProject" : True,
     },
 
+    "com.oracle.truffle.js.test" : {
+      "subDir" : "src",
+      "sourceDirs" : ["src"],
+      "dependencies" : [
+        "mx:JUNIT",
+        "com.oracle.truffle.js.parser",
+      ],
+      "checkstyle" : "com.oracle.truffle.js.runtime",
+      "javaCompliance" : "1.8",
+      "workingSets" : "Truffle,JavaScript",
+      "testProject" : True,
+    },
+
     "com.oracle.truffle.js.scriptengine" : {
       "subDir" : "src",
       "sourceDirs" : ["src"],
@@ -323,6 +336,21 @@ suite = {
       "testProject" : True,
     },
 
+    "com.oracle.truffle.js.jmh" : {
+      "subDir" : "src",
+      "sourceDirs" : ["src"],
+      "dependencies" : [
+        "com.oracle.truffle.js.runtime",
+        "sdk:GRAAL_SDK",
+        "mx:JMH_1_18",
+      ],
+      "annotationProcessors" : ["mx:JMH_1_18"],
+      "checkstyle" : "com.oracle.truffle.js.runtime",
+      "javaCompliance" : "1.8",
+      "workingSets" : "Truffle,JavaScript,Test",
+      "testProject" : True,
+    },
+
     "icu4j-data": {
         "native": True,
         "class": "Icu4jDataProject",
@@ -348,7 +376,11 @@ suite = {
   "distributions" : {
     "GRAALJS" : {
       "subDir" : "src",
-      "dependencies" : ["com.oracle.truffle.js.parser"],
+      "dependencies" : [
+        "com.oracle.truffle.js.parser",
+        # provides the SnapshotWriter used by the snapshot cache
+        "com.oracle.truffle.js.snapshot",
+      ],
       "distDependencies" : [
         "regex:TREGEX",
         "truffle:TRUFFLE_API",
@@ -431,7 +463,7 @@ suite = {
     },
 
     "TRUFFLE_JS_TESTS" : {
-      "dependencies" : ["com.oracle.truffle.js.test.external", "com.oracle.truffle.js.test.instrumentation"],
+      "dependencies" : ["com.oracle.truffle.js.test", "com.oracle.truffle.js.test.external", "com.oracle.truffle.js.test.instrumentation"],
       "exclude" : [
         "mx:HAMCREST",
         "mx:JUNIT",
@@ -444,6 +476,20 @@ suite = {
       "maven" : False,
     },
 
+    "GRAALJS_JMH" : {
+      "subDir" : "src",
+      "dependencies" : ["com.oracle.truffle.js.jmh"],
+      "exclude" : [
+        "mx:JMH_1_18",
+      ],
+      "distDependencies" : [
+        "GRAALJS",
+        "sdk:GRAAL_SDK",
+      ],
+      "description" : "JMH microbenchmarks for Graal JavaScript engine hot paths",
+      "maven" : False,
+    },
+
     "ICU4J-DIST" : {
       "native" : True,
       "relpath" : True,
@@ -166,7 +166,7 @@ public class Lexer extends Scanner {
      * avoid reading ahead unnecessarily when we skip the function bodies.
      */
     public Lexer(final Source source, final int start, final int len, final TokenStream stream, final boolean scripting, final boolean es6, final boolean shebang, final boolean pauseOnFunctionBody) {
-        super(source.getContent().toString().toCharArray(), 1, start, len);
+        super(source.getContentChars(), 1, start, len);
         this.source      = source;
         this.stream      = stream;
         this.scripting   = scripting;
@@ -92,6 +92,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.function.Consumer;
 
 import com.oracle.js.parser.ir.AccessNode;
@@ -221,6 +222,16 @@ public class Parser extends AbstractParser {
 
     private RecompilableScriptFunctionData reparsedFunction;
 
+    /** Start of the lazily parsed function that is being reparsed, whose body must be kept. */
+    private int eagerFunctionStart = -1;
+
+    /**
+     * Names referenced by the lazily parsed function that is being pre-parsed, or null if no body is
+     * pre-parsed. While pre-parsing, the statements of every function body are dropped as soon as
+     * they have been parsed.
+     */
+    private Set<String> preParsedReferences;
+
     private boolean isModule;
 
     public static final boolean PROFILE_PARSING = Options.getBooleanProperty("parser.profiling", false);
@@ -305,6 +316,53 @@ public class Parser extends AbstractParser {
         this.reparsedFunction = reparsedFunction;
     }
 
+    /**
+     * Reparses a function whose body was dropped by lazy parsing. The function is parsed from its
+     * original source range as if it was a function expression in a program of its own; nested
+     * functions are again parsed lazily. The parser has to be created with the strictness and line
+     * offset of the function.
+     *
+     * @param lazyFunction function node with {@link FunctionNode#isLazy()} set
+     * @return the function node with its body
+     */
+    public FunctionNode reparseLazyFunction(final FunctionNode lazyFunction) {
+        assert lazyFunction.isLazy();
+        final int startPos = lazyFunction.getStart();
+        eagerFunctionStart = startPos;
+        try {
+            prepareLexer(startPos, lazyFunction.getFinish() - startPos);
+            scanFirstToken();
+
+            final long programToken = Token.toDesc(FUNCTION, startPos, lazyFunction.getFinish() - startPos);
+            final IdentNode ident = new IdentNode(programToken, startPos, PROGRAM_NAME);
+            final ParserContextFunctionNode script = createParserContextFunctionNode(ident, programToken, FunctionNode.Kind.SCRIPT, line, Collections.<IdentNode>emptyList());
+            lc.push(script);
+            final ParserContextBlockNode body = newBlock();
+            functionDeclarations = new ArrayList<>();
+            if (lazyFunction.isAnonymous()) {
+                // keep the name inferred from the surrounding code
+                pushDefaultName(new IdentNode(lazyFunction.getToken(), startPos, lazyFunction.getName()));
+            }
+            final FunctionNode function;
+            try {
+                function = (FunctionNode) (lazyFunction.isAsync() ? asyncFunctionExpression(false, false) : functionExpression(false, false));
+            } finally {
+                functionDeclarations = null;
+                restoreBlock(body);
+                lc.pop(script);
+            }
+            expect(EOF);
+
+            // parsed as an expression, restore declaration and naming flags
+            final int declarationFlags = FunctionNode.IS_DECLARED | FunctionNode.IS_STATEMENT | FunctionNode.IS_ANONYMOUS;
+            return function.setFlags(null, (function.getFlags() & ~declarationFlags) | (lazyFunction.getFlags() & declarationFlags));
+        } catch (final Exception e) {
+            handleParseException(e);
+
+            return null;
+        }
+    }
+
     /**
      * Set up first token. Skips opening EOL.
      */
@@ -615,7 +673,8 @@ loop:
                 function.getFlags(),
                 body,
                 function.getEndParserState(),
-                function.getModule());
+                function.getModule(),
+                function.getReferencedNames());
 
         return functionNode;
     }
@@ -1029,6 +1088,10 @@ loop:
                             }
                         }
                     }
+                    if (preParsedReferences != null && !checkDirective) {
+                        // pre-parsed function bodies are reparsed before they are translated
+                        lc.getCurrentBlock().getStatements().clear();
+                    }
                 } catch (final Exception e) {
                     final int errorLine = line;
                     final long errorToken = token;
@@ -1463,7 +1526,7 @@ loop:
                     flags |= FunctionNode.IS_ANONYMOUS;
                 }
                 constructor = constructor.setValue(new FunctionNode(ctor.getSource(), ctor.getLineNumber(), ctor.getToken(), classFinish, classToken, lastToken, ctor.getIdent(), className == null ? null : className.getName(),
-                                ctor.getParameters(), ctor.getParameterBlock(), ctor.getKind(), flags, ctor.getBody(), ctor.getEndParserState(), ctor.getModule()));
+                                ctor.getParameters(), ctor.getParameterBlock(), ctor.getKind(), flags, ctor.getBody(), ctor.getEndParserState(), ctor.getModule(), ctor.getReferencedNames()));
             }
 
             ClassNode classBody = new ClassNode(classToken, classFinish, className, classHeritage, constructor, classElements);
@@ -3020,6 +3083,7 @@ loop:
                 break;
             }
             detectSpecialProperty(ident);
+            markReferenced(ident);
             return ident;
         case NON_OCTAL_DECIMAL:
             if (isStrictMode) {
@@ -3068,7 +3132,9 @@ loop:
                 return getLiteral();
             }
             if (type.isContextualKeyword() || isNonStrictModeIdent()) {
-                return identifier(yield, await);
+                final IdentNode contextualIdent = identifier(yield, await);
+                markReferenced(contextualIdent);
+                return contextualIdent;
             }
             break;
         }
@@ -3459,7 +3525,9 @@ loop:
         } else if (isIdentifier && (type == COMMARIGHT || type == RBRACE || type == ASSIGN) && isES6()) {
             IdentNode ident = (IdentNode) propertyName;
             verifyIdent(ident, yield, await);
-            propertyValue = createIdentNode(propertyToken, finish, ident.getPropertyName());
+            final IdentNode shorthandValue = createIdentNode(propertyToken, finish, ident.getPropertyName());
+            markReferenced(shorthandValue);
+            propertyValue = shorthandValue;
             if (type == ASSIGN && ES6_DESTRUCTURING) {
                 // If not destructuring, this is a SyntaxError
                 long assignToken = token;
@@ -4067,6 +4135,8 @@ loop:
      */
     private Expression functionExpression(final boolean isStatement, final boolean topLevel, final boolean async, final long functionToken, final boolean expressionStatement) {
         final int functionLine = line;
+        // a parenthesized function expression is likely to be invoked immediately, parse it eagerly
+        final boolean lazy = preParsedReferences == null && canParseLazily(functionToken) && (isStatement || last != LPAREN);
         // FUNCTION is tested in caller.
         assert type == FUNCTION;
         next();
@@ -4120,6 +4190,10 @@ loop:
         // If we didn't hide the current default name, then the innermost anonymous function would receive "x3".
         hideDefaultName();
 
+        if (lazy) {
+            // names referenced by the parameters are needed as well
+            preParsedReferences = new HashSet<>();
+        }
         try {
             final ParserContextBlockNode parameterBlock = newBlock();
             parameterBlock.setFlag(Block.IS_PARAMETER_BLOCK);
@@ -4134,7 +4208,13 @@ loop:
 
             functionBody = functionBody(functionNode);
             parameterBlockNode = createParameterBlock(parameterBlock, functionBody);
+            if (lazy) {
+                functionNode.setLazy(preParsedReferences);
+            }
         } finally {
+            if (lazy) {
+                preParsedReferences = null;
+            }
             popDefaultName();
             lc.pop(functionNode);
         }
@@ -4421,13 +4501,28 @@ loop:
         });
     }
 
+    private boolean canParseLazily(final long functionToken) {
+        return env.lazyParsing && reparsedFunction == null && Token.descPosition(functionToken) != eagerFunctionStart;
+    }
+
+    /**
+     * Records a name referenced by the body of a lazily parsed function that is being pre-parsed.
+     * The translator makes the enclosing scopes declaring it available to the function.
+     */
+    private void markReferenced(final IdentNode ident) {
+        if (preParsedReferences != null) {
+            preParsedReferences.add(ident.getName());
+        }
+    }
+
     /**
      * FunctionBody :
      *      SourceElements?
      *
      * See 13
      *
-     * Parse function body.
+     * Parse function body. While a lazily parsed function is pre-parsed, the body is syntax-checked
+     * but its statements are dropped.
      * @return function node (body.)
      */
     private Block functionBody(final ParserContextFunctionNode functionNode) {
@@ -4480,7 +4575,9 @@ loop:
                     functionDeclarations = new ArrayList<>();
                     try {
                         sourceElements(0);
-                        addFunctionDeclarations(functionNode);
+                        if (preParsedReferences == null) {
+                            addFunctionDeclarations(functionNode);
+                        }
                     } finally {
                         functionDeclarations = prevFunctionDecls;
                     }
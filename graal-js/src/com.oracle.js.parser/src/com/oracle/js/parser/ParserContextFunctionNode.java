@@ -26,6 +26,7 @@ package com.oracle.js.parser;
 
 import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import com.oracle.js.parser.ir.FunctionNode;
 import com.oracle.js.parser.ir.IdentNode;
@@ -71,6 +72,8 @@ class ParserContextFunctionNode extends ParserContextBaseNode {
 
     private Module module;
 
+    private Set<String> referencedNames;
+
     /**
      * @param token The token for the function
      * @param ident External function name
@@ -208,6 +211,25 @@ class ParserContextFunctionNode extends ParserContextBaseNode {
         this.endParserState = endParserState;
     }
 
+    /**
+     * Returns the names referenced in the dropped body of a lazily parsed function.
+     *
+     * @return the referenced names, or null if the function is not lazy
+     */
+    public Set<String> getReferencedNames() {
+        return referencedNames;
+    }
+
+    /**
+     * Marks this function as lazily parsed.
+     *
+     * @param referencedNames the names referenced in the dropped body
+     */
+    public void setLazy(final Set<String> referencedNames) {
+        this.referencedNames = referencedNames;
+        setFlag(FunctionNode.IS_LAZY);
+    }
+
     /**
      * Returns the if of this function
      *
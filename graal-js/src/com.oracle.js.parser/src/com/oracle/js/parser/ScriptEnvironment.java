@@ -94,8 +94,11 @@ public final class ScriptEnvironment {
     /** is this environment in strict mode? */
     final boolean strict;
 
+    /** Only syntax-check function bodies and drop them from the AST until they are needed. */
+    final boolean lazyParsing;
+
     private ScriptEnvironment(boolean strict, boolean es6, boolean es8, boolean earlyLvalueError, boolean emptyStatements, boolean syntaxExtensions, boolean scripting, boolean shebang,
-                    boolean constAsVar, FunctionStatementBehavior functionStatementBehavior, PrintWriter dumpOnError) {
+                    boolean constAsVar, boolean lazyParsing, FunctionStatementBehavior functionStatementBehavior, PrintWriter dumpOnError) {
         this.namespace = new Namespace();
         this.err = dumpOnError;
 
@@ -110,6 +113,7 @@ public final class ScriptEnvironment {
         this.shebang = shebang;
         this.es6 = es6;
         this.es8 = es8;
+        this.lazyParsing = lazyParsing;
     }
 
     /**
@@ -149,6 +153,7 @@ public final class ScriptEnvironment {
         private boolean scripting;
         private boolean shebang;
         private boolean strict;
+        private boolean lazyParsing;
         private FunctionStatementBehavior functionStatementBehavior = FunctionStatementBehavior.ERROR;
         private PrintWriter dumpOnError;
 
@@ -200,6 +205,11 @@ public final class ScriptEnvironment {
             return this;
         }
 
+        public Builder lazyParsing(boolean lazyParsing) {
+            this.lazyParsing = lazyParsing;
+            return this;
+        }
+
         public Builder functionStatementBehavior(FunctionStatementBehavior functionStatementBehavior) {
             this.functionStatementBehavior = functionStatementBehavior;
             return this;
@@ -211,7 +221,7 @@ public final class ScriptEnvironment {
         }
 
         public ScriptEnvironment build() {
-            return new ScriptEnvironment(strict, es6, es8, earlyLvalueError, emptyStatements, syntaxExtensions, scripting, shebang, constAsVar,
+            return new ScriptEnvironment(strict, es6, es8, earlyLvalueError, emptyStatements, syntaxExtensions, scripting, shebang, constAsVar, lazyParsing,
                             functionStatementBehavior, dumpOnError);
         }
     }
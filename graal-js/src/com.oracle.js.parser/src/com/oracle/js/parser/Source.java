@@ -27,6 +27,7 @@ package com.oracle.js.parser;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.lang.ref.SoftReference;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
@@ -67,6 +68,9 @@ public final class Source {
     /** source URL set via //@ sourceURL or //# sourceURL directive */
     private String explicitURL;
 
+    /** Content as a char array, kept while functions of this source are reparsed on demand */
+    private volatile SoftReference<char[]> contentChars;
+
     // Do *not* make this public, ever! Trusts the URL and content.
     private Source(final String name, final String base, final Data data) {
         this.name = name;
@@ -383,6 +387,21 @@ public final class Source {
         return data();
     }
 
+    /**
+     * Get the content of this source as a char array for lexing. The array is cached softly so that
+     * repeatedly lexing parts of the source (e.g. when reparsing lazily parsed functions) does not
+     * copy the whole content every time. The array must not be modified.
+     */
+    char[] getContentChars() {
+        final SoftReference<char[]> ref = contentChars;
+        char[] chars = ref == null ? null : ref.get();
+        if (chars == null) {
+            chars = data().toString().toCharArray();
+            contentChars = new SoftReference<>(chars);
+        }
+        return chars;
+    }
+
     /**
      * Get the length in chars for this source
      * @return length
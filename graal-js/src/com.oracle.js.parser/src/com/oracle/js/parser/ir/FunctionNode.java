@@ -28,6 +28,7 @@ package com.oracle.js.parser.ir;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 import com.oracle.js.parser.Source;
 import com.oracle.js.parser.Token;
@@ -101,6 +102,9 @@ public final class FunctionNode extends LexicalContextExpression implements Flag
 
     private final Module module;
 
+    /** Names referenced in the dropped body of a lazily parsed function, null otherwise. */
+    private final Set<String> referencedNames;
+
     private boolean analyzed;
     private boolean usesAncestorScope;
 
@@ -211,6 +215,12 @@ public final class FunctionNode extends LexicalContextExpression implements Flag
     /** Is it an async function? */
     public static final int IS_ASYNC = 1 << 25;
 
+    /**
+     * Was the body of this function only syntax-checked and dropped by the parser? The function has to
+     * be reparsed from its source range before it can be translated.
+     */
+    public static final int IS_LAZY = 1 << 26;
+
     /**
      * Constructor
      *
@@ -227,6 +237,8 @@ public final class FunctionNode extends LexicalContextExpression implements Flag
      * @param flags      initial flags
      * @param body       body of the function
      * @param endParserState The parser state at the end of the parsing.
+     * @param module     the module, if this is a module function
+     * @param referencedNames names referenced in the body of a lazily parsed function
      */
     public FunctionNode(
         final Source source,
@@ -243,7 +255,8 @@ public final class FunctionNode extends LexicalContextExpression implements Flag
         final int flags,
         final Block body,
         final Object endParserState,
-        final Module module) {
+        final Module module,
+        final Set<String> referencedNames) {
         super(token, Token.descPosition(firstToken), finish);
 
         this.source           = source;
@@ -260,6 +273,7 @@ public final class FunctionNode extends LexicalContextExpression implements Flag
         this.thisProperties   = 0;
         this.endParserState   = endParserState;
         this.module           = module;
+        this.referencedNames  = referencedNames;
     }
 
     private FunctionNode(
@@ -291,6 +305,7 @@ public final class FunctionNode extends LexicalContextExpression implements Flag
         this.kind            = functionNode.kind;
         this.firstToken      = functionNode.firstToken;
         this.module          = functionNode.module;
+        this.referencedNames = functionNode.referencedNames;
     }
 
     @Override
@@ -704,6 +719,20 @@ public final class FunctionNode extends LexicalContextExpression implements Flag
         return getFlag(IS_ASYNC);
     }
 
+    public boolean isLazy() {
+        return getFlag(IS_LAZY);
+    }
+
+    /**
+     * Returns a conservative set of the identifiers referenced in the body (including nested
+     * functions) of a lazily parsed function, or null if the function is not lazy.
+     *
+     * @return the referenced names
+     */
+    public Set<String> getReferencedNames() {
+        return referencedNames;
+    }
+
     public boolean isAnalyzed() {
         return analyzed;
     }
@@ -49,7 +49,6 @@ import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.StringJoiner;
-import java.util.WeakHashMap;
 
 import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerAsserts;
@@ -1794,7 +1793,7 @@ public final class ConstructorBuiltins extends JSBuiltinsContainer.SwitchEnum<Co
 
         @TruffleBoundary
         protected static Map<DynamicObject, Object> constructWeakHashMap() {
-            return new WeakHashMap<>();
+            return new WeakMap();
         }
 
         @Override
@@ -52,8 +52,10 @@ import com.oracle.truffle.api.profiles.BranchProfile;
 import com.oracle.truffle.js.builtins.JSONBuiltinsFactory.JSONParseNodeGen;
 import com.oracle.truffle.js.builtins.JSONBuiltinsFactory.JSONStringifyNodeGen;
 import com.oracle.truffle.js.builtins.helper.JSONData;
+import com.oracle.truffle.js.builtins.helper.JSONStringifyOutput;
 import com.oracle.truffle.js.builtins.helper.JSONStringifyStringNode;
 import com.oracle.truffle.js.builtins.helper.TruffleJSONParser;
+import com.oracle.truffle.js.builtins.helper.TruffleJSONStreamParser;
 import com.oracle.truffle.js.nodes.access.PropertySetNode;
 import com.oracle.truffle.js.nodes.cast.JSToIntegerNode;
 import com.oracle.truffle.js.nodes.cast.JSToNumberNode;
@@ -104,7 +106,7 @@ public final class JSONBuiltins extends JSBuiltinsContainer.SwitchEnum<JSONBuilt
             case parse:
                 return JSONParseNodeGen.create(context, builtin, args().fixedArgs(2).createArgumentNodes(context));
             case stringify:
-                return JSONStringifyNodeGen.create(context, builtin, args().fixedArgs(3).createArgumentNodes(context));
+                return JSONStringifyNodeGen.create(context, builtin, args().fixedArgs(4).createArgumentNodes(context));
         }
         return null;
     }
@@ -136,10 +138,11 @@ public final class JSONBuiltins extends JSBuiltinsContainer.SwitchEnum<JSONBuilt
         }
 
         private TruffleJSONParser parser;
+        private TruffleJSONStreamParser streamParser;
 
         @Specialization(guards = "isCallable(reviver)")
         protected Object parse(Object text, Object reviver) {
-            Object unfiltered = parseIntl(toString(text));
+            Object unfiltered = parseText(text);
             DynamicObject root = JSUserObject.create(getContext());
             JSObjectUtil.putDataProperty(getContext(), root, "", unfiltered, JSAttributes.getDefault());
             return walk((DynamicObject) reviver, root, "");
@@ -147,9 +150,28 @@ public final class JSONBuiltins extends JSBuiltinsContainer.SwitchEnum<JSONBuilt
 
         @Specialization(guards = "!isCallable(reviver)")
         protected Object parseUnfiltered(Object text, @SuppressWarnings("unused") Object reviver) {
+            return parseText(text);
+        }
+
+        private Object parseText(Object text) {
+            if (JSTruffleOptions.TruffleJSONParser && (JSRuntime.isForeignObject(text) || JSRuntime.isJavaObject(text))) {
+                // a host Reader or ByteBuffer is parsed directly instead of being converted to a string
+                Object javaInput = TruffleJSONStreamParser.getJavaInput(text);
+                if (javaInput != null) {
+                    return parseJavaInput(javaInput);
+                }
+            }
             return parseIntl(toString(text));
         }
 
+        @TruffleBoundary(transferToInterpreterOnException = false)
+        private Object parseJavaInput(Object javaInput) {
+            if (streamParser == null) {
+                streamParser = new TruffleJSONStreamParser(getContext());
+            }
+            return streamParser.parseJavaInput(javaInput);
+        }
+
         @TruffleBoundary(transferToInterpreterOnException = false)
         private Object parseIntl(String jsonString) {
             if (JSTruffleOptions.TruffleJSONParser) {
@@ -217,13 +239,13 @@ public final class JSONBuiltins extends JSBuiltinsContainer.SwitchEnum<JSONBuilt
         }
 
         @Specialization(guards = "isCallable(replacerFn)")
-        protected Object stringify(Object value, DynamicObject replacerFn, Object spaceParam) {
+        protected Object stringify(Object value, DynamicObject replacerFn, Object spaceParam, Object out) {
             assert JSRuntime.isCallable(replacerFn);
-            return stringifyIntl(value, spaceParam, replacerFn, null);
+            return stringifyIntl(value, spaceParam, replacerFn, null, out);
         }
 
         @Specialization(guards = "isArray(replacerObj)")
-        protected Object stringifyReplacerArray(Object value, DynamicObject replacerObj, Object spaceParam) {
+        protected Object stringifyReplacerArray(Object value, DynamicObject replacerObj, Object spaceParam, Object out) {
             int len = (int) JSRuntime.toLength(JSObject.get(replacerObj, JSArray.LENGTH));
             List<String> replacerList = new ArrayList<>();
             for (int i = 0; i < len; i++) {
@@ -237,7 +259,7 @@ public final class JSONBuiltins extends JSBuiltinsContainer.SwitchEnum<JSONBuilt
                 }
                 addToReplacer(replacerList, item);
             }
-            return stringifyIntl(value, spaceParam, null, replacerList);
+            return stringifyIntl(value, spaceParam, null, replacerList, out);
         }
 
         @TruffleBoundary
@@ -249,11 +271,11 @@ public final class JSONBuiltins extends JSBuiltinsContainer.SwitchEnum<JSONBuilt
 
         @SuppressWarnings("unused")
         @Specialization(guards = {"!isCallable(replacer)", "!isArray(replacer)"})
-        protected Object stringifyNoReplacer(Object value, Object replacer, Object spaceParam) {
-            return stringifyIntl(value, spaceParam, null, null);
+        protected Object stringifyNoReplacer(Object value, Object replacer, Object spaceParam, Object out) {
+            return stringifyIntl(value, spaceParam, null, null, out);
         }
 
-        private Object stringifyIntl(Object value, Object spaceParam, DynamicObject replacerFnObj, List<String> replacerList) {
+        private Object stringifyIntl(Object value, Object spaceParam, DynamicObject replacerFnObj, List<String> replacerList, Object out) {
             Object space = spaceParam;
             if (JSObject.isDynamicObject(space)) {
                 if (JSNumber.isJSNumber(spaceParam)) {
@@ -283,7 +305,22 @@ public final class JSONBuiltins extends JSBuiltinsContainer.SwitchEnum<JSONBuilt
                 setWrapperProperty = insert(PropertySetNode.create("", false, getContext(), false));
             }
             setWrapperProperty.setValue(wrapper, value);
-            return jsonStr(new JSONData(gap, replacerFnObj, replacerList), "", wrapper);
+            return jsonStr(new JSONData(gap, replacerFnObj, replacerList, getOutput(out)), "", wrapper);
+        }
+
+        /**
+         * With {@code js.json-stringify-output}, a host OutputStream or WritableByteChannel passed as
+         * non-standard fourth argument receives the UTF-8 encoded JSON text while it is generated;
+         * the number of bytes written is returned instead of a string.
+         */
+        private JSONStringifyOutput getOutput(Object out) {
+            if (getContext().isOptionJSONStringifyOutput() && out != Undefined.instance && (JSRuntime.isForeignObject(out) || JSRuntime.isJavaObject(out))) {
+                Object javaOutput = JSONStringifyOutput.getJavaOutput(out);
+                if (javaOutput != null) {
+                    return JSONStringifyOutput.create(javaOutput);
+                }
+            }
+            return null;
         }
 
         @TruffleBoundary
@@ -119,6 +119,7 @@ import com.oracle.truffle.js.runtime.Boundaries;
 import com.oracle.truffle.js.runtime.Errors;
 import com.oracle.truffle.js.runtime.JSArguments;
 import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.JSRealm;
 import com.oracle.truffle.js.runtime.JSRuntime;
 import com.oracle.truffle.js.runtime.JSTruffleOptions;
 import com.oracle.truffle.js.runtime.Symbol;
@@ -1969,7 +1970,29 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
             return collatorObj;
         }
 
-        @Specialization
+        /**
+         * Without locales and options, all calls can share the same collator of the realm.
+         */
+        private DynamicObject getDefaultCollator() {
+            JSRealm realm = getContext().getRealm();
+            DynamicObject collator = realm.getDefaultCollator();
+            if (collator == null) {
+                collator = createCollator(Undefined.instance, Undefined.instance);
+                realm.setDefaultCollator(collator);
+            }
+            return collator;
+        }
+
+        @Specialization(guards = {"isUndefined(locales)", "isUndefined(options)"})
+        protected int localeCompareDefault(Object thisObj, Object thatObj, @SuppressWarnings("unused") Object locales, @SuppressWarnings("unused") Object options,
+                        @Cached("create()") JSToStringNode toString2Node) {
+            requireObjectCoercible(thisObj);
+            String thisStr = toString(thisObj);
+            String thatStr = toString2Node.executeString(thatObj);
+            return JSCollator.compare(getDefaultCollator(), thisStr, thatStr);
+        }
+
+        @Specialization(replaces = "localeCompareDefault")
         protected int localeCompare(Object thisObj, Object thatObj, Object locales, Object options,
                         @Cached("create()") JSToStringNode toString2Node) {
             requireObjectCoercible(thisObj);
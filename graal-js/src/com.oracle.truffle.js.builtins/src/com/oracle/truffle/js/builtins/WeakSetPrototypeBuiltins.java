@@ -92,7 +92,7 @@ public final class WeakSetPrototypeBuiltins extends JSBuiltinsContainer.SwitchEn
     }
 
     /** Dummy value to associate with a key in the backing map. */
-    protected static final Object PRESENT = new Object();
+    protected static final Object PRESENT = Boolean.TRUE;
 
     protected static RuntimeException typeErrorKeyIsNotObject() {
         throw Errors.createTypeError("WeakSet key must be an object");
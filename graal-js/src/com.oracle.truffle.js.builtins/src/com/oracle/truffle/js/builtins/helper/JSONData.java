@@ -53,13 +53,19 @@ public class JSONData {
     private final String gap;
     private final List<String> propertyList;
     private final DynamicObject replacerFnObj;
+    private final JSONStringifyOutput output;
 
     private static final int MAX_STACK_SIZE = 1000;
 
     public JSONData(String gap, DynamicObject replacerFnObj, List<String> replacerList) {
+        this(gap, replacerFnObj, replacerList, null);
+    }
+
+    public JSONData(String gap, DynamicObject replacerFnObj, List<String> replacerList, JSONStringifyOutput output) {
         this.gap = gap;
         this.replacerFnObj = replacerFnObj;
         this.propertyList = replacerList;
+        this.output = output;
     }
 
     public String getGap() {
@@ -82,6 +88,13 @@ public class JSONData {
         return replacerFnObj;
     }
 
+    /**
+     * The output the JSON text is streamed to, or {@code null} if a string is built.
+     */
+    public JSONStringifyOutput getOutput() {
+        return output;
+    }
+
     public void pushStack(TruffleObject value) {
         stack.add(value);
     }
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.builtins.helper;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.interop.TruffleObject;
+import com.oracle.truffle.api.interop.java.JavaInterop;
+import com.oracle.truffle.js.runtime.Errors;
+import com.oracle.truffle.js.runtime.JSRuntime;
+import com.oracle.truffle.js.runtime.util.DelimitedStringBuilder;
+
+/**
+ * Encodes the output of {@code JSON.stringify} as UTF-8 and writes it to a host
+ * {@link OutputStream} or {@link WritableByteChannel} while the value is being serialized, so that
+ * the complete JSON text never has to be held in memory. Back-pressure is provided by the host
+ * stream or channel, which may block the serializer in {@code write}. A channel that is also
+ * {@link Flushable} is flushed once the JSON text is complete.
+ */
+public final class JSONStringifyOutput {
+
+    /** Number of buffered characters after which the output is encoded and written. */
+    static final int FLUSH_THRESHOLD = 16384;
+    private static final int BYTE_BUFFER_SIZE = 32768;
+
+    private final WritableByteChannel channel;
+    private final Flushable flushable;
+    private final CharsetEncoder encoder;
+    private final ByteBuffer bytes;
+    private char[] chars;
+    /** Number of characters at the start of {@link #chars} that are not encoded yet. */
+    private int pendingChars;
+    private long bytesWritten;
+
+    private JSONStringifyOutput(WritableByteChannel channel, Flushable flushable) {
+        this.channel = channel;
+        this.flushable = flushable;
+        this.encoder = StandardCharsets.UTF_8.newEncoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.bytes = ByteBuffer.allocate(BYTE_BUFFER_SIZE);
+        this.chars = new char[FLUSH_THRESHOLD + 1];
+    }
+
+    /**
+     * Returns the {@link OutputStream} or {@link WritableByteChannel} wrapped by the given host
+     * object, or {@code null} if it does not wrap one.
+     */
+    @TruffleBoundary
+    public static Object getJavaOutput(Object value) {
+        Object javaObject = value;
+        if (JSRuntime.isForeignObject(value)) {
+            if (!JavaInterop.isJavaObject(value)) {
+                return null;
+            }
+            javaObject = JavaInterop.asJavaObject((TruffleObject) value);
+        } else if (!JSRuntime.isJavaObject(value)) {
+            return null;
+        }
+        return (javaObject instanceof OutputStream || javaObject instanceof WritableByteChannel) ? javaObject : null;
+    }
+
+    /**
+     * Creates an output for an object returned by {@link #getJavaOutput(Object)}.
+     */
+    @TruffleBoundary
+    public static JSONStringifyOutput create(Object javaOutput) {
+        if (javaOutput instanceof WritableByteChannel) {
+            return new JSONStringifyOutput((WritableByteChannel) javaOutput, javaOutput instanceof Flushable ? (Flushable) javaOutput : null);
+        } else {
+            OutputStream stream = (OutputStream) javaOutput;
+            return new JSONStringifyOutput(Channels.newChannel(stream), stream);
+        }
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Writes out the contents of the builder if it has grown beyond {@link #FLUSH_THRESHOLD}.
+     */
+    public void flushIfFull(DelimitedStringBuilder builder) {
+        if (builder.length() >= FLUSH_THRESHOLD) {
+            write(builder, false);
+        }
+    }
+
+    /**
+     * Writes out the remaining contents of the builder and flushes the host stream or channel.
+     */
+    @TruffleBoundary
+    public void finish(DelimitedStringBuilder builder) {
+        write(builder, true);
+        try {
+            if (flushable != null) {
+                flushable.flush();
+            }
+        } catch (IOException ex) {
+            throw writeError(ex);
+        }
+    }
+
+    @TruffleBoundary
+    private void write(DelimitedStringBuilder builder, boolean endOfInput) {
+        int length = builder.length();
+        if (pendingChars + length > chars.length) {
+            char[] newChars = new char[pendingChars + length];
+            System.arraycopy(chars, 0, newChars, 0, pendingChars);
+            chars = newChars;
+        }
+        builder.getChars(0, length, chars, pendingChars);
+        builder.setLength(0);
+        CharBuffer in = CharBuffer.wrap(chars, 0, pendingChars + length);
+        try {
+            for (;;) {
+                CoderResult result = encoder.encode(in, bytes, endOfInput);
+                if (result.isOverflow()) {
+                    writeBytes();
+                } else {
+                    break;
+                }
+            }
+            if (endOfInput) {
+                while (encoder.flush(bytes).isOverflow()) {
+                    writeBytes();
+                }
+                writeBytes();
+                encoder.reset();
+            }
+        } catch (IOException ex) {
+            throw writeError(ex);
+        }
+        // at most a high surrogate waiting for its pair
+        pendingChars = in.remaining();
+        System.arraycopy(chars, in.position(), chars, 0, pendingChars);
+    }
+
+    private void writeBytes() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            bytesWritten += channel.write(bytes);
+        }
+        bytes.clear();
+    }
+
+    private static RuntimeException writeError(IOException ex) {
+        return Errors.createError("Cannot write JSON output: " + ex.getMessage());
+    }
+}
@@ -107,6 +107,11 @@ public abstract class JSONStringifyStringNode extends JavaScriptBaseNode {
             }
             DelimitedStringBuilder builder = new DelimitedStringBuilder();
             jsonStrExecute(builder, data, value);
+            JSONStringifyOutput output = data.getOutput();
+            if (output != null) {
+                output.finish(builder);
+                return JSRuntime.longToIntOrDouble(output.getBytesWritten());
+            }
             return builder.toString();
         } catch (StackOverflowError ex) {
             throwStackError();
@@ -289,6 +294,7 @@ public abstract class JSONStringifyStringNode extends JavaScriptBaseNode {
                 }
                 jsonStrExecute(builder, data, strPPrepared);
                 hasContent = true;
+                flushOutput(builder, data);
             }
         }
         concatEnd(builder, data, stepback, '}', hasContent);
@@ -345,6 +351,7 @@ public abstract class JSONStringifyStringNode extends JavaScriptBaseNode {
             } else {
                 builder.append(Null.NAME);
             }
+            flushOutput(builder, data);
         }
 
         concatEnd(builder, data, stepback, ']', len > 0);
@@ -353,6 +360,13 @@ public abstract class JSONStringifyStringNode extends JavaScriptBaseNode {
         data.setIndent(stepback);
     }
 
+    private static void flushOutput(DelimitedStringBuilder builder, JSONData data) {
+        JSONStringifyOutput output = data.getOutput();
+        if (output != null) {
+            output.flushIfFull(builder);
+        }
+    }
+
     private static void checkStackDepth(JSONData data) {
         if (data.stackTooDeep()) {
             throwStackError();
@@ -40,8 +40,14 @@
  */
 package com.oracle.truffle.js.builtins.helper;
 
+import java.util.Arrays;
+
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.FinalLocationException;
+import com.oracle.truffle.api.object.IncompatibleLocationException;
+import com.oracle.truffle.api.object.Property;
+import com.oracle.truffle.api.object.Shape;
 import com.oracle.truffle.js.runtime.Errors;
 import com.oracle.truffle.js.runtime.JSContext;
 import com.oracle.truffle.js.runtime.JSException;
@@ -50,6 +56,10 @@ import com.oracle.truffle.js.runtime.array.ScriptArray;
 import com.oracle.truffle.js.runtime.builtins.JSAbstractArray;
 import com.oracle.truffle.js.runtime.builtins.JSArray;
 import com.oracle.truffle.js.runtime.builtins.JSUserObject;
+import com.oracle.truffle.js.runtime.doubleconv.DoubleConversion;
+import com.oracle.truffle.js.runtime.objects.JSAttributes;
+import com.oracle.truffle.js.runtime.objects.JSObject;
+import com.oracle.truffle.js.runtime.objects.JSObjectUtil;
 import com.oracle.truffle.js.runtime.objects.Null;
 
 public class TruffleJSONParser {
@@ -65,15 +75,50 @@ public class TruffleJSONParser {
     protected static final char[] BooleanFalseLiteral = new char[]{'f', 'a', 'l', 's', 'e'};
     protected static final int MAX_PARSE_DEPTH = 100000;
 
+    /** Number of entries of the member key cache, a power of 2. */
+    private static final int KEY_CACHE_SIZE = 64;
+    private static final int MAX_CACHED_KEY_LENGTH = 32;
+
+    /**
+     * Recently seen member keys, so that objects of the same shape get identical key strings
+     * without allocating a new substring for every member.
+     */
+    private final String[] keyCache = new String[KEY_CACHE_SIZE];
+
+    /** Number of entries of the shape cache, a power of 2. */
+    private static final int SHAPE_CACHE_SIZE = 64;
+    private static final int MAX_CACHED_SHAPE_PROPERTIES = 64;
+
+    /**
+     * Shapes of recently created objects, by key sequence. Kept across parses, so that records
+     * with the same layout are allocated directly with their final shape.
+     */
+    private final ShapeCacheEntry[] shapeCache = new ShapeCacheEntry[SHAPE_CACHE_SIZE];
+
+    /** Keys and values of the members of the objects currently being parsed. */
+    private String[] memberKeys = new String[16];
+    private Object[] memberValues = new Object[16];
+    private int memberTop;
+
     public TruffleJSONParser(JSContext context) {
         this.context = context;
     }
 
     public Object parse(String value) {
-        this.pos = 0;
-        this.parseDepth = 0;
         this.parseStr = value;
         this.len = parseStr.length();
+        try {
+            return parseInput();
+        } finally {
+            parseStr = null;
+        }
+    }
+
+    protected Object parseInput() {
+        this.pos = 0;
+        this.parseDepth = 0;
+        this.memberTop = 0;
+        Arrays.fill(keyCache, null);
         try {
             skipWhitespace();
             Object result = parseJSONText();
@@ -91,7 +136,7 @@ public class TruffleJSONParser {
         } catch (Exception ex) {
             throwSyntaxError(null);
         } finally {
-            parseStr = null;
+            Arrays.fill(memberValues, 0, memberTop, null);
         }
         return null;
     }
@@ -142,33 +187,97 @@ public class TruffleJSONParser {
         assert isObject(get());
         incDepth();
         read(); // parseJSONValue ensures this char is a "{"
-        DynamicObject object = JSUserObject.create(context);
+        DynamicObject object;
         if (get() != '}') {
-            parseJSONMemberList(object);
+            int base = memberTop;
+            int hash = parseJSONMemberList();
             if (get() != '}') {
                 error("closing quote } expected");
             }
+            object = createObject(base, memberTop - base, hash);
+            Arrays.fill(memberValues, base, memberTop, null);
+            memberTop = base;
+        } else {
+            object = JSUserObject.create(context);
         }
         read('}');
         decDepth();
         return object;
     }
 
-    private void parseJSONMemberList(DynamicObject object) {
-        Member member = parseJSONMember();
-        JSRuntime.createDataProperty(object, member.getKey(), member.getValue());
+    /**
+     * Parses the members of an object onto the member stack.
+     *
+     * @return a hash of the member keys, in order
+     */
+    private int parseJSONMemberList() {
+        int hash = parseJSONMember();
         while (get() == ',') {
             read();
-            member = parseJSONMember();
-            JSRuntime.createDataProperty(object, member.getKey(), member.getValue());
+            hash = 31 * hash + parseJSONMember();
         }
+        return hash;
     }
 
-    private Member parseJSONMember() {
-        String jsonString = parseJSONString();
+    private int parseJSONMember() {
+        String jsonString = parseJSONString(true);
         read(':');
-        Object jsonValue = parseJSONValue();
-        return new Member(jsonString, jsonValue);
+        int index = pushMember(jsonString);
+        Object jsonValue = parseJSONValue(); // may grow the member stack
+        memberValues[index] = jsonValue;
+        return jsonString.hashCode();
+    }
+
+    private int pushMember(String key) {
+        int index = memberTop;
+        if (index == memberKeys.length) {
+            memberKeys = Arrays.copyOf(memberKeys, index * 2);
+            memberValues = Arrays.copyOf(memberValues, index * 2);
+        }
+        memberKeys[index] = key;
+        memberTop = index + 1;
+        return index;
+    }
+
+    /**
+     * Creates an object from the members on the member stack. If an object with the same keys in
+     * the same order has been created before, the new object is allocated directly with the final
+     * shape of that object, and the values are stored into the existing locations.
+     */
+    private DynamicObject createObject(int base, int count, int hash) {
+        int index = (hash ^ (hash >>> 16) ^ count) & (SHAPE_CACHE_SIZE - 1);
+        Shape rootShape = context.getInitialUserObjectShape();
+        ShapeCacheEntry entry = shapeCache[index];
+        if (entry != null && entry.rootShape == rootShape && entry.matches(memberKeys, base, count) && entry.shape.isValid()) {
+            DynamicObject object = createObjectWithShape(entry, base);
+            if (object != null) {
+                return object;
+            }
+        }
+        DynamicObject object = JSObject.create(context, rootShape);
+        int flags = JSAttributes.getDefault();
+        for (int i = base; i < base + count; i++) {
+            JSObjectUtil.defineDataProperty(context, object, memberKeys[i], memberValues[i], flags);
+        }
+        if (count <= MAX_CACHED_SHAPE_PROPERTIES) {
+            shapeCache[index] = ShapeCacheEntry.create(rootShape, object.getShape(), memberKeys, base, count);
+        }
+        return object;
+    }
+
+    private DynamicObject createObjectWithShape(ShapeCacheEntry entry, int base) {
+        Shape shape = entry.shape;
+        DynamicObject object = JSObject.create(context, shape);
+        Property[] properties = entry.properties;
+        try {
+            for (int i = 0; i < properties.length; i++) {
+                properties[i].set(object, memberValues[base + i], shape);
+            }
+        } catch (IncompatibleLocationException | FinalLocationException e) {
+            // a value does not fit the location type, e.g. a double in an int location
+            return null;
+        }
+        return object;
     }
 
     private Object parseJSONArray() {
@@ -220,11 +329,15 @@ public class TruffleJSONParser {
     }
 
     protected String parseJSONString() {
+        return parseJSONString(false);
+    }
+
+    protected String parseJSONString(boolean isKey) {
         if (!isStringQuote(get())) {
             error("String quote expected");
         }
         pos++; // don't skip whitespace here
-        String str = parseJSONStringCharacters();
+        String str = parseJSONStringCharacters(isKey);
         if (!isStringQuote(get())) {
             error("String quote expected");
         }
@@ -236,7 +349,7 @@ public class TruffleJSONParser {
         return c == '"';
     }
 
-    protected String parseJSONStringCharacters() {
+    protected String parseJSONStringCharacters(boolean isKey) {
         int startPos = pos;
         boolean hasEscapes = false;
         boolean curIsEscaped = false;
@@ -253,14 +366,43 @@ public class TruffleJSONParser {
             pos++; // don't skip whitespace here
             c = get();
         }
-        String s = parseStr.substring(startPos, pos);
         if (hasEscapes) {
-            return unquoteJSON(s);
+            return unquoteJSON(substring(startPos, pos));
+        } else if (isKey) {
+            return keyString(startPos, pos);
         } else {
-            return s;
+            return substring(startPos, pos);
         }
     }
 
+    protected String keyString(int startPos, int endPos) {
+        int length = endPos - startPos;
+        if (length > MAX_CACHED_KEY_LENGTH) {
+            return substring(startPos, endPos);
+        }
+        int hash = 0;
+        for (int i = startPos; i < endPos; i++) {
+            hash = 31 * hash + get(i);
+        }
+        int index = (hash ^ (hash >>> 16)) & (KEY_CACHE_SIZE - 1);
+        String cached = keyCache[index];
+        if (cached != null && cached.hashCode() == hash && cached.length() == length && regionEquals(cached, startPos)) {
+            return cached;
+        }
+        String key = substring(startPos, endPos);
+        keyCache[index] = key;
+        return key;
+    }
+
+    private boolean regionEquals(String str, int startPos) {
+        for (int i = 0; i < str.length(); i++) {
+            if (str.charAt(i) != get(startPos + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     protected String unquoteJSON(String string) {
         int posBackslash = string.indexOf('\\');
         if (posBackslash >= 0) {
@@ -365,7 +507,7 @@ public class TruffleJSONParser {
             error("Expected number but found ident");
         } else if (firstPosIsZero) {
             // "0" should be parsable, but "08" not
-            if ((startPos + 1) < len) {
+            if (posValid(startPos + 1)) {
                 c = get(startPos + 1);
                 if (c == 'x' || c == 'X' || JSRuntime.isAsciiDigit(c)) {
                     error("octal and hexadecimal not allowed");
@@ -375,57 +517,45 @@ public class TruffleJSONParser {
         if (fractionPos == startPos || fractionPos == (pos - 1)) {
             error("malformed number");
         }
-        String valueStr;
-
         boolean hasExponent = false;
-        int exponent = 0;
         if (posValid() && isExponentPart()) {
             hasExponent = true;
             pos++; // reads the "E" without skipping whitespace
-            exponent = readDigits();
+            skipExponentDigits();
         }
-        valueStr = parseStr.substring(startPos, pos);
+        int endPos = pos;
         skipWhitespace(); // after the number
 
-        if (fractionPos >= 0) {
-            return parseAsDouble(sign, valueStr);
+        if (fractionPos < 0 && !hasExponent && endPos - startPos <= 9) {
+            // up to 9 digits always fit into int
+            return parseAsInt(sign, startPos, endPos);
         } else {
-            try {
-                return parseAsInt(sign, valueStr, hasExponent, Math.pow(10, exponent));
-            } catch (NumberFormatException ex) {
-                return parseAsDouble(sign, valueStr);
-            }
+            return parseAsDouble(sign, startPos, endPos);
         }
     }
 
-    protected static Number parseAsInt(int sign, String valueStr, boolean hasExponent, double expVal) {
-        int intVal = Integer.parseInt(valueStr);
+    protected Number parseAsInt(int sign, int startPos, int endPos) {
+        int intVal = 0;
+        for (int i = startPos; i < endPos; i++) {
+            intVal = intVal * 10 + (get(i) - '0');
+        }
         if (sign == -1) {
             if (intVal == 0) {
                 return -0.0;
             }
             intVal *= -1;
         }
-        if (hasExponent) {
-            return intVal * expVal;
-        } else {
-            return intVal;
-        }
+        return intVal;
     }
 
-    protected static Number parseAsDouble(int sign, String valueStr) {
-        return Double.parseDouble(valueStr) * sign;
+    protected Number parseAsDouble(int sign, int startPos, int endPos) {
+        return DoubleConversion.stringToDouble(parseStr, startPos, endPos) * sign;
     }
 
-    protected int readDigits() {
-        int sign = 1;
+    protected void skipExponentDigits() {
         char cur = get();
-        if (cur == '-') {
-            read();
-            sign = -1;
-        } else if (cur == '+') {
+        if (cur == '-' || cur == '+') {
             read();
-            sign = 1;
         }
         if (!posValid()) {
             error("malformed number");
@@ -442,7 +572,6 @@ public class TruffleJSONParser {
         if (pos == startPos) {
             error("Expected number but found ident");
         }
-        return sign * Integer.parseInt(parseStr.substring(startPos, pos));
     }
 
     protected boolean isExponentPart() {
@@ -503,15 +632,19 @@ public class TruffleJSONParser {
         return parseStr.charAt(posParam);
     }
 
+    protected String substring(int startPos, int endPos) {
+        return parseStr.substring(startPos, endPos);
+    }
+
     protected void read() {
-        assert len > pos;
+        assert posValid();
         pos++;
         skipWhitespace();
     }
 
     protected void read(String expected) {
-        assert len >= pos + expected.length();
-        assert parseStr.substring(pos, pos + expected.length()).equals(expected);
+        assert posValid(pos + expected.length() - 1);
+        assert substring(pos, pos + expected.length()).equals(expected);
         pos += expected.length();
         skipWhitespace();
     }
@@ -531,11 +664,15 @@ public class TruffleJSONParser {
     }
 
     protected boolean posValid() {
-        return pos < len;
+        return posValid(pos);
+    }
+
+    protected boolean posValid(int posParam) {
+        return posParam < len;
     }
 
     protected boolean isLiteral(char[] literal) {
-        if (len < pos + literal.length) {
+        if (!posValid(pos + literal.length - 1)) {
             return false;
         }
         // fastpath for the cached current character
@@ -550,21 +687,45 @@ public class TruffleJSONParser {
         return true;
     }
 
-    protected final class Member {
-        private final String key;
-        private final Object value;
+    /**
+     * Remembers the shape created for a sequence of member keys.
+     */
+    private static final class ShapeCacheEntry {
+        final Shape rootShape;
+        final Shape shape;
+        final String[] keys;
+        final Property[] properties;
 
-        public Member(String key, Object value) {
-            this.key = key;
-            this.value = value;
+        private ShapeCacheEntry(Shape rootShape, Shape shape, String[] keys, Property[] properties) {
+            this.rootShape = rootShape;
+            this.shape = shape;
+            this.keys = keys;
+            this.properties = properties;
         }
 
-        public String getKey() {
-            return key;
+        static ShapeCacheEntry create(Shape rootShape, Shape shape, String[] memberKeys, int base, int count) {
+            if (shape.getPropertyCount() != rootShape.getPropertyCount() + count) {
+                return null; // duplicate keys
+            }
+            String[] keys = Arrays.copyOfRange(memberKeys, base, base + count);
+            Property[] properties = new Property[count];
+            for (int i = 0; i < count; i++) {
+                properties[i] = shape.getProperty(keys[i]);
+            }
+            return new ShapeCacheEntry(rootShape, shape, keys, properties);
         }
 
-        public Object getValue() {
-            return value;
+        boolean matches(String[] memberKeys, int base, int count) {
+            if (keys.length != count) {
+                return false;
+            }
+            for (int i = 0; i < count; i++) {
+                String key = memberKeys[base + i];
+                if (key != keys[i] && !key.equals(keys[i])) {
+                    return false;
+                }
+            }
+            return true;
         }
     }
 }
@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.builtins.helper;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.interop.TruffleObject;
+import com.oracle.truffle.api.interop.java.JavaInterop;
+import com.oracle.truffle.js.runtime.Errors;
+import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.JSErrorType;
+import com.oracle.truffle.js.runtime.JSException;
+import com.oracle.truffle.js.runtime.JSRuntime;
+import com.oracle.truffle.js.runtime.doubleconv.DoubleConversion;
+
+/**
+ * JSON parser that reads its input in chunks from a {@link Reader} or a UTF-8 encoded
+ * {@link ByteBuffer} instead of from a single {@link String}. Only the characters of the token
+ * currently being parsed are retained.
+ */
+public class TruffleJSONStreamParser extends TruffleJSONParser {
+
+    private static final int CHUNK_SIZE = 8192;
+
+    private Reader reader;
+    private ByteBuffer bytes;
+    private CharsetDecoder decoder;
+    private boolean endOfInput;
+
+    private char[] buffer;
+    /** Input position of the first character in the buffer. */
+    private int bufferStart;
+    /** Input position after the last character read into the buffer. */
+    private int bufferEnd;
+    /** Input position of the first character of the token being parsed, or -1. */
+    private int tokenStart = -1;
+
+    public TruffleJSONStreamParser(JSContext context) {
+        super(context);
+    }
+
+    /**
+     * Returns the {@link Reader} or {@link ByteBuffer} wrapped by the given host object, or
+     * {@code null} if it does not wrap one.
+     */
+    @TruffleBoundary
+    public static Object getJavaInput(Object value) {
+        Object javaObject = value;
+        if (JSRuntime.isForeignObject(value)) {
+            if (!JavaInterop.isJavaObject(value)) {
+                return null;
+            }
+            javaObject = JavaInterop.asJavaObject((TruffleObject) value);
+        } else if (!JSRuntime.isJavaObject(value)) {
+            return null;
+        }
+        return (javaObject instanceof Reader || javaObject instanceof ByteBuffer) ? javaObject : null;
+    }
+
+    /**
+     * Parses JSON text from either a {@link Reader} or a UTF-8 encoded {@link ByteBuffer}.
+     */
+    @TruffleBoundary
+    public Object parseJavaInput(Object input) {
+        if (input instanceof Reader) {
+            return parse((Reader) input);
+        } else {
+            return parse((ByteBuffer) input);
+        }
+    }
+
+    @Override
+    public Object parse(String value) {
+        return parse(new StringReader(value));
+    }
+
+    @TruffleBoundary
+    public Object parse(Reader input) {
+        this.reader = input;
+        try {
+            return parseStream();
+        } finally {
+            this.reader = null;
+        }
+    }
+
+    /**
+     * Parses the remaining bytes of the buffer as UTF-8; malformed input is replaced with U+FFFD.
+     * The position of the buffer is not changed.
+     */
+    @TruffleBoundary
+    public Object parse(ByteBuffer utf8) {
+        this.bytes = utf8.duplicate();
+        if (decoder == null) {
+            decoder = StandardCharsets.UTF_8.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+        decoder.reset();
+        try {
+            return parseStream();
+        } catch (JSException ex) {
+            throw ex.getErrorType() == JSErrorType.SyntaxError ? reportSyntaxError(utf8, ex) : ex;
+        } finally {
+            this.bytes = null;
+        }
+    }
+
+    /**
+     * Decodes the whole input once and parses it with the evaluator's JSON parser, which reports the
+     * error message and position in the same format as {@code JSON.parse} (V8-compatible in V8
+     * compatibility mode).
+     */
+    private JSException reportSyntaxError(ByteBuffer utf8, JSException streamError) {
+        decoder.reset();
+        String text;
+        try {
+            text = decoder.decode(utf8.duplicate()).toString();
+        } catch (CharacterCodingException e) {
+            return streamError;
+        }
+        context.getEvaluator().parseJSON(context, text);
+        // the evaluator accepted the input, report the error of the stream parser
+        return streamError;
+    }
+
+    private Object parseStream() {
+        if (buffer == null) {
+            buffer = new char[CHUNK_SIZE];
+        }
+        bufferStart = 0;
+        bufferEnd = 0;
+        tokenStart = -1;
+        endOfInput = false;
+        try {
+            return parseInput();
+        } finally {
+            if (buffer.length > CHUNK_SIZE) {
+                // do not hold on to the buffer of a huge token
+                buffer = null;
+            }
+        }
+    }
+
+    /**
+     * Reads input until the character at the given position is available.
+     *
+     * @return {@code false} if the input ends before that position
+     */
+    private boolean fill(int index) {
+        while (index >= bufferEnd) {
+            if (endOfInput) {
+                return false;
+            }
+            int keep = tokenStart >= 0 ? tokenStart : pos;
+            if (keep > bufferStart) {
+                System.arraycopy(buffer, keep - bufferStart, buffer, 0, bufferEnd - keep);
+                bufferStart = keep;
+            }
+            int used = bufferEnd - bufferStart;
+            if (buffer.length - used < 2) {
+                // leave room for a surrogate pair
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            int read = readChars(buffer, used, buffer.length - used);
+            if (read < 0) {
+                endOfInput = true;
+            } else {
+                bufferEnd += read;
+            }
+        }
+        return true;
+    }
+
+    private int readChars(char[] cbuf, int off, int length) {
+        try {
+            if (reader != null) {
+                return reader.read(cbuf, off, length);
+            }
+            if (!bytes.hasRemaining()) {
+                return -1;
+            }
+            CharBuffer out = CharBuffer.wrap(cbuf, off, length);
+            decoder.decode(bytes, out, true);
+            if (!bytes.hasRemaining()) {
+                decoder.flush(out);
+            }
+            return out.position() - off;
+        } catch (IOException ex) {
+            throw Errors.createError("Cannot read JSON input: " + ex.getMessage());
+        }
+    }
+
+    @Override
+    protected char get(int posParam) {
+        if (posParam >= bufferEnd && !fill(posParam)) {
+            throw new StringIndexOutOfBoundsException(posParam);
+        }
+        return buffer[posParam - bufferStart];
+    }
+
+    @Override
+    protected boolean posValid(int posParam) {
+        return posParam < bufferEnd || fill(posParam);
+    }
+
+    @Override
+    protected String substring(int startPos, int endPos) {
+        return new String(buffer, startPos - bufferStart, endPos - startPos);
+    }
+
+    @Override
+    protected Number parseJSONNumber() {
+        tokenStart = pos;
+        try {
+            return super.parseJSONNumber();
+        } finally {
+            tokenStart = -1;
+        }
+    }
+
+    @Override
+    protected String parseJSONStringCharacters(boolean isKey) {
+        tokenStart = pos;
+        try {
+            return super.parseJSONStringCharacters(isKey);
+        } finally {
+            tokenStart = -1;
+        }
+    }
+
+    @Override
+    protected Number parseAsDouble(int sign, int startPos, int endPos) {
+        return DoubleConversion.stringToDouble(CharBuffer.wrap(buffer, 0, bufferEnd - bufferStart), startPos - bufferStart, endPos - bufferStart) * sign;
+    }
+
+    @Override
+    protected Object error(String message) {
+        // a Reader cannot be reparsed for a more precise message, see reportSyntaxError
+        throw Errors.createSyntaxError("Invalid JSON: " + message);
+    }
+}
@@ -56,6 +56,15 @@ public class BinaryDecoder {
         this.buffer = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
     }
 
+    /**
+     * Creates a decoder that starts reading at an absolute position of the buffer, independent of
+     * the buffer's current position.
+     */
+    public BinaryDecoder(ByteBuffer buffer, int position) {
+        this(buffer);
+        this.buffer.position(position);
+    }
+
     private int getU1() {
         return Byte.toUnsignedInt(buffer.get());
     }
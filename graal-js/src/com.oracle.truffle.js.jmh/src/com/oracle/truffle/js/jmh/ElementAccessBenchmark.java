@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.jmh;
+
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Indexed reads ({@code ReadElementNode}) over the different {@code ScriptArray} kinds. Each
+ * {@link #kind} builds an array that ends up in the corresponding array strategy.
+ */
+public class ElementAccessBenchmark extends JSBenchmark {
+
+    private static final int LENGTH = 1024;
+
+    @Param({"int", "double", "object", "holes", "sparse", "frozen", "typedInt32", "typedFloat64"}) public String kind;
+
+    private Value read;
+
+    @Setup
+    public void setup() {
+        setup("function create(kind, n) {\n" +
+                        "  var a;\n" +
+                        "  switch (kind) {\n" +
+                        "    case 'int': a = []; for (var i = 0; i < n; i++) a[i] = i; return a;\n" +
+                        "    case 'double': a = []; for (var i = 0; i < n; i++) a[i] = i + 0.5; return a;\n" +
+                        "    case 'object': a = []; for (var i = 0; i < n; i++) a[i] = (i & 1) ? i : {}; return a;\n" +
+                        "    case 'holes': a = new Array(n); for (var i = 0; i < n; i += 2) a[i] = i; return a;\n" +
+                        "    case 'sparse': a = []; a[1 << 30] = 0; for (var i = 0; i < n; i++) a[i] = i; return a;\n" +
+                        "    case 'frozen': a = []; for (var i = 0; i < n; i++) a[i] = i; return Object.freeze(a);\n" +
+                        "    case 'typedInt32': a = new Int32Array(n); for (var i = 0; i < n; i++) a[i] = i; return a;\n" +
+                        "    case 'typedFloat64': a = new Float64Array(n); for (var i = 0; i < n; i++) a[i] = i + 0.5; return a;\n" +
+                        "  }\n" +
+                        "  throw new Error(kind);\n" +
+                        "}\n" +
+                        "var array = create('" + kind + "', " + LENGTH + ");\n" +
+                        "function read() {\n" +
+                        "  var count = 0;\n" +
+                        "  for (var i = 0; i < " + LENGTH + "; i++) {\n" +
+                        "    if (array[i] !== undefined) count++;\n" +
+                        "  }\n" +
+                        "  return count;\n" +
+                        "}\n");
+        read = function("read");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LENGTH)
+    public Value readElement() {
+        return read.execute();
+    }
+}
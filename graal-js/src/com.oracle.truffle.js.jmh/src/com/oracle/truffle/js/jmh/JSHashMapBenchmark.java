@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.oracle.truffle.js.runtime.util.JSHashMap;
+
+/**
+ * {@link JSHashMap} operations as used by {@code Map} and {@code Set}, with keys already normalized
+ * the way the collection builtins pass them in.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JSHashMapBenchmark {
+
+    @Param({"16", "4096"}) public int size;
+    @Param({"int", "string"}) public String keyType;
+
+    private Object[] keys;
+    private JSHashMap map;
+
+    @Setup
+    public void setup() {
+        keys = new Object[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = keyType.equals("int") ? (Object) i : (Object) ("key" + i);
+        }
+        map = new JSHashMap();
+        for (Object key : keys) {
+            map.put(key, key);
+        }
+    }
+
+    @Benchmark
+    public JSHashMap fill() {
+        JSHashMap m = new JSHashMap();
+        for (Object key : keys) {
+            m.put(key, key);
+        }
+        return m;
+    }
+
+    @Benchmark
+    public int get() {
+        int found = 0;
+        for (Object key : keys) {
+            if (map.get(key) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int removeAndPut() {
+        for (Object key : keys) {
+            map.remove(key);
+            map.put(key, key);
+        }
+        return map.size();
+    }
+
+    @Benchmark
+    public int iterate() {
+        int count = 0;
+        JSHashMap.Cursor cursor = map.getEntries();
+        while (cursor.advance()) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.jmh;
+
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Named property reads and writes ({@code PropertyGetNode}/{@code PropertySetNode}) in monomorphic,
+ * polymorphic and megamorphic cache states. The number of distinct shapes seen by the single access
+ * site is controlled by {@link #shapes}.
+ */
+public class PropertyAccessBenchmark extends JSBenchmark {
+
+    private static final int OBJECTS = 1024;
+
+    /** 1: monomorphic, 4: polymorphic (within the default cache limit), 32: megamorphic. */
+    @Param({"1", "4", "32"}) public int shapes;
+
+    private Value get;
+    private Value set;
+
+    @Setup
+    public void setup() {
+        setup("var objects = new Array(" + OBJECTS + ");\n" +
+                        "for (var i = 0; i < objects.length; i++) {\n" +
+                        "  var o = {};\n" +
+                        "  o['p' + (i % " + shapes + ")] = 0;\n" +
+                        "  o.x = i;\n" +
+                        "  objects[i] = o;\n" +
+                        "}\n" +
+                        "function get() {\n" +
+                        "  var sum = 0;\n" +
+                        "  for (var i = 0; i < objects.length; i++) {\n" +
+                        "    sum += objects[i].x;\n" +
+                        "  }\n" +
+                        "  return sum;\n" +
+                        "}\n" +
+                        "function set() {\n" +
+                        "  for (var i = 0; i < objects.length; i++) {\n" +
+                        "    objects[i].x = i;\n" +
+                        "  }\n" +
+                        "}\n");
+        get = function("get");
+        set = function("set");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OBJECTS)
+    public Value getProperty() {
+        return get.execute();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OBJECTS)
+    public Value setProperty() {
+        return set.execute();
+    }
+}
@@ -273,8 +273,7 @@ public class JSNodeDecoder {
                         System.err.println("callex pos:" + position);
                     }
                     final Object[] arguments = getObjectArray(state);
-                    final ByteBuffer buffer = ((ByteBuffer) state.getBuffer().duplicate().position(position));
-                    NodeDecoder.DecoderState extracted = new NodeDecoder.DecoderState(new BinaryDecoder(buffer), arguments);
+                    NodeDecoder.DecoderState extracted = new NodeDecoder.DecoderState(new BinaryDecoder(state.getBuffer(), position), arguments);
                     storeResult(state, decodeNode(extracted, nodeFactory, context, source));
                     break;
                 }
@@ -288,18 +287,7 @@ public class JSNodeDecoder {
                     }
                     JSFunctionData functionData = (JSFunctionData) state.getObject();
                     final Object[] arguments = getObjectArray(state);
-                    functionData.setLazyInit(new JSFunctionData.Initializer() {
-                        private final ByteBuffer buffer = ((ByteBuffer) state.getBuffer().duplicate().position(position));
-
-                        @Override
-                        public void initializeRoot(JSFunctionData fd) {
-                            if (VERBOSE) {
-                                System.out.println("Decoding: " + fd.getName());
-                            }
-                            NodeDecoder.DecoderState extracted = new NodeDecoder.DecoderState(new BinaryDecoder(buffer), arguments);
-                            decodeNode(extracted, nodeFactory, context, source);
-                        }
-                    });
+                    functionData.setLazyInit(new LazyFunctionInitializer(this, state.getBuffer(), position, arguments, nodeFactory, context, source));
                     break;
                 }
                 case ID_NODE_SOURCE_SECTION_FIXUP: {
@@ -359,6 +347,40 @@ public class JSNodeDecoder {
         throw new IllegalStateException("invalid jump target");
     }
 
+    /**
+     * Decodes a function body from the snapshot the first time the function is called. Only the
+     * offset of the body is kept until then; the buffer is shared by all functions of the snapshot
+     * and may be memory-mapped, so function bodies that are never called are never read.
+     */
+    private static final class LazyFunctionInitializer implements JSFunctionData.Initializer {
+        private final JSNodeDecoder decoder;
+        private final ByteBuffer buffer;
+        private final int position;
+        private final Object[] arguments;
+        private final NodeFactory nodeFactory;
+        private final JSContext context;
+        private final Source source;
+
+        LazyFunctionInitializer(JSNodeDecoder decoder, ByteBuffer buffer, int position, Object[] arguments, NodeFactory nodeFactory, JSContext context, Source source) {
+            this.decoder = decoder;
+            this.buffer = buffer;
+            this.position = position;
+            this.arguments = arguments;
+            this.nodeFactory = nodeFactory;
+            this.context = context;
+            this.source = source;
+        }
+
+        @Override
+        public void initializeRoot(JSFunctionData functionData) {
+            if (VERBOSE) {
+                System.out.println("Decoding: " + functionData.getName());
+            }
+            NodeDecoder.DecoderState extracted = new NodeDecoder.DecoderState(new BinaryDecoder(buffer, position), arguments);
+            decoder.decodeNode(extracted, nodeFactory, context, source);
+        }
+    }
+
     private static Object[] getObjectArray(NodeDecoder.DecoderState state) {
         int length = state.getInt();
         Object[] array = new Object[length];
@@ -62,6 +62,9 @@ import com.oracle.truffle.js.nodes.access.DeclareGlobalNode;
 import com.oracle.truffle.js.nodes.access.DeclareGlobalVariableNode;
 import com.oracle.truffle.js.nodes.access.DoWithNode;
 import com.oracle.truffle.js.nodes.access.EnumerateNode;
+import com.oracle.truffle.js.nodes.access.ForInEnumerateNode;
+import com.oracle.truffle.js.nodes.access.ForInIteratorStepNode;
+import com.oracle.truffle.js.nodes.access.ForInIteratorValueNode;
 import com.oracle.truffle.js.nodes.access.FrameSlotNode;
 import com.oracle.truffle.js.nodes.access.GetIteratorNode;
 import com.oracle.truffle.js.nodes.access.GetPrototypeNode;
@@ -837,6 +840,18 @@ public class NodeFactory {
         return EnumerateNode.create(context, iteratedObject, values);
     }
 
+    public JavaScriptNode createForInEnumerate(JSContext context, JavaScriptNode iteratedObject) {
+        return ForInEnumerateNode.create(context, iteratedObject);
+    }
+
+    public JavaScriptNode createForInIteratorStep(JavaScriptNode iterator) {
+        return ForInIteratorStepNode.create(iterator);
+    }
+
+    public JavaScriptNode createForInIteratorValue(JavaScriptNode iterator) {
+        return ForInIteratorValueNode.create(iterator);
+    }
+
     public JavaScriptNode createIteratorNext(JSContext context, JavaScriptNode iterator) {
         return IteratorNextUnaryNode.create(context, iterator);
     }
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.nodes.access;
+
+import java.util.Collections;
+import java.util.Iterator;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+import com.oracle.truffle.js.nodes.JavaScriptNode;
+import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.JSRuntime;
+import com.oracle.truffle.js.runtime.objects.EnumCache;
+import com.oracle.truffle.js.runtime.objects.JSShape;
+import com.oracle.truffle.js.runtime.util.ForInIterator;
+
+/**
+ * Starts a for-in loop over the target object.
+ *
+ * If the target's shape has an {@link EnumCache}, the loop iterates the cached key array directly.
+ * Otherwise, this falls back to the generic {@link EnumerateNode} iterator.
+ */
+public class ForInEnumerateNode extends JavaScriptNode {
+    private final JSContext context;
+    @Child private JavaScriptNode targetNode;
+    @Child private EnumerateNode enumerateNode;
+    @Child private PropertyGetNode getIteratorNode;
+    private final ConditionProfile isObjectProfile = ConditionProfile.createBinaryProfile();
+    private final ConditionProfile cachedProfile = ConditionProfile.createBinaryProfile();
+
+    @CompilationFinal private Shape cachedShape;
+    @CompilationFinal private EnumCache cachedEnumCache;
+    @CompilationFinal private boolean replaced;
+    @CompilationFinal private boolean uncached;
+
+    protected ForInEnumerateNode(JSContext context, JavaScriptNode targetNode) {
+        this.context = context;
+        this.targetNode = targetNode;
+    }
+
+    public static ForInEnumerateNode create(JSContext context, JavaScriptNode targetNode) {
+        return new ForInEnumerateNode(context, targetNode);
+    }
+
+    @Override
+    public Object execute(VirtualFrame frame) {
+        Object target = targetNode.execute(frame);
+        if (isObjectProfile.profile(JSRuntime.isObject(target))) {
+            DynamicObject object = (DynamicObject) target;
+            EnumCache enumCache = getEnumCache(object);
+            if (cachedProfile.profile(enumCache != null)) {
+                return new ForInIterator(object, enumCache);
+            }
+        }
+        return enumerateGeneric(target);
+    }
+
+    private EnumCache getEnumCache(DynamicObject object) {
+        Shape shape = object.getShape();
+        if (shape == cachedShape) {
+            EnumCache enumCache = cachedEnumCache;
+            if (enumCache.isValid(object)) {
+                return enumCache;
+            }
+        }
+        EnumCache enumCache = JSShape.getEnumCache(object);
+        if (enumCache != null && !uncached && (cachedShape == null || (shape == cachedShape && enumCache != cachedEnumCache))) {
+            // cache the first shape seen; replace its key list once if it has become stale
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            if (cachedShape != null && replaced) {
+                // the prototypes keep changing, stop caching
+                cachedShape = null;
+                cachedEnumCache = null;
+                uncached = true;
+            } else {
+                replaced = cachedShape != null;
+                cachedShape = shape;
+                cachedEnumCache = enumCache;
+            }
+        }
+        return enumCache;
+    }
+
+    private ForInIterator enumerateGeneric(Object target) {
+        if (enumerateNode == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            enumerateNode = insert(EnumerateNode.create(context));
+            getIteratorNode = insert(PropertyGetNode.createGetHidden(JSRuntime.ENUMERATE_ITERATOR_ID, context));
+        }
+        DynamicObject iteratorObject = enumerateNode.execute(target);
+        Object iterator = getIteratorNode.getValue(iteratorObject);
+        return new ForInIterator(iterator instanceof Iterator ? (Iterator<?>) iterator : Collections.emptyIterator());
+    }
+
+    @Override
+    protected JavaScriptNode copyUninitialized() {
+        return create(context, cloneUninitialized(targetNode));
+    }
+}
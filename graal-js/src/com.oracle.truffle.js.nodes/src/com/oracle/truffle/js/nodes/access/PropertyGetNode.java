@@ -110,6 +110,7 @@ import com.oracle.truffle.js.runtime.objects.Accessor;
 import com.oracle.truffle.js.runtime.objects.JSObject;
 import com.oracle.truffle.js.runtime.objects.JSProperty;
 import com.oracle.truffle.js.runtime.objects.JSShape;
+import com.oracle.truffle.js.runtime.objects.MegamorphicPropertyCache;
 import com.oracle.truffle.js.runtime.objects.Null;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 import com.oracle.truffle.js.runtime.util.JSClassProfile;
@@ -1209,10 +1210,12 @@ public abstract class PropertyGetNode extends PropertyCacheNode<PropertyGetNode>
         private final BranchProfile fallbackBranch = BranchProfile.create();
         private final BranchProfile notAJSObjectBranch = BranchProfile.create();
         private final JSClassProfile jsclassProfile = JSClassProfile.create();
+        private final MegamorphicPropertyCache megamorphicCache;
 
         public GenericPropertyGetNode(Object key, JSContext context, boolean isMethod, boolean getOwnProperty) {
             super(key, context, getOwnProperty);
             this.toObjectNode = JSToObjectNode.createToObjectNoCheck(context);
+            this.megamorphicCache = context.getMegamorphicPropertyCache();
             if (isMethod) {
                 setMethod();
             }
@@ -1255,8 +1258,11 @@ public abstract class PropertyGetNode extends PropertyCacheNode<PropertyGetNode>
                     throw Errors.createTypeErrorCannotGetProperty(key, thisObj, isMethod(), this);
                 }
 
-                // 1. try to get a JS property
-                Object value = isMethod() ? jsclass.getMethodHelper(object, receiver, key) : jsclass.getHelper(object, receiver, key);
+                // 1. try the megamorphic stub cache, then a full JS property lookup
+                Object value = megamorphicCache == null ? null : megamorphicCache.get(object, receiver, key);
+                if (value == null) {
+                    value = isMethod() ? jsclass.getMethodHelper(object, receiver, key) : jsclass.getHelper(object, receiver, key);
+                }
                 if (value != null) {
                     return value;
                 }
@@ -98,6 +98,7 @@ import com.oracle.truffle.js.runtime.objects.JSObject;
 import com.oracle.truffle.js.runtime.objects.JSObjectUtil;
 import com.oracle.truffle.js.runtime.objects.JSProperty;
 import com.oracle.truffle.js.runtime.objects.JSShape;
+import com.oracle.truffle.js.runtime.objects.MegamorphicPropertyCache;
 import com.oracle.truffle.js.runtime.objects.Null;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 import com.oracle.truffle.js.runtime.util.JSClassProfile;
@@ -969,10 +970,12 @@ public abstract class PropertySetNode extends PropertyCacheNode<PropertySetNode>
         private final ConditionProfile isMap = ConditionProfile.createBinaryProfile();
         private final ConditionProfile isForeignObject = ConditionProfile.createBinaryProfile();
         @CompilerDirectives.CompilationFinal private Converters.Converter converter;
+        private final MegamorphicPropertyCache megamorphicCache;
 
         public GenericPropertySetNode(Object key, boolean isGlobal, boolean isStrict, boolean setOwnProperty, JSContext context) {
             super(key, isGlobal, isStrict, setOwnProperty, context);
             this.toObjectNode = JSToObjectNode.createToObjectNoCheck(context);
+            this.megamorphicCache = context.getMegamorphicPropertyCache();
         }
 
         @Override
@@ -1006,7 +1009,7 @@ public abstract class PropertySetNode extends PropertyCacheNode<PropertySetNode>
                 thisJSObj.define(key, value);
             } else if (isGlobal() && isStrict() && !JSObject.hasProperty(thisJSObj, key, jsclassProfile)) {
                 globalPropertySetInStrictMode(thisObj);
-            } else {
+            } else if (megamorphicCache == null || receiver != thisObj || !megamorphicCache.set(thisJSObj, key, value)) {
                 JSObject.setWithReceiver(thisJSObj, key, value, receiver, isStrict(), jsclassProfile);
             }
         }
@@ -49,6 +49,7 @@ import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.js.nodes.JavaScriptBaseNode;
 import com.oracle.truffle.js.nodes.cast.JSStringToNumberNodeGen.JSStringToNumberWithTrimNodeGen;
 import com.oracle.truffle.js.runtime.JSRuntime;
+import com.oracle.truffle.js.runtime.doubleconv.DoubleConversion;
 
 /**
  * This implements ECMA 9.3.1 ToNumber applied to the String Type.
@@ -121,11 +122,7 @@ public abstract class JSStringToNumberNode extends JavaScriptBaseNode {
     @Specialization(guards = {"input.length() > 0", "!containsInfinity(input)", "firstCharValid(input)", "isSci(input)"})
     @TruffleBoundary
     protected double doSci(String input) {
-        try {
-            return JSRuntime.stringToNumberSci(input);
-        } catch (NumberFormatException ex) {
-            return Double.NaN;
-        }
+        return JSRuntime.stringToNumberSci(input);
     }
 
     @Specialization(guards = {"isHex(input)"})
@@ -171,11 +168,7 @@ public abstract class JSStringToNumberNode extends JavaScriptBaseNode {
     @Specialization(guards = {"input.length() > 0", "!containsInfinity(input)", "firstCharValid(input)", "!isSci(input)", "!isLong(input)", "!isHex(input)"})
     @TruffleBoundary
     protected double doDouble(String input) {
-        try {
-            return Double.parseDouble(input);
-        } catch (NumberFormatException ex) {
-            return Double.NaN;
-        }
+        return DoubleConversion.stringToDouble(input, 0, input.length());
     }
 
     public abstract static class JSStringToNumberWithTrimNode extends JavaScriptBaseNode {
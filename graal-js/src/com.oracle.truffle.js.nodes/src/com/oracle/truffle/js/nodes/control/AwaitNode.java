@@ -41,6 +41,7 @@
 package com.oracle.truffle.js.nodes.control;
 
 import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.frame.MaterializedFrame;
 import com.oracle.truffle.api.frame.VirtualFrame;
@@ -55,17 +56,20 @@ import com.oracle.truffle.js.nodes.arguments.AccessIndexedArgumentNode;
 import com.oracle.truffle.js.nodes.function.JSFunctionCallNode;
 import com.oracle.truffle.js.nodes.promise.NewPromiseCapabilityNode;
 import com.oracle.truffle.js.nodes.promise.PerformPromiseThenNode;
-import com.oracle.truffle.js.runtime.JSArguments;
+import com.oracle.truffle.js.nodes.promise.PromiseReactionJobNode;
+import com.oracle.truffle.js.nodes.promise.PromiseResolveNode;
 import com.oracle.truffle.js.runtime.JSContext;
 import com.oracle.truffle.js.runtime.JSFrameUtil;
+import com.oracle.truffle.js.runtime.JSRuntime;
 import com.oracle.truffle.js.runtime.JavaScriptRootNode;
 import com.oracle.truffle.js.runtime.UserScriptException;
 import com.oracle.truffle.js.runtime.builtins.JSFunction;
 import com.oracle.truffle.js.runtime.builtins.JSFunctionData;
 import com.oracle.truffle.js.runtime.builtins.JSPromise;
+import com.oracle.truffle.js.runtime.objects.AwaitContinuation;
 import com.oracle.truffle.js.runtime.objects.Completion;
 import com.oracle.truffle.js.runtime.objects.PromiseCapabilityRecord;
-import com.oracle.truffle.js.runtime.objects.Undefined;
+import com.oracle.truffle.js.runtime.objects.PromiseReactionRecord;
 
 public class AwaitNode extends JavaScriptNode implements ResumableNode, SuspendNode {
 
@@ -75,14 +79,16 @@ public class AwaitNode extends JavaScriptNode implements ResumableNode, SuspendN
     @Child protected JSFunctionCallNode awaitTrampolineCall;
     @Child private NewPromiseCapabilityNode newPromiseCapability;
     @Child private PerformPromiseThenNode performPromiseThenNode;
-    @Child private JSFunctionCallNode callPromiseResolveNode;
     @Child private JSFunctionCallNode callPerformPromiseThen;
     @Child private PropertySetNode setPromiseIsHandled;
     @Child private PropertySetNode setAsyncContext;
     @Child private PropertySetNode setAsyncTarget;
     @Child private PropertySetNode setAsyncGenerator;
+    @Child private PromiseResolveNode promiseResolveNode;
+    @Child private PromiseReactionJobNode promiseReactionJobNode;
     protected final JSContext context;
     private final ConditionProfile asyncTypeProf = ConditionProfile.createBinaryProfile();
+    private final ConditionProfile awaitObjectProf = ConditionProfile.createBinaryProfile();
 
     static final HiddenKey ASYNC_CONTEXT = new HiddenKey("AsyncContext");
     static final HiddenKey ASYNC_TARGET = new HiddenKey("AsyncTarget");
@@ -95,7 +101,6 @@ public class AwaitNode extends JavaScriptNode implements ResumableNode, SuspendN
         this.readAsyncContextNode = readAsyncContextNode;
         this.awaitTrampolineCall = JSFunctionCallNode.createCall();
 
-        this.callPromiseResolveNode = JSFunctionCallNode.createCall();
         this.setPromiseIsHandled = PropertySetNode.createSetHidden(JSPromise.PROMISE_IS_HANDLED, context);
         this.setAsyncContext = PropertySetNode.createSetHidden(ASYNC_CONTEXT, context);
         this.setAsyncTarget = PropertySetNode.createSetHidden(ASYNC_TARGET, context);
@@ -126,18 +131,57 @@ public class AwaitNode extends JavaScriptNode implements ResumableNode, SuspendN
             context.notifyPromiseHook(-1 /* parent info */, (DynamicObject) parentPromise);
         }
 
-        PromiseCapabilityRecord promiseCapability = newPromiseCapability();
-        Object resolve = promiseCapability.getResolve();
-        callPromiseResolveNode.executeCall(JSArguments.createOneArg(Undefined.instance, resolve, value));
+        if (context.getPromiseHookNotUsedAssumption().isValid()) {
+            awaitWithContinuation(value, AwaitContinuation.create(resumeTarget, asyncContext, generatorOrCapability));
+        } else {
+            awaitWithClosures(value, resumeTarget, asyncContext, generatorOrCapability);
+        }
+        throw YieldException.AWAIT_NULL; // value is ignored
+    }
+
+    /**
+     * Await without intermediate functions and promises: a native promise is used as is, and its
+     * reactions resume the async function directly. Only used while no promise hook is installed,
+     * since the hooks expect to observe the throwaway promise of the closure-based protocol.
+     */
+    private void awaitWithContinuation(Object value, AwaitContinuation continuation) {
+        PromiseReactionRecord fulfillReaction = PromiseReactionRecord.createAwait(continuation, true);
+        if (awaitObjectProf.profile(JSRuntime.isObject(value) || JSRuntime.isForeignObject(value))) {
+            DynamicObject promise = promiseResolve(value);
+            PromiseReactionRecord rejectReaction = PromiseReactionRecord.createAwait(continuation, false);
+            performPromiseThenNode.execute(promise, fulfillReaction, rejectReaction);
+        } else {
+            // PromiseResolve would create a promise that is already fulfilled with the value
+            if (promiseReactionJobNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                promiseReactionJobNode = insert(PromiseReactionJobNode.create(context));
+            }
+            context.promiseEnqueueJob(promiseReactionJobNode.execute(fulfillReaction, value));
+        }
+    }
+
+    private DynamicObject promiseResolve(Object value) {
+        if (promiseResolveNode == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            promiseResolveNode = insert(PromiseResolveNode.create(context));
+        }
+        return promiseResolveNode.execute(context.getRealm().getPromiseConstructor(), value);
+    }
+
+    /**
+     * Await with AwaitFulfilled/AwaitRejected functions and a throwaway promise, observable by the
+     * promise hook. Takes as many ticks as {@link #awaitWithContinuation}: the awaited value goes
+     * through PromiseResolve too.
+     */
+    private void awaitWithClosures(Object value, CallTarget resumeTarget, MaterializedFrame asyncContext, Object generatorOrCapability) {
+        DynamicObject promise = promiseResolve(value);
         DynamicObject onFulfilled = createAwaitFulfilledFunction(resumeTarget, asyncContext, generatorOrCapability);
         DynamicObject onRejected = createAwaitRejectedFunction(resumeTarget, asyncContext, generatorOrCapability);
         PromiseCapabilityRecord throwawayCapability = newPromiseCapability();
         setPromiseIsHandled.setValueBoolean(throwawayCapability.getPromise(), true);
 
-        DynamicObject promise = promiseCapability.getPromise();
         context.notifyPromiseHook(-1 /* parent info */, promise);
         performPromiseThenNode.execute(promise, onFulfilled, onRejected, throwawayCapability);
-        throw YieldException.AWAIT_NULL; // value is ignored
     }
 
     @Override
@@ -54,6 +54,7 @@ import java.util.concurrent.Callable;
 import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.RootCallTarget;
 import com.oracle.truffle.api.Truffle;
@@ -1132,6 +1133,11 @@ public abstract class JSFunctionCallNode extends JavaScriptNode implements JavaS
         }
     }
 
+    /**
+     * Resolves the overload for the current argument types and caches it in front of itself. Once
+     * the chain reaches {@link JSTruffleOptions#JavaCallCacheLimit} entries, the whole chain is
+     * replaced with a megamorphic node that resolves the overload on every call.
+     */
     private static final class UninitializedJavaMethodCallNode extends JavaMethodCallNode {
         UninitializedJavaMethodCallNode(Object method) {
             super(method);
@@ -1140,9 +1146,26 @@ public abstract class JSFunctionCallNode extends JavaScriptNode implements JavaS
         @Override
         public Object executeCall(Object[] arguments) {
             CompilerDirectives.transferToInterpreterAndInvalidate();
+            JSDirectCallNode top = this;
+            int depth = 0;
+            for (Node parent = getParent(); parent instanceof MHJavaMethodCallNode; parent = parent.getParent()) {
+                top = (JSDirectCallNode) parent;
+                depth++;
+            }
+            if (depth >= JSTruffleOptions.JavaCallCacheLimit) {
+                return top.replace(createMegamorphic(method), "megamorphic Java method call").executeCall(arguments);
+            }
             return this.replace(makeMethodHandleCallNode(JSArguments.extractUserArguments(arguments))).executeCall(arguments);
         }
 
+        private static JSDirectCallNode createMegamorphic(Object method) {
+            if (method instanceof JavaMethod) {
+                return new SlowJavaMethodCallNode((JavaMethod) method);
+            } else {
+                return new JavaClassCallNode((JavaClass) method);
+            }
+        }
+
         private JavaMethodCallNode makeMethodHandleCallNode(Object[] arguments) {
             boolean isStatic;
             Pair<AbstractJavaMethod, Converter> bestMethod;
@@ -1164,7 +1187,11 @@ public abstract class JSFunctionCallNode extends JavaScriptNode implements JavaS
             // spread arguments array to parameters
             adaptedHandle = adaptedHandle.asSpreader(Object[].class, parameterTypes.length);
 
-            return new MHJavaMethodCallNode(method, adaptedHandle, converter);
+            Class<?>[] argumentTypes = new Class<?>[arguments.length];
+            for (int i = 0; i < arguments.length; i++) {
+                argumentTypes[i] = arguments[i] == null ? null : arguments[i].getClass();
+            }
+            return new MHJavaMethodCallNode(method, argumentTypes, adaptedHandle, converter);
         }
 
         private static MethodHandle adaptSignature(MethodHandle originalHandle, boolean isStatic) {
@@ -1179,13 +1206,20 @@ public abstract class JSFunctionCallNode extends JavaScriptNode implements JavaS
         }
     }
 
+    /**
+     * Cache entry keyed by the runtime classes of the arguments the overload was selected for. The
+     * converter guard is still checked since some conversions depend on more than the class (e.g.
+     * JS arrays vs. functions).
+     */
     private static final class MHJavaMethodCallNode extends JavaMethodCallNode {
+        @CompilationFinal(dimensions = 1) private final Class<?>[] argumentTypes;
         private final MethodHandle methodHandle;
         private final Converter converter;
         @Child private JavaMethodCallNode next;
 
-        MHJavaMethodCallNode(Object method, MethodHandle methodHandle, Converter converter) {
+        MHJavaMethodCallNode(Object method, Class<?>[] argumentTypes, MethodHandle methodHandle, Converter converter) {
             super(method);
+            this.argumentTypes = argumentTypes;
             this.methodHandle = methodHandle;
             this.converter = converter;
             this.next = new UninitializedJavaMethodCallNode(method);
@@ -1194,12 +1228,26 @@ public abstract class JSFunctionCallNode extends JavaScriptNode implements JavaS
         @Override
         public Object executeCall(Object[] arguments) {
             Object[] userArgs = JSArguments.extractUserArguments(arguments);
-            if (converter.guard(userArgs)) {
+            if (matchesArgumentTypes(userArgs) && converter.guard(userArgs)) {
                 return Converters.JAVA_TO_JS_CONVERTER.convert(invoke(methodHandle, JSArguments.getThisObject(arguments), (Object[]) converter.convert(userArgs)));
             } else {
                 return next.executeCall(arguments);
             }
         }
+
+        @ExplodeLoop
+        private boolean matchesArgumentTypes(Object[] userArgs) {
+            if (userArgs.length != argumentTypes.length) {
+                return false;
+            }
+            for (int i = 0; i < argumentTypes.length; i++) {
+                Object arg = userArgs[i];
+                if (argumentTypes[i] == null ? arg != null : (arg == null || arg.getClass() != argumentTypes[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
     }
 
     private static class JavaClassCallNode extends JSDirectCallNode {
@@ -65,7 +65,10 @@ public abstract class InitializeCollatorNode extends JavaScriptBaseNode {
     @Child GetStringOptionNode getSensitivityOption;
     @Child GetBooleanOptionNode getIgnorePunctuationOption;
 
+    private final JSContext context;
+
     protected InitializeCollatorNode(JSContext context) {
+        this.context = context;
         this.toCanonicalizedLocaleListNode = JSToCanonicalizedLocaleListNode.create(context);
         this.createOptionsNode = CreateOptionsObjectNodeGen.create(context);
         this.getUsageOption = GetStringOptionNode.create(context, "usage", new String[]{"sort", "search"}, "sort");
@@ -96,7 +99,7 @@ public abstract class InitializeCollatorNode extends JavaScriptBaseNode {
         String sensitivity = getSensitivityOption.executeValue(options);
         Boolean ignorePunctuation = getIgnorePunctuationOption.executeValue(options);
 
-        JSCollator.initializeCollator(state, locales, usage, optLocaleMatcher, optkn, optkf, sensitivity, ignorePunctuation);
+        JSCollator.initializeCollator(context, state, locales, usage, optLocaleMatcher, optkn, optkf, sensitivity, ignorePunctuation);
 
         return collatorObj;
     }
@@ -80,7 +80,10 @@ public abstract class InitializeDateTimeFormatNode extends JavaScriptBaseNode {
     @Child GetStringOptionNode getSecondOption;
     @Child GetStringOptionNode getTimeZoneNameOption;
 
+    private final JSContext context;
+
     protected InitializeDateTimeFormatNode(JSContext context, String required, String defaults) {
+        this.context = context;
 
         this.required = required;
         this.defaults = defaults;
@@ -135,7 +138,7 @@ public abstract class InitializeDateTimeFormatNode extends JavaScriptBaseNode {
         String secondOpt = getSecondOption.executeValue(options);
         String tzNameOpt = getTimeZoneNameOption.executeValue(options);
 
-        JSDateTimeFormat.setupInternalDateTimeFormat(state, locales, options, weekdayOpt, eraOpt, yearOpt, monthOpt, dayOpt, hourOpt, hcOpt, hour12Opt, minuteOpt, secondOpt, tzNameOpt);
+        JSDateTimeFormat.setupInternalDateTimeFormat(context, state, locales, options, weekdayOpt, eraOpt, yearOpt, monthOpt, dayOpt, hourOpt, hcOpt, hour12Opt, minuteOpt, secondOpt, tzNameOpt);
 
         return dateTimeFormatObj;
     }
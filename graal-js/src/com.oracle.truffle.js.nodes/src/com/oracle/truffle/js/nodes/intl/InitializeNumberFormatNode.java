@@ -76,7 +76,10 @@ public abstract class InitializeNumberFormatNode extends JavaScriptBaseNode {
 
     @Child GetBooleanOptionNode getUseGroupingOption;
 
+    private final JSContext context;
+
     protected InitializeNumberFormatNode(JSContext context) {
+        this.context = context;
         this.toCanonicalizedLocaleListNode = JSToCanonicalizedLocaleListNode.create(context);
         this.createOptionsNode = CreateOptionsObjectNodeGen.create(context);
         this.getLocaleMatcherOption = GetStringOptionNode.create(context, "localeMatcher", new String[]{"lookup", "best fit"}, "best fit");
@@ -145,7 +148,7 @@ public abstract class InitializeNumberFormatNode extends JavaScriptBaseNode {
             }
         }
         state.useGrouping = optUseGrouping;
-        JSNumberFormat.setupInternalNumberFormat(state);
+        JSNumberFormat.setupInternalNumberFormat(context, state);
         setNumberFormatDigitOptions(state, options, mnfdDefault, mxfdDefault);
         return numberFormatObj;
     }
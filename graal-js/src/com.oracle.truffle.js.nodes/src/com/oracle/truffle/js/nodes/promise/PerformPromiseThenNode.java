@@ -86,14 +86,24 @@ public class PerformPromiseThenNode extends JavaScriptBaseNode {
         return new PerformPromiseThenNode(context);
     }
 
-    @SuppressWarnings("unchecked")
     public DynamicObject execute(DynamicObject promise, Object onFulfilled, Object onRejected, PromiseCapabilityRecord resultCapability) {
         assert JSPromise.isJSPromise(promise);
         DynamicObject onFulfilledHandler = isCallableFulfill.executeBoolean(onFulfilled) ? (DynamicObject) onFulfilled : Undefined.instance;
         DynamicObject onRejectedHandler = isCallableReject.executeBoolean(onRejected) ? (DynamicObject) onRejected : Undefined.instance;
         PromiseReactionRecord fulfillReaction = PromiseReactionRecord.create(resultCapability, onFulfilledHandler, true);
         PromiseReactionRecord rejectReaction = PromiseReactionRecord.create(resultCapability, onRejectedHandler, false);
+        execute(promise, fulfillReaction, rejectReaction);
+        return resultCapability.getPromise();
+    }
 
+    /**
+     * Adds the given reactions to the promise, or enqueues a job for one of them if the promise is
+     * already settled. Used directly for the reactions of an await, which have no result
+     * capability.
+     */
+    @SuppressWarnings("unchecked")
+    public void execute(DynamicObject promise, PromiseReactionRecord fulfillReaction, PromiseReactionRecord rejectReaction) {
+        assert JSPromise.isJSPromise(promise);
         int promiseState = getPromiseState(promise);
         if (pendingProf.profile(promiseState == JSPromise.PENDING)) {
             Boundaries.listAdd((ArrayList<? super PromiseReactionRecord>) getPromiseFulfillReactions.getValue(promise), fulfillReaction);
@@ -112,7 +122,6 @@ public class PerformPromiseThenNode extends JavaScriptBaseNode {
             context.promiseEnqueueJob(job);
         }
         setPromiseIsHandled.setValueBoolean(promise, true);
-        return resultCapability.getPromise();
     }
 
     private boolean getPromiseIsHandled(DynamicObject promise) {
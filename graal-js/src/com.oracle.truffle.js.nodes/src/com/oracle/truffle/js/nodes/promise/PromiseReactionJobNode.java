@@ -49,6 +49,7 @@ import com.oracle.truffle.api.object.HiddenKey;
 import com.oracle.truffle.js.nodes.JavaScriptBaseNode;
 import com.oracle.truffle.js.nodes.access.PropertyGetNode;
 import com.oracle.truffle.js.nodes.access.PropertySetNode;
+import com.oracle.truffle.js.nodes.control.AwaitResumeNode;
 import com.oracle.truffle.js.nodes.control.TryCatchNode;
 import com.oracle.truffle.js.nodes.function.JSFunctionCallNode;
 import com.oracle.truffle.js.runtime.JSArguments;
@@ -58,6 +59,7 @@ import com.oracle.truffle.js.runtime.JavaScriptRootNode;
 import com.oracle.truffle.js.runtime.PromiseHook;
 import com.oracle.truffle.js.runtime.builtins.JSFunction;
 import com.oracle.truffle.js.runtime.builtins.JSFunctionData;
+import com.oracle.truffle.js.runtime.objects.AwaitContinuation;
 import com.oracle.truffle.js.runtime.objects.PromiseCapabilityRecord;
 import com.oracle.truffle.js.runtime.objects.PromiseReactionRecord;
 import com.oracle.truffle.js.runtime.objects.Undefined;
@@ -94,6 +96,8 @@ public class PromiseReactionJobNode extends JavaScriptBaseNode {
             @Child private PropertyGetNode getArgument = PropertyGetNode.createGetHidden(ARGUMENT_KEY, context);
             @Child private JSFunctionCallNode callNode = JSFunctionCallNode.createCall();
             @Child private TryCatchNode.GetErrorObjectNode getErrorObjectNode;
+            @Child private AwaitResumeNode awaitFulfilledNode;
+            @Child private AwaitResumeNode awaitRejectedNode;
 
             @Override
             public Object execute(VirtualFrame frame) {
@@ -101,8 +105,12 @@ public class PromiseReactionJobNode extends JavaScriptBaseNode {
                 PromiseReactionRecord reaction = (PromiseReactionRecord) getReaction.getValue(functionObject);
                 Object argument = getArgument.getValue(functionObject);
 
+                if (reaction.getHandler() instanceof AwaitContinuation) {
+                    return resumeAwait(reaction, (AwaitContinuation) reaction.getHandler(), argument);
+                }
+
                 PromiseCapabilityRecord promiseCapability = reaction.getCapability();
-                DynamicObject handler = reaction.getHandler();
+                DynamicObject handler = (DynamicObject) reaction.getHandler();
 
                 context.notifyPromiseHook(PromiseHook.TYPE_BEFORE, promiseCapability.getPromise());
 
@@ -137,6 +145,24 @@ public class PromiseReactionJobNode extends JavaScriptBaseNode {
                 return status;
             }
 
+            private Object resumeAwait(PromiseReactionRecord reaction, AwaitContinuation continuation, Object argument) {
+                AwaitResumeNode resumeNode;
+                if (reaction.isFulfill()) {
+                    if (awaitFulfilledNode == null) {
+                        CompilerDirectives.transferToInterpreterAndInvalidate();
+                        awaitFulfilledNode = insert(AwaitResumeNode.create(false));
+                    }
+                    resumeNode = awaitFulfilledNode;
+                } else {
+                    if (awaitRejectedNode == null) {
+                        CompilerDirectives.transferToInterpreterAndInvalidate();
+                        awaitRejectedNode = insert(AwaitResumeNode.create(true));
+                    }
+                    resumeNode = awaitRejectedNode;
+                }
+                return resumeNode.execute(continuation.getResumeTarget(), continuation.getAsyncContext(), continuation.getGeneratorOrCapability(), argument);
+            }
+
             private boolean shouldCatch(Throwable exception) {
                 if (getErrorObjectNode == null) {
                     CompilerDirectives.transferToInterpreterAndInvalidate();
@@ -40,7 +40,11 @@
  */
 package com.oracle.truffle.js.parser;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.js.codec.BinaryDecoder;
@@ -74,6 +78,16 @@ public class BinarySnapshotProvider implements SnapshotProvider {
         this(ByteBuffer.wrap(bytes));
     }
 
+    /**
+     * Memory-maps a snapshot file. Function bodies are decoded from the mapping lazily, on first
+     * call, so code that never runs is never paged in.
+     */
+    public static BinarySnapshotProvider map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new BinarySnapshotProvider(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
     @Override
     public Object apply(NodeFactory nodeFactory, JSContext context, Source source) {
         BinaryDecoder decoder = new BinaryDecoder(buffer);
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.parser;
+
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.ParserOptions;
+
+/**
+ * Pool of closed {@link JSContext}s for code sharing between contexts of an engine.
+ *
+ * Contexts are pooled per {@link ParserOptions} configuration. Each configuration holds at most
+ * {@code maxIdlePerConfig} idle contexts; the most recently released context is reused first and,
+ * when the limit is exceeded, the least recently released one is evicted.
+ */
+public final class ContextPool {
+    private final int maxIdlePerConfig;
+    private final Map<ParserOptions, IdleContexts> pools = new ConcurrentHashMap<>();
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final AtomicLong totalReuseTime = new AtomicLong();
+
+    private static final class IdleContexts {
+        final Deque<PooledContext> deque = new ConcurrentLinkedDeque<>();
+        final AtomicInteger size = new AtomicInteger();
+    }
+
+    private static final class PooledContext {
+        final JSContext context;
+        final long releaseTime;
+
+        PooledContext(JSContext context, long releaseTime) {
+            this.context = context;
+            this.releaseTime = releaseTime;
+        }
+    }
+
+    public ContextPool(int maxIdlePerConfig) {
+        this.maxIdlePerConfig = maxIdlePerConfig;
+    }
+
+    /**
+     * Takes an idle context with the given configuration out of the pool.
+     *
+     * @return the context or {@code null} if there is none
+     */
+    public JSContext poll(ParserOptions configKey) {
+        IdleContexts idle = pools.get(configKey);
+        PooledContext pooled = idle == null ? null : idle.deque.pollFirst();
+        if (pooled == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        // the slot is released only after the context has left the deque, so size never
+        // undercounts the idle contexts
+        idle.size.decrementAndGet();
+        hitCount.incrementAndGet();
+        totalReuseTime.addAndGet(System.nanoTime() - pooled.releaseTime);
+        return pooled.context;
+    }
+
+    /**
+     * Returns a closed context to the pool, evicting the least recently released context of the
+     * same configuration if the pool is full.
+     */
+    public void offer(JSContext context) {
+        if (maxIdlePerConfig == 0) {
+            evictionCount.incrementAndGet();
+            return;
+        }
+        IdleContexts idle = pools.computeIfAbsent(context.getParserOptions(), k -> new IdleContexts());
+        assert idle.deque.stream().noneMatch(pooled -> pooled.context == context);
+        PooledContext pooled = new PooledContext(context, System.nanoTime());
+        while (true) {
+            int size = idle.size.get();
+            if (size < maxIdlePerConfig) {
+                // reserve the slot before the context becomes visible to poll
+                if (idle.size.compareAndSet(size, size + 1)) {
+                    idle.deque.offerFirst(pooled);
+                    return;
+                }
+            } else if (idle.deque.pollLast() != null) {
+                // the evicted context's slot is handed over to this one
+                evictionCount.incrementAndGet();
+                idle.deque.offerFirst(pooled);
+                return;
+            } else {
+                // a concurrent poll has taken the last context but not yet released its slot
+                Thread.yield();
+            }
+        }
+    }
+
+    public int getMaxIdlePerConfig() {
+        return maxIdlePerConfig;
+    }
+
+    /**
+     * Number of idle contexts currently held by the pool, over all configurations.
+     */
+    public int getIdleCount() {
+        int count = 0;
+        for (IdleContexts idle : pools.values()) {
+            count += idle.size.get();
+        }
+        return count;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * Average time in nanoseconds that reused contexts were idle in the pool.
+     */
+    public long getAverageReuseTime() {
+        long hits = hitCount.get();
+        return hits == 0 ? 0 : totalReuseTime.get() / hits;
+    }
+
+    @Override
+    public String toString() {
+        return "ContextPool[idle=" + getIdleCount() + ", hits=" + getHitCount() + ", misses=" + getMissCount() + ", evictions=" + getEvictionCount() + ", avgReuseTime=" +
+                        getAverageReuseTime() + "ns]";
+    }
+}
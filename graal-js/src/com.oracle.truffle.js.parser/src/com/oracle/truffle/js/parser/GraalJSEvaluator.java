@@ -310,6 +310,11 @@ public final class GraalJSEvaluator implements JSParser {
         }
     }
 
+    @Override
+    public List<String> getRequestedModules(JSModuleRecord moduleRecord) {
+        return ((Module) moduleRecord.getModule()).getRequestedModules();
+    }
+
     @Override
     public JSModuleRecord hostResolveImportedModule(JSModuleRecord referencingModule, String specifier) {
         return referencingModule.getModuleLoader().resolveImportedModule(referencingModule, specifier);
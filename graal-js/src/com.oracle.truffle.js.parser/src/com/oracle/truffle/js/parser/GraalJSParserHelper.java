@@ -91,7 +91,7 @@ public class GraalJSParserHelper {
         CharSequence code = truffleSource.getCharacters();
         com.oracle.js.parser.Source source = com.oracle.js.parser.Source.sourceFor(truffleSource.getName(), code, eval);
 
-        ScriptEnvironment env = makeScriptEnvironment(parserOptions);
+        ScriptEnvironment env = makeScriptEnvironment(parserOptions, JSTruffleOptions.LazyParsing && !parseModule && !eval);
         ErrorManager errors;
         if (eval) {
             errors = new ErrorManager.ThrowErrorManager();
@@ -108,6 +108,23 @@ public class GraalJSParserHelper {
         return parsed;
     }
 
+    /**
+     * Reparses a function whose body was dropped by lazy parsing, for translation on first call.
+     */
+    public static FunctionNode reparseLazyFunction(FunctionNode lazyFunction, GraalJSParserOptions parserOptions) {
+        CompilerAsserts.neverPartOfCompilation(NEVER_PART_OF_COMPILATION_MESSAGE);
+        assert lazyFunction.isLazy();
+        ScriptEnvironment env = makeScriptEnvironment(parserOptions, true);
+        // the source has been fully syntax-checked already
+        ErrorManager errors = new ErrorManager.ThrowErrorManager();
+        errors.setLimit(0);
+
+        Parser parser = createParser(env, lazyFunction.getSource(), errors, parserOptions, lazyFunction.isStrict() || env.isStrict(), lazyFunction.getLineNumber() - 1);
+        FunctionNode parsed = parser.reparseLazyFunction(lazyFunction);
+        GraalJSTranslator.functionVarDeclarationPass(parsed, parserOptions);
+        return parsed;
+    }
+
     public static Expression parseExpression(com.oracle.truffle.api.source.Source truffleSource, GraalJSParserOptions parserOptions) {
         CompilerAsserts.neverPartOfCompilation(NEVER_PART_OF_COMPILATION_MESSAGE);
         CharSequence code = truffleSource.getCharacters();
@@ -135,7 +152,11 @@ public class GraalJSParserHelper {
     }
 
     private static Parser createParser(ScriptEnvironment env, com.oracle.js.parser.Source source, ErrorManager errors, GraalJSParserOptions parserOptions) {
-        return new Parser(env, source, errors) {
+        return createParser(env, source, errors, parserOptions, env.isStrict(), 0);
+    }
+
+    private static Parser createParser(ScriptEnvironment env, com.oracle.js.parser.Source source, ErrorManager errors, GraalJSParserOptions parserOptions, boolean strict, int lineOffset) {
+        return new Parser(env, source, errors, strict, lineOffset) {
             @Override
             protected void validateLexerToken(LexerToken lexerToken) {
                 if (lexerToken instanceof RegexToken) {
@@ -159,7 +180,12 @@ public class GraalJSParserHelper {
     }
 
     private static ScriptEnvironment makeScriptEnvironment(GraalJSParserOptions parserOptions) {
+        return makeScriptEnvironment(parserOptions, false);
+    }
+
+    private static ScriptEnvironment makeScriptEnvironment(GraalJSParserOptions parserOptions, boolean lazyParsing) {
         ScriptEnvironment.Builder builder = ScriptEnvironment.builder();
+        builder.lazyParsing(lazyParsing);
         builder.strict(parserOptions.isStrict());
         builder.es6(parserOptions.isES6());
         builder.es8(parserOptions.isES8());
@@ -294,7 +294,14 @@ abstract class GraalJSTranslator extends com.oracle.js.parser.ir.visitor.Transla
         }
         boolean functionMode = !isGlobal || (isStrict && isIndirectEval);
 
-        boolean lazyTranslation = JSTruffleOptions.LazyTranslation && functionMode && !functionNode.isProgram() && !inDirectEval;
+        if (functionNode.isLazy() && (!functionMode || inDirectEval)) {
+            // translation cannot be deferred, so the skipped body is needed right away
+            FunctionNode reparsedFunction = GraalJSParserHelper.reparseLazyFunction(functionNode, parserOptions);
+            getLexicalContext().replace(functionNode, reparsedFunction);
+            return enterFunctionNode(reparsedFunction);
+        }
+
+        boolean lazyTranslation = (JSTruffleOptions.LazyTranslation || functionNode.isLazy()) && functionMode && !functionNode.isProgram() && !inDirectEval;
 
         String functionName = getFunctionName(functionNode);
         JSFunctionData functionData;
@@ -302,16 +309,30 @@ abstract class GraalJSTranslator extends com.oracle.js.parser.ir.visitor.Transla
         if (lazyTranslation) {
             assert functionMode && !functionNode.isProgram();
 
-            // function needs parent frame analysis has already been done
-            boolean needsParentFrame = functionNode.usesAncestorScope();
+            boolean needsParentFrame;
+            if (functionNode.isLazy()) {
+                // body has not been parsed yet; assume it accesses every name it references
+                needsParentFrame = true;
+                ensureLazyFunctionReferencesAvailable(functionNode);
+            } else {
+                // function needs parent frame analysis has already been done
+                needsParentFrame = functionNode.usesAncestorScope();
+            }
 
             functionData = factory.createFunctionData(context, getFunctionLength(functionNode), functionName, isConstructor, isDerivedConstructor, isStrict, isBuiltin,
                             needsParentFrame, isGeneratorFunction, isAsyncFunction, isClassConstructor, strictFunctionProperties, needsNewTarget);
 
             Environment parentEnv = environment;
             functionData.setLazyInit(fd -> {
+                FunctionNode parsedFunction = functionNode;
+                if (parsedFunction.isLazy()) {
+                    parsedFunction = GraalJSParserHelper.reparseLazyFunction(functionNode, parserOptions);
+                    if (JSTruffleOptions.LazyTranslation) {
+                        markNestedFunctionsUseAncestorScope(parsedFunction);
+                    }
+                }
                 GraalJSTranslator translator = newTranslator(parentEnv);
-                translator.translateFunctionOnDemand(functionNode, fd, isStrict, isArrowFunction, isGeneratorFunction, isAsyncFunction, isDerivedConstructor, needsNewTarget, needsParentFrame,
+                translator.translateFunctionOnDemand(parsedFunction, fd, isStrict, isArrowFunction, isGeneratorFunction, isAsyncFunction, isDerivedConstructor, needsNewTarget, needsParentFrame,
                                 functionName);
             });
             functionRoot = null;
@@ -375,6 +396,52 @@ abstract class GraalJSTranslator extends com.oracle.js.parser.ir.visitor.Transla
         return result(functionExpression);
     }
 
+    /**
+     * Makes the frames of all enclosing functions that declare a name referenced by the (not yet
+     * parsed) body of a lazy function available to it.
+     */
+    private void ensureLazyFunctionReferencesAvailable(FunctionNode functionNode) {
+        if (functionNode.getFlag(FunctionNode.HAS_EVAL | FunctionNode.HAS_NESTED_EVAL)) {
+            for (FunctionEnvironment func = currentFunction(); func.getParentFunction() != null; func = func.getParentFunction()) {
+                func.setNeedsParentFrame(true);
+            }
+            return;
+        }
+        for (String name : functionNode.getReferencedNames()) {
+            if (!isVarLexicallyScopedInArrowFunction(name)) {
+                environment.findVar(name, false);
+            }
+        }
+    }
+
+    /**
+     * Functions of a reparsed lazy function body do not go through the parent frame pass, so
+     * conservatively assume they all need their parent frame.
+     */
+    private static void markNestedFunctionsUseAncestorScope(FunctionNode functionNode) {
+        functionNode.accept(new com.oracle.js.parser.ir.visitor.NodeVisitor<LexicalContext>(new LexicalContext()) {
+            @Override
+            public boolean enterFunctionNode(FunctionNode nestedFunctionNode) {
+                if (nestedFunctionNode != functionNode) {
+                    nestedFunctionNode.setUsesAncestorScope(true);
+                }
+                return true;
+            }
+        });
+    }
+
+    private static boolean isVarLexicallyScopedInArrowFunction(String varName) {
+        switch (varName) {
+            case Environment.ARGUMENTS_NAME:
+            case Environment.NEW_TARGET_NAME:
+            case Environment.SUPER_NAME:
+            case Environment.THIS_NAME:
+                return true;
+            default:
+                return false;
+        }
+    }
+
     JavaScriptNode translateFunctionBody(FunctionNode functionNode, boolean isArrowFunction, boolean isGeneratorFunction, boolean isAsyncFunction, boolean isDerivedConstructor,
                     boolean needsNewTarget, FunctionEnvironment currentFunction, List<JavaScriptNode> declarations) {
         JavaScriptNode parameterBlock = null;
@@ -975,18 +1042,6 @@ abstract class GraalJSTranslator extends com.oracle.js.parser.ir.visitor.Transla
                 }
             }
 
-            private boolean isVarLexicallyScopedInArrowFunction(String varName) {
-                switch (varName) {
-                    case Environment.ARGUMENTS_NAME:
-                    case Environment.NEW_TARGET_NAME:
-                    case Environment.SUPER_NAME:
-                    case Environment.THIS_NAME:
-                        return true;
-                    default:
-                        return false;
-                }
-            }
-
             private void markUsesAncestorScopeUntil(FunctionNode untilFunction, boolean inclusive) {
                 for (final Iterator<FunctionNode> functions = lc.getFunctions(); functions.hasNext();) {
                     FunctionNode function = functions.next();
@@ -1005,6 +1060,18 @@ abstract class GraalJSTranslator extends com.oracle.js.parser.ir.visitor.Transla
                 if (functionNode.hasEval()) {
                     markUsesAncestorScopeUntil(null, false);
                 }
+                if (functionNode.isLazy()) {
+                    // body is parsed on demand; resolve every name it references
+                    functionNode.setUsesAncestorScope(true);
+                    if (functionNode.getFlag(FunctionNode.HAS_NESTED_EVAL)) {
+                        markUsesAncestorScopeUntil(null, false);
+                    }
+                    for (String name : functionNode.getReferencedNames()) {
+                        if (!isVarLexicallyScopedInArrowFunction(name)) {
+                            findSymbol(name);
+                        }
+                    }
+                }
                 // TODO if function does not have nested functions we can skip it
                 return true;
             }
@@ -1800,14 +1867,31 @@ abstract class GraalJSTranslator extends com.oracle.js.parser.ir.visitor.Transla
     }
 
     private JavaScriptNode desugarForIn(ForNode forNode, JavaScriptNode modify, JumpTargetCloseable<ContinueTarget> jumpTarget) {
-        JavaScriptNode createIteratorNode;
         if (forNode.isForEach()) {
-            createIteratorNode = factory.createEnumerate(context, modify, true);
-        } else {
-            assert forNode.isForIn() && !forNode.isForEach() && !forNode.isForOf();
-            createIteratorNode = factory.createEnumerate(context, modify, false);
+            JavaScriptNode createIteratorNode = factory.createEnumerate(context, modify, true);
+            return desugarForInOrOfBody(forNode, createIteratorNode, jumpTarget);
         }
-        return desugarForInOrOfBody(forNode, createIteratorNode, jumpTarget);
+        assert forNode.isForIn() && !forNode.isForEach() && !forNode.isForOf();
+        VarRef iteratorVar = environment.createTempVar();
+        JavaScriptNode iteratorInit = iteratorVar.createWriteNode(factory.createForInEnumerate(context, modify));
+        // while(ForInIteratorStep(iterator))
+        JavaScriptNode condition = factory.createForInIteratorStep(iteratorVar.createReadNode());
+        JavaScriptNode wrappedBody;
+        try (EnvironmentCloseable blockEnv = forNode.hasPerIterationScope() ? enterBlockEnvironment(lc.getCurrentBlock()) : new EnvironmentCloseable(environment)) {
+            // var nextValue = ForInIteratorValue(iterator);
+            VarRef iteratorVar2 = environment.findTempVar(iteratorVar.getFrameSlot());
+            JavaScriptNode nextValue = factory.createForInIteratorValue(iteratorVar2.createReadNode());
+            JavaScriptNode writeNext = tagWithHaltTag(desugarForHeadAssignment(forNode, nextValue));
+            JavaScriptNode body = transform(forNode.getBody());
+            wrappedBody = blockEnv.wrapBlockScope(createBlock(writeNext, body));
+        }
+        wrappedBody = jumpTarget.wrapContinueTargetNode(wrappedBody);
+        JavaScriptNode whileNode = createWhileDo(condition, wrappedBody);
+        // for-in iterators have no return method, so there is nothing to close on abrupt completion
+        JavaScriptNode wrappedWhile = jumpTarget.wrapBreakTargetNode(whileNode);
+        JavaScriptNode resetIterator = iteratorVar.createWriteNode(factory.createConstant(JSFrameUtil.DEFAULT_VALUE));
+        wrappedWhile = factory.createTryFinally(wrappedWhile, resetIterator);
+        return createBlock(iteratorInit, wrappedWhile);
     }
 
     private JavaScriptNode desugarForOf(ForNode forNode, JavaScriptNode modify, JumpTargetCloseable<ContinueTarget> jumpTarget) {
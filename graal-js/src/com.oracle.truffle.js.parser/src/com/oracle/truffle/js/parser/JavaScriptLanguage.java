@@ -43,13 +43,11 @@ package com.oracle.truffle.js.parser;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 import java.util.TimeZone;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.graalvm.options.OptionDescriptor;
 import org.graalvm.options.OptionDescriptors;
+import org.graalvm.options.OptionKey;
 import org.graalvm.polyglot.Context;
 
 import com.oracle.truffle.api.CallTarget;
@@ -115,7 +113,6 @@ import com.oracle.truffle.js.runtime.JSInteropRuntime;
 import com.oracle.truffle.js.runtime.JSRealm;
 import com.oracle.truffle.js.runtime.JSRuntime;
 import com.oracle.truffle.js.runtime.JSTruffleOptions;
-import com.oracle.truffle.js.runtime.ParserOptions;
 import com.oracle.truffle.js.runtime.Symbol;
 import com.oracle.truffle.js.runtime.builtins.JSArray;
 import com.oracle.truffle.js.runtime.builtins.JSDate;
@@ -160,8 +157,9 @@ import com.oracle.truffle.js.runtime.truffleinterop.JSInteropNodeUtil;
 public class JavaScriptLanguage extends AbstractJavaScriptLanguage {
     private static final HiddenKey META_OBJECT_KEY = new HiddenKey("meta object");
 
-    private final Map<ParserOptions, Queue<JSContext>> contextPools = new ConcurrentHashMap<>();
+    private volatile ContextPool contextPool;
     private volatile Boolean useContextPool;
+    private volatile SnapshotCache snapshotCache;
 
     public static final OptionDescriptors OPTION_DESCRIPTORS;
     static {
@@ -194,7 +192,7 @@ public class JavaScriptLanguage extends AbstractJavaScriptLanguage {
                 return (CallTarget) cached;
             }
 
-            final ScriptNode program = parseInContext(source, context);
+            final ScriptNode program = parseInContext(source, context, snapshotCache);
 
             RootNode rootNode = new RootNode(this) {
                 @Child private DirectCallNode directCallNode = DirectCallNode.create(program.getCallTarget());
@@ -335,8 +333,16 @@ public class JavaScriptLanguage extends AbstractJavaScriptLanguage {
 
     @TruffleBoundary
     protected static ScriptNode parseInContext(Source code, JSContext context) {
+        return parseInContext(code, context, null);
+    }
+
+    @TruffleBoundary
+    protected static ScriptNode parseInContext(Source code, JSContext context, SnapshotCache snapshotCache) {
         long startTime = JSTruffleOptions.ProfileTime ? System.nanoTime() : 0L;
         try {
+            if (snapshotCache != null) {
+                return snapshotCache.parseScriptNode(context, code);
+            }
             return ((JSParser) context.getEvaluator()).parseScriptNode(context, code);
         } finally {
             if (JSTruffleOptions.ProfileTime) {
@@ -385,15 +391,32 @@ public class JavaScriptLanguage extends AbstractJavaScriptLanguage {
 
     @Override
     protected JSRealm createContext(Env env) {
+        boolean prewarm = false;
         if (useContextPool == null) {
-            useContextPool = JSContextOptions.CODE_SHARING.getValue(env.getOptions()).equals("pool");
+            synchronized (this) {
+                if (useContextPool == null) {
+                    snapshotCache = SnapshotCache.fromOption(JSContextOptions.SNAPSHOT_CACHE.getValue(env.getOptions()));
+                    boolean pool = JSContextOptions.CODE_SHARING.getValue(env.getOptions()).equals("pool");
+                    if (pool) {
+                        contextPool = new ContextPool(getNonNegativeOption(env, JSContextOptions.CONTEXT_POOL_SIZE, JSContextOptions.CONTEXT_POOL_SIZE_NAME));
+                        prewarm = true;
+                    }
+                    useContextPool = pool;
+                }
+            }
         }
 
         JSContext languageContext = null;
         TruffleContext parent = env.getContext().getParent();
         if (parent == null) {
-            if (useContextPool() && !contextPools.isEmpty()) {
-                languageContext = pollContextPool(GraalJSParserOptions.fromOptions(env.getOptions()));
+            if (useContextPool()) {
+                if (prewarm) {
+                    prewarmContextPool(env);
+                }
+                languageContext = contextPool.poll(GraalJSParserOptions.fromOptions(env.getOptions()));
+                if (languageContext != null) {
+                    configureJSContext(languageContext, env);
+                }
             }
             if (languageContext == null) {
                 languageContext = newJSContext(env);
@@ -410,9 +433,29 @@ public class JavaScriptLanguage extends AbstractJavaScriptLanguage {
         return realm;
     }
 
+    private static int getNonNegativeOption(Env env, OptionKey<Integer> key, String name) {
+        int value = key.getValue(env.getOptions());
+        if (value < 0) {
+            throw new IllegalArgumentException("Invalid value for option " + name + ": " + value + " (must not be negative)");
+        }
+        return value;
+    }
+
+    private void prewarmContextPool(Env env) {
+        int count = getNonNegativeOption(env, JSContextOptions.CONTEXT_POOL_PREWARM, JSContextOptions.CONTEXT_POOL_PREWARM_NAME);
+        for (int i = 0; i < Math.min(count, contextPool.getMaxIdlePerConfig()); i++) {
+            contextPool.offer(newJSContext(env));
+        }
+    }
+
     private JSContext newJSContext(Env env) {
         JSContext context = JSEngine.createJSContext(this, env);
+        configureJSContext(context, env);
+        context.setInteropRuntime(new JSInteropRuntime(JSForeignAccessFactoryForeign.ACCESS, InteropBoundFunctionMRForeign.ACCESS));
+        return context;
+    }
 
+    private static void configureJSContext(JSContext context, Env env) {
         /*
          * Ensure that we use the output stream provided by env, but avoid creating a new
          * PrintWriter when the existing PrintWriter already uses the same stream.
@@ -427,9 +470,6 @@ public class JavaScriptLanguage extends AbstractJavaScriptLanguage {
         if (JSContextOptions.TIME_ZONE.hasBeenSet(env.getOptions())) {
             context.setLocalTimeZoneId(TimeZone.getTimeZone(JSContextOptions.TIME_ZONE.getValue(env.getOptions())).toZoneId());
         }
-
-        context.setInteropRuntime(new JSInteropRuntime(JSForeignAccessFactoryForeign.ACCESS, InteropBoundFunctionMRForeign.ACCESS));
-        return context;
     }
 
     @Override
@@ -451,17 +491,7 @@ public class JavaScriptLanguage extends AbstractJavaScriptLanguage {
         assert context.getLanguage() == this;
         realm.patchTruffleLanguageEnv(newEnv);
 
-        if (newEnv.out() != context.getWriterStream()) {
-            context.setWriter(null, newEnv.out());
-        }
-        if (newEnv.err() != context.getErrorWriterStream()) {
-            context.setErrorWriter(null, newEnv.err());
-        }
-
-        if (JSContextOptions.TIME_ZONE.hasBeenSet(newEnv.getOptions())) {
-            context.setLocalTimeZoneId(TimeZone.getTimeZone(JSContextOptions.TIME_ZONE.getValue(newEnv.getOptions())).toZoneId());
-        }
-
+        configureJSContext(context, newEnv);
         context.setInteropRuntime(new JSInteropRuntime(JSForeignAccessFactoryForeign.ACCESS, InteropBoundFunctionMRForeign.ACCESS));
         realm.setArguments(newEnv.getApplicationArguments());
 
@@ -474,20 +504,16 @@ public class JavaScriptLanguage extends AbstractJavaScriptLanguage {
     @Override
     protected void disposeContext(JSRealm realm) {
         if (useContextPool() && !realm.isChildRealm()) {
-            JSContext context = realm.getContext();
-            Queue<JSContext> contextPool = getContextPool(context.getParserOptions());
-            assert !contextPool.contains(context);
-            contextPool.offer(context);
+            contextPool.offer(realm.getContext());
         }
     }
 
-    private Queue<JSContext> getContextPool(ParserOptions configKey) {
-        return contextPools.computeIfAbsent(configKey, k -> new ConcurrentLinkedQueue<>());
-    }
-
-    private JSContext pollContextPool(ParserOptions configKey) {
-        Queue<JSContext> contextPool = contextPools.get(configKey);
-        return contextPool == null ? null : contextPool.poll();
+    /**
+     * Returns the pool of closed contexts used for code sharing, or {@code null} if code sharing
+     * is disabled or no context has been created yet.
+     */
+    public ContextPool getContextPool() {
+        return contextPool;
     }
 
     private boolean useContextPool() {
@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.parser;
+
+import static com.oracle.truffle.js.runtime.AbstractJavaScriptLanguage.MODULE_SOURCE_NAME_PREFIX;
+import static com.oracle.truffle.js.runtime.AbstractJavaScriptLanguage.MODULE_SOURCE_NAME_SUFFIX;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ServiceLoader;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.js.nodes.JSNodeDecoder;
+import com.oracle.truffle.js.nodes.ScriptNode;
+import com.oracle.truffle.js.runtime.Errors;
+import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.JSTruffleOptions;
+
+/**
+ * Content-addressed on-disk cache of binary AST snapshots.
+ *
+ * Entries are keyed by a digest of the source code, the parser options, the options that affect
+ * translation, and the {@link JSNodeDecoder#getChecksum() node decoder checksum}, so a change to
+ * any of them simply results in a cache miss. Each entry ends with a CRC-32 of the snapshot, which
+ * is verified when the entry is memory-mapped, before any part of it is decoded; function bodies
+ * are decoded lazily on first call, so a truncated or corrupted entry has to be rejected up front.
+ * An entry that fails verification or cannot be decoded is deleted. On a miss, the script is translated through a
+ * {@link SnapshotWriter} (if one is available) and the recorded snapshot is stored for subsequent
+ * loads.
+ */
+public final class SnapshotCache {
+    private static final String FILE_SUFFIX = ".bin";
+    private static final int DIGEST_CHUNK_SIZE = 8192;
+    /** Size of the CRC-32 trailer of an entry. */
+    private static final int TRAILER_SIZE = Integer.BYTES;
+
+    /**
+     * Static options that change the node tree produced by the translator, and with it the recorded
+     * snapshot.
+     */
+    private static final byte[] TRANSLATION_OPTIONS = translationOptions();
+
+    private final Path directory;
+    private final SnapshotWriter writer;
+
+    public SnapshotCache(Path directory) {
+        this.directory = directory;
+        this.writer = loadSnapshotWriter();
+    }
+
+    /**
+     * Creates a snapshot cache for the given directory option value, or returns {@code null} if
+     * the option is not set.
+     */
+    public static SnapshotCache fromOption(String directory) {
+        if (directory == null || directory.isEmpty()) {
+            return null;
+        }
+        return new SnapshotCache(Paths.get(directory));
+    }
+
+    private static SnapshotWriter loadSnapshotWriter() {
+        for (SnapshotWriter snapshotWriter : ServiceLoader.load(SnapshotWriter.class, SnapshotCache.class.getClassLoader())) {
+            return snapshotWriter;
+        }
+        return null;
+    }
+
+    @TruffleBoundary
+    public ScriptNode parseScriptNode(JSContext context, Source source) {
+        JSParser parser = (JSParser) context.getEvaluator();
+        if (source.getName().startsWith(MODULE_SOURCE_NAME_PREFIX) || source.getName().endsWith(MODULE_SOURCE_NAME_SUFFIX)) {
+            return parser.parseScriptNode(context, source);
+        }
+
+        Path file = directory.resolve(computeKey(context, source) + FILE_SUFFIX);
+        if (Files.isRegularFile(file)) {
+            try {
+                return parser.parseScriptNode(context, source, new BinarySnapshotProvider(mapVerified(file)));
+            } catch (IOException e) {
+                // fall through and parse from source
+            } catch (RuntimeException e) {
+                // stale, truncated or foreign entry; drop it and record a fresh one
+                deleteQuietly(file);
+            }
+        }
+
+        if (writer != null) {
+            ScriptNode program = translateAndStore(context, source, file);
+            if (program != null) {
+                return program;
+            }
+        }
+        return parser.parseScriptNode(context, source);
+    }
+
+    private ScriptNode translateAndStore(JSContext context, Source source, Path file) {
+        Path tempFile;
+        try {
+            Files.createDirectories(directory);
+            tempFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        } catch (IOException e) {
+            return null;
+        }
+
+        ScriptNode program = null;
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tempFile))) {
+                CheckedOutputStream checkedOut = new CheckedOutputStream(out, new CRC32());
+                program = writer.translateAndWrite(context, source, checkedOut);
+                if (program != null) {
+                    out.write(ByteBuffer.allocate(TRAILER_SIZE).putInt((int) checkedOut.getChecksum().getValue()).array());
+                }
+            }
+            if (program != null) {
+                // atomic rename, so that concurrent readers never observe a partially written entry
+                Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            // the cache is best effort only
+        } finally {
+            deleteQuietly(tempFile);
+        }
+        return program;
+    }
+
+    /**
+     * Memory-maps an entry and returns its snapshot, after checking it against the trailing CRC-32.
+     */
+    private static ByteBuffer mapVerified(Path file) throws IOException {
+        ByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < TRAILER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Snapshot truncated");
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        int length = mapped.capacity() - TRAILER_SIZE;
+        ByteBuffer snapshot = mapped.duplicate();
+        snapshot.limit(length);
+        snapshot = snapshot.slice();
+
+        CRC32 crc = new CRC32();
+        ByteBuffer remaining = snapshot.duplicate();
+        byte[] chunk = new byte[DIGEST_CHUNK_SIZE];
+        while (remaining.hasRemaining()) {
+            int n = Math.min(chunk.length, remaining.remaining());
+            remaining.get(chunk, 0, n);
+            crc.update(chunk, 0, n);
+        }
+        if ((int) crc.getValue() != mapped.getInt(length)) {
+            throw new IllegalArgumentException("Snapshot checksum mismatch");
+        }
+        return snapshot;
+    }
+
+    private static String computeKey(JSContext context, Source source) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw Errors.shouldNotReachHere(e.getMessage());
+        }
+        digest.update(ByteBuffer.allocate(3 * Integer.BYTES).putInt(JSNodeDecoder.getChecksum()).putInt(context.getParserOptions().hashCode()).putInt(context.getEcmaScriptVersion()).array());
+        digest.update(TRANSLATION_OPTIONS);
+        digest.update((byte) (context.isOptionAnnexB() ? 1 : 0));
+
+        CharSequence code = source.getCharacters();
+        byte[] chunk = new byte[DIGEST_CHUNK_SIZE];
+        int pos = 0;
+        for (int i = 0; i < code.length(); i++) {
+            char ch = code.charAt(i);
+            chunk[pos++] = (byte) (ch >>> 8);
+            chunk[pos++] = (byte) ch;
+            if (pos == chunk.length) {
+                digest.update(chunk, 0, pos);
+                pos = 0;
+            }
+        }
+        digest.update(chunk, 0, pos);
+
+        byte[] hash = digest.digest();
+        StringBuilder key = new StringBuilder(hash.length * 2);
+        for (byte b : hash) {
+            key.append(Character.forDigit((b >>> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return key.toString();
+    }
+
+    private static byte[] translationOptions() {
+        boolean[] flags = {
+                        JSTruffleOptions.LazyFunctionData,
+                        JSTruffleOptions.LocalVarIncDecNode,
+                        JSTruffleOptions.ManyBlockScopes,
+                        JSTruffleOptions.NashornExtensions,
+                        JSTruffleOptions.OptimizeApplyArguments,
+                        JSTruffleOptions.OptimizeNoFallthroughSwitch,
+                        JSTruffleOptions.ReturnOptimizer,
+                        JSTruffleOptions.ReturnValueInFrame,
+                        JSTruffleOptions.V8LegacyConst,
+                        JSTruffleOptions.YieldResultInFrame,
+        };
+        ByteBuffer buffer = ByteBuffer.allocate(flags.length + Integer.BYTES);
+        for (boolean flag : flags) {
+            buffer.put((byte) (flag ? 1 : 0));
+        }
+        buffer.putInt(JSTruffleOptions.MaxFunctionArgumentsLength);
+        return buffer.array();
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+}
@@ -59,6 +59,7 @@ import com.oracle.truffle.js.runtime.JSTruffleOptions;
 import com.oracle.truffle.js.runtime.array.ScriptArray;
 import com.oracle.truffle.js.runtime.builtins.JSArray;
 import com.oracle.truffle.js.runtime.builtins.JSUserObject;
+import com.oracle.truffle.js.runtime.doubleconv.DoubleConversion;
 import com.oracle.truffle.js.runtime.objects.JSAttributes;
 import com.oracle.truffle.js.runtime.objects.JSObjectUtil;
 import com.oracle.truffle.js.runtime.objects.Null;
@@ -408,7 +409,7 @@ public class JSONParser {
             skipDigits();
         }
 
-        final double d = Double.parseDouble(source.substring(start, pos));
+        final double d = DoubleConversion.stringToDouble(source, start, pos);
         if (JSType.isRepresentableAsInt(d)) {
             return (int) d;
         } else if (JSType.isRepresentableAsLong(d)) {
@@ -229,4 +229,22 @@ public final class DoubleConversion {
         return FixedDtoa.fastFixedDtoa(v, digits, buffer);
     }
 
+    /**
+     * Converts a decimal number to the closest double. The characters from {@code start}
+     * (inclusive) to {@code end} (exclusive) must consist of an optional sign, decimal digits
+     * with an optional decimal point, and an optional exponent; there has to be at least one
+     * digit before the exponent. No whitespace, {@code Infinity} or hexadecimal notation is
+     * accepted.
+     *
+     * @param str characters to convert
+     * @param start index of the first character
+     * @param end index after the last character
+     * @return the closest double, or NaN if the characters do not form a decimal number
+     */
+    public static double stringToDouble(final CharSequence str, final int start, final int end) {
+        assert(0 <= start && start <= end && end <= str.length());
+
+        return Strtod.strtod(str, start, end);
+    }
+
 }
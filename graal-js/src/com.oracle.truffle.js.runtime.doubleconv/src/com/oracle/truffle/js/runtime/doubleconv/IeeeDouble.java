@@ -96,6 +96,41 @@ class IeeeDouble {
         return new DiyFp(significand(d64), exponent(d64));
     }
 
+    // Returns the double closest to the given DiyFp, truncating excess
+    // significand bits. Too large values become Infinity, too small ones 0.
+    static double diyFpToDouble(final DiyFp diy_fp) {
+        long significand = diy_fp.f();
+        int exponent = diy_fp.e();
+        while (Long.compareUnsigned(significand, kHiddenBit + kSignificandMask) > 0) {
+            significand >>>= 1;
+            exponent++;
+        }
+        if (exponent >= kMaxExponent) {
+            return Infinity();
+        }
+        if (exponent < kDenormalExponent) {
+            return 0.0;
+        }
+        while (exponent > kDenormalExponent && (significand & kHiddenBit) == 0) {
+            significand <<= 1;
+            exponent--;
+        }
+        final long biased_exponent;
+        if (exponent == kDenormalExponent && (significand & kHiddenBit) == 0) {
+            biased_exponent = 0;
+        } else {
+            biased_exponent = exponent + kExponentBias;
+        }
+        return longToDouble((significand & kSignificandMask) | (biased_exponent << kPhysicalSignificandSize));
+    }
+
+    // Returns the upper boundary of the double, i.e. the point half way to the
+    // next greater double. The double must not be negative.
+    static DiyFp upperBoundary(final long d64) {
+        assert (sign(d64) > 0);
+        return new DiyFp(significand(d64) * 2 + 1, exponent(d64) - 1);
+    }
+
     // The value encoded by this Double must be strictly greater than 0.
     static DiyFp asNormalizedDiyFp(final long d64) {
         assert (value(d64) > 0.0);
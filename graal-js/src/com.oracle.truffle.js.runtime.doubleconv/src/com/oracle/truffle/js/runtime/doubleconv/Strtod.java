@@ -0,0 +1,479 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+// This file is available under and governed by the GNU General Public
+// License version 2 only, as published by the Free Software Foundation.
+// However, the following notice accompanied the original version of this
+// file:
+//
+// Copyright 2010 the V8 project authors. All rights reserved.
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are
+// met:
+//
+//     * Redistributions of source code must retain the above copyright
+//       notice, this list of conditions and the following disclaimer.
+//     * Redistributions in binary form must reproduce the above
+//       copyright notice, this list of conditions and the following
+//       disclaimer in the documentation and/or other materials provided
+//       with the distribution.
+//     * Neither the name of Google Inc. nor the names of its
+//       contributors may be used to endorse or promote products derived
+//       from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package com.oracle.truffle.js.runtime.doubleconv;
+
+
+// @formatter:off
+
+// Converts decimal strings to the closest double, following the algorithm of
+// the double-conversion strtod: exact double arithmetic where the inputs are
+// small enough, a DiyFp approximation with error bounds otherwise, and a
+// Bignum comparison only when the approximation cannot decide the rounding.
+// The fast paths operate directly on the characters and do not allocate.
+final class Strtod {
+
+    // 2^53 = 9007199254740992.
+    // Any integer with at most 15 decimal digits will hence fit into a double
+    // (which has a 53bit significand) without loss of precision.
+    static final int kMaxExactDoubleIntegerDecimalDigits = 15;
+    // 2^64 = 18446744073709551616 > 10^19
+    static final int kMaxUint64DecimalDigits = 19;
+
+    // Max double: 1.7976931348623157 x 10^308
+    // Min non-zero double: 4.9406564584124654 x 10^-324
+    // Any x >= 10^309 is interpreted as +infinity.
+    // Any x <= 10^-324 is interpreted as 0.
+    // Note that 2.5e-324 (despite being smaller than the min double) will be read
+    // as non-zero (equal to the min non-zero double).
+    static final int kMaxDecimalPower = 309;
+    static final int kMinDecimalPower = -324;
+
+    // The maximum number of significant digits taken into account; any further
+    // digits are represented by a trailing 1, which is enough for correct rounding.
+    static final int kMaxSignificantDecimalDigits = 780;
+
+    // Exponents beyond this value are clamped; they overflow or underflow anyway.
+    static final int kMaxExponent = Integer.MAX_VALUE / 2;
+
+    static private final double[] exactPowersOfTen = {
+        1.0,  // 10^0
+        10.0,
+        100.0,
+        1000.0,
+        10000.0,
+        100000.0,
+        1000000.0,
+        10000000.0,
+        100000000.0,
+        1000000000.0,
+        10000000000.0,  // 10^10
+        100000000000.0,
+        1000000000000.0,
+        10000000000000.0,
+        100000000000000.0,
+        1000000000000000.0,
+        10000000000000000.0,
+        100000000000000000.0,
+        1000000000000000000.0,
+        10000000000000000000.0,
+        100000000000000000000.0,  // 10^20
+        1000000000000000000000.0,
+        // 10^22 = 0x21e19e0c9bab2400000 = 0x878678326eac9 * 2^22
+        10000000000000000000000.0
+    };
+    static private final int kExactPowersOfTenSize = exactPowersOfTen.length;
+
+    private Strtod() {
+    }
+
+    // Parses [+-]?digits*(.digits*)?([eE][+-]?digits+)? spanning exactly the
+    // range [start, end) of str, with at least one digit before the exponent.
+    // Returns NaN if the range does not have this form.
+    static double strtod(final CharSequence str, final int start, final int end) {
+        int pos = start;
+        boolean negative = false;
+        if (pos < end && (str.charAt(pos) == '+' || str.charAt(pos) == '-')) {
+            negative = str.charAt(pos) == '-';
+            pos++;
+        }
+
+        // The significant digits (without leading and trailing zeros) are
+        // d_1 ... d_n; the first kMaxUint64DecimalDigits of them are collected in
+        // significand, the first one beyond is remembered for rounding.
+        long significand = 0;
+        int length = 0;
+        int firstDroppedDigit = 0;
+        int pendingZeros = 0;
+        int exponent = 0;
+        boolean seenDigit = false;
+        boolean fraction = false;
+        for (; pos < end; pos++) {
+            final char c = str.charAt(pos);
+            if (c == '.') {
+                if (fraction) {
+                    return Double.NaN;
+                }
+                fraction = true;
+                continue;
+            } else if (c < '0' || c > '9') {
+                break;
+            }
+            seenDigit = true;
+            if (fraction) {
+                exponent--;
+            }
+            if (c == '0') {
+                if (length > 0) {
+                    pendingZeros++;
+                }
+                continue;
+            }
+            for (; pendingZeros > 0; pendingZeros--) {
+                if (length < kMaxUint64DecimalDigits) {
+                    significand *= 10;
+                }
+                length++;
+            }
+            if (length < kMaxUint64DecimalDigits) {
+                significand = significand * 10 + (c - '0');
+            } else if (length == kMaxUint64DecimalDigits) {
+                firstDroppedDigit = c - '0';
+            }
+            length++;
+        }
+        if (!seenDigit) {
+            return Double.NaN;
+        }
+        // trailing zeros only scale the value
+        exponent += pendingZeros;
+
+        if (pos < end) {
+            final char e = str.charAt(pos++);
+            if (e != 'e' && e != 'E') {
+                return Double.NaN;
+            }
+            boolean negativeExponent = false;
+            if (pos < end && (str.charAt(pos) == '+' || str.charAt(pos) == '-')) {
+                negativeExponent = str.charAt(pos) == '-';
+                pos++;
+            }
+            if (pos == end) {
+                return Double.NaN;
+            }
+            int num = 0;
+            for (; pos < end; pos++) {
+                final char c = str.charAt(pos);
+                if (c < '0' || c > '9') {
+                    return Double.NaN;
+                }
+                if (num <= kMaxExponent / 10 - 1) {
+                    num = num * 10 + (c - '0');
+                } else {
+                    num = kMaxExponent;
+                }
+            }
+            exponent += negativeExponent ? -num : num;
+        }
+
+        if (length == 0) {
+            return negative ? -0.0 : 0.0;
+        }
+        // The value is now d_1 ... d_n * 10^exponent with n == length.
+        double result;
+        if (exponent + length - 1 >= kMaxDecimalPower) {
+            result = Double.POSITIVE_INFINITY;
+        } else if (exponent + length <= kMinDecimalPower) {
+            result = 0.0;
+        } else if (length <= kMaxExactDoubleIntegerDecimalDigits && isExact(exponent, length)) {
+            result = doubleStrtod(significand, length, exponent);
+        } else {
+            final long guess = diyFpStrtod(significand, length, firstDroppedDigit, exponent);
+            result = IeeeDouble.longToDouble(guess & ~kInexact);
+            if ((guess & kInexact) != 0 && result != Double.POSITIVE_INFINITY) {
+                result = bignumStrtod(str, start, length, exponent, result);
+            }
+        }
+        return negative ? -result : result;
+    }
+
+    private static boolean isExact(final int exponent, final int length) {
+        if (exponent < 0) {
+            return -exponent < kExactPowersOfTenSize;
+        }
+        final int remaining_digits = kMaxExactDoubleIntegerDecimalDigits - length;
+        return exponent - remaining_digits < kExactPowersOfTenSize;
+    }
+
+    // The significand and all powers of ten involved are exactly representable
+    // as doubles, so a single IEEE operation yields the correctly rounded result.
+    private static double doubleStrtod(final long significand, final int length, final int exponent) {
+        assert (length <= kMaxExactDoubleIntegerDecimalDigits);
+        if (exponent < 0) {
+            return significand / exactPowersOfTen[-exponent];
+        }
+        if (exponent < kExactPowersOfTenSize) {
+            return significand * exactPowersOfTen[exponent];
+        }
+        // The significand has fewer than 15 digits, so some of the powers of ten
+        // can be moved into it without losing precision.
+        final int remaining_digits = kMaxExactDoubleIntegerDecimalDigits - length;
+        return (significand * exactPowersOfTen[remaining_digits]) * exactPowersOfTen[exponent - remaining_digits];
+    }
+
+    // Set on the result of diyFpStrtod if the guess might be off by one ulp.
+    // Guesses are never negative, so the sign bit is free to carry this.
+    private static final long kInexact = IeeeDouble.kSignMask;
+
+    private static DiyFp adjustmentPowerOfTen(final int exponent) {
+        // Simply hardcode the remaining powers for the given decimal exponent
+        // distance.
+        assert (CachedPowers.kDecimalExponentDistance == 8);
+        switch (exponent) {
+            case 1: return new DiyFp(0xa000000000000000L, -60);
+            case 2: return new DiyFp(0xc800000000000000L, -57);
+            case 3: return new DiyFp(0xfa00000000000000L, -54);
+            case 4: return new DiyFp(0x9c40000000000000L, -50);
+            case 5: return new DiyFp(0xc350000000000000L, -47);
+            case 6: return new DiyFp(0xf424000000000000L, -44);
+            case 7: return new DiyFp(0x9896800000000000L, -40);
+            default:
+                throw new AssertionError("unexpected exponent: " + exponent);
+        }
+    }
+
+    // Returns the raw bits of the double closest to the input, or'ed with
+    // kInexact if the input is so close to the half way point between two
+    // doubles that the DiyFp error bounds do not allow to decide which one.
+    private static long diyFpStrtod(final long significand, final int length, final int firstDroppedDigit, int exponent) {
+        final DiyFp input;
+        final int remaining_decimals;
+        if (length <= kMaxUint64DecimalDigits) {
+            input = new DiyFp(significand, 0);
+            remaining_decimals = 0;
+        } else {
+            // Round the significand.
+            input = new DiyFp(firstDroppedDigit >= 5 ? significand + 1 : significand, 0);
+            remaining_decimals = length - kMaxUint64DecimalDigits;
+        }
+
+        // Since we may have dropped some digits the input is not accurate.
+        // If remaining_decimals is different than 0 than the error is at most
+        // .5 ulp (unit in the last place).
+        // We don't want to deal with fractions and therefore keep a common
+        // denominator.
+        final int kDenominatorLog = 3;
+        final int kDenominator = 1 << kDenominatorLog;
+        // Move the remaining decimals into the exponent.
+        exponent += remaining_decimals;
+        long error = (remaining_decimals == 0 ? 0 : kDenominator / 2);
+
+        int old_e = input.e();
+        input.normalize();
+        error <<= old_e - input.e();
+
+        assert (exponent <= CachedPowers.kMaxDecimalExponent);
+        if (exponent < CachedPowers.kMinDecimalExponent) {
+            return IeeeDouble.doubleToLong(0.0);
+        }
+        final DiyFp cached_power = new DiyFp();
+        final int cached_decimal_exponent = CachedPowers.getCachedPowerForDecimalExponent(exponent, cached_power);
+
+        if (cached_decimal_exponent != exponent) {
+            final int adjustment_exponent = exponent - cached_decimal_exponent;
+            final DiyFp adjustment_power = adjustmentPowerOfTen(adjustment_exponent);
+            input.multiply(adjustment_power);
+            if (kMaxUint64DecimalDigits - length >= adjustment_exponent) {
+                // The product of input with the adjustment power fits into a 64 bit
+                // integer.
+                assert (DiyFp.kSignificandSize == 64);
+            } else {
+                // The adjustment power is exact. There is hence only an error of 0.5.
+                error += kDenominator / 2;
+            }
+        }
+
+        input.multiply(cached_power);
+        // The error introduced by a multiplication of a*b equals
+        //   error_a + error_b + error_a*error_b/2^64 + 0.5
+        // Substituting a with 'input' and b with 'cached_power' we have
+        //   error_b = 0.5  (all cached powers have an error of less than 0.5 ulp),
+        //   error_ab = 0 or 1 / kDenominator > error_a*error_b/ 2^64
+        final int error_b = kDenominator / 2;
+        final int error_ab = (error == 0 ? 0 : 1);  // We round up to 1.
+        final int fixed_error = kDenominator / 2;
+        error += error_b + error_ab + fixed_error;
+
+        old_e = input.e();
+        input.normalize();
+        error <<= old_e - input.e();
+
+        // See if the double's significand changes if we add/subtract the error.
+        final int order_of_magnitude = DiyFp.kSignificandSize + input.e();
+        final int effective_significand_size = IeeeDouble.significandSizeForOrderOfMagnitude(order_of_magnitude);
+        int precision_digits_count = DiyFp.kSignificandSize - effective_significand_size;
+        if (precision_digits_count + kDenominatorLog >= DiyFp.kSignificandSize) {
+            // This can only happen for very small denormals. In this case the
+            // half-way multiplied by the denominator exceeds the range of an uint64.
+            // Simply shift everything to the right.
+            final int shift_amount = (precision_digits_count + kDenominatorLog) -
+                    DiyFp.kSignificandSize + 1;
+            input.setF(input.f() >>> shift_amount);
+            input.setE(input.e() + shift_amount);
+            // We add 1 for the lost precision of error, and kDenominator for
+            // the lost precision of input.f().
+            error = (error >> shift_amount) + 1 + kDenominator;
+            precision_digits_count -= shift_amount;
+        }
+        // We use uint64_ts now. This only works if the DiyFp uses uint64_ts too.
+        assert (DiyFp.kSignificandSize == 64);
+        assert (precision_digits_count < 64);
+        final long one64 = 1;
+        final long precision_bits_mask = (one64 << precision_digits_count) - 1;
+        long precision_bits = input.f() & precision_bits_mask;
+        long half_way = one64 << (precision_digits_count - 1);
+        precision_bits *= kDenominator;
+        half_way *= kDenominator;
+        final DiyFp rounded_input = new DiyFp(input.f() >>> precision_digits_count, input.e() + precision_digits_count);
+        if (Long.compareUnsigned(precision_bits, half_way + error) >= 0) {
+            rounded_input.setF(rounded_input.f() + 1);
+        }
+        // If the last_bits are too close to the half-way case than we are too
+        // inaccurate and round down. In this case we return false so that we can
+        // fall back to a more precise algorithm.
+
+        final long result = IeeeDouble.doubleToLong(IeeeDouble.diyFpToDouble(rounded_input));
+        if (Long.compareUnsigned(half_way - error, precision_bits) < 0 && Long.compareUnsigned(precision_bits, half_way + error) < 0) {
+            // Too imprecise. The caller will have to fall back to a slower version.
+            // However the returned number is guaranteed to be either the correct
+            // double, or the next-lower double.
+            return result | kInexact;
+        } else {
+            return result;
+        }
+    }
+
+    // Decides between guess and the next greater double by comparing the exact
+    // decimal value with the boundary between the two.
+    private static double bignumStrtod(final CharSequence str, final int start, final int length, int exponent, final double guess) {
+        final String trimmed = significantDigits(str, start, length);
+        if (length > kMaxSignificantDecimalDigits) {
+            exponent += length - kMaxSignificantDecimalDigits;
+        }
+        final long guess_d64 = IeeeDouble.doubleToLong(guess);
+        final int comparison = compareBufferWithDiyFp(trimmed, exponent, IeeeDouble.upperBoundary(guess_d64));
+        if (comparison < 0) {
+            return guess;
+        } else if (comparison > 0) {
+            return IeeeDouble.nextDouble(guess_d64);
+        } else if ((IeeeDouble.significand(guess_d64) & 1) == 0) {
+            // Round towards even.
+            return guess;
+        } else {
+            return IeeeDouble.nextDouble(guess_d64);
+        }
+    }
+
+    // Collects the significant digits of the number starting at start, cut to
+    // kMaxSignificantDecimalDigits. Setting the last kept digit to a non-zero
+    // value is sufficient to guarantee correct rounding of the cut digits.
+    private static String significantDigits(final CharSequence str, final int start, final int length) {
+        final int count = Math.min(length, kMaxSignificantDecimalDigits);
+        final char[] buffer = new char[count];
+        int i = 0;
+        for (int pos = start; i < count; pos++) {
+            final char c = str.charAt(pos);
+            if (c >= '0' && c <= '9' && (i > 0 || c != '0')) {
+                buffer[i++] = c;
+            }
+        }
+        if (length > kMaxSignificantDecimalDigits) {
+            buffer[count - 1] = '1';
+        }
+        return new String(buffer);
+    }
+
+    // Returns
+    //   - -1 if buffer*10^exponent < diy_fp.
+    //   -  0 if buffer*10^exponent == diy_fp.
+    //   - +1 if buffer*10^exponent > diy_fp.
+    // Preconditions:
+    //   buffer.length() + exponent <= kMaxDecimalPower + 1
+    //   buffer.length() + exponent > kMinDecimalPower
+    //   buffer.length() <= kMaxSignificantDecimalDigits
+    private static int compareBufferWithDiyFp(final String buffer, final int exponent, final DiyFp diy_fp) {
+        assert (buffer.length() + exponent <= kMaxDecimalPower + 1);
+        assert (buffer.length() + exponent > kMinDecimalPower);
+        assert (buffer.length() <= kMaxSignificantDecimalDigits);
+        // Make sure that the Bignum will be able to hold all our numbers.
+        // Our Bignum implementation has a separate field for exponents. Shifts will
+        // consume at most one bigit (< 64 bits).
+        // ln(10) == 3.3219...
+        assert (((kMaxDecimalPower + 1) * 333 / 100) < Bignum.kMaxSignificantBits);
+        final Bignum buffer_bignum = new Bignum();
+        final Bignum diy_fp_bignum = new Bignum();
+        buffer_bignum.assignDecimalString(buffer);
+        diy_fp_bignum.assignUInt64(diy_fp.f());
+        if (exponent >= 0) {
+            buffer_bignum.multiplyByPowerOfTen(exponent);
+        } else {
+            diy_fp_bignum.multiplyByPowerOfTen(-exponent);
+        }
+        if (diy_fp.e() > 0) {
+            diy_fp_bignum.shiftLeft(diy_fp.e());
+        } else {
+            buffer_bignum.shiftLeft(-diy_fp.e());
+        }
+        return Bignum.compare(buffer_bignum, diy_fp_bignum);
+    }
+}
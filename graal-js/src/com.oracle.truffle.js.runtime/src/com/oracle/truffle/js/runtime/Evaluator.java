@@ -40,6 +40,8 @@
  */
 package com.oracle.truffle.js.runtime;
 
+import java.util.List;
+
 import com.oracle.truffle.api.frame.MaterializedFrame;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.source.Source;
@@ -81,6 +83,12 @@ public interface Evaluator {
 
     JSModuleRecord parseModule(JSContext context, Source source, JSModuleLoader moduleLoader);
 
+    /**
+     * Returns the specifiers of the modules statically requested by the given module, in source
+     * order.
+     */
+    List<String> getRequestedModules(JSModuleRecord moduleRecord);
+
     JSModuleRecord hostResolveImportedModule(JSModuleRecord referencingModule, String specifier);
 
     void moduleDeclarationInstantiation(JSModuleRecord moduleRecord);
@@ -40,22 +40,17 @@
  */
 package com.oracle.truffle.js.runtime;
 
-import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.Writer;
-import java.nio.file.Paths;
 import java.time.ZoneId;
 import java.util.ArrayList;
-import java.util.Deque;
 import java.util.EnumSet;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
@@ -97,14 +92,17 @@ import com.oracle.truffle.js.runtime.interop.DefaultJavaInteropWorker;
 import com.oracle.truffle.js.runtime.interop.DefaultJavaInteropWorker.DefaultMainWorker;
 import com.oracle.truffle.js.runtime.interop.JSJavaWrapper;
 import com.oracle.truffle.js.runtime.joni.JoniRegexCompiler;
+import com.oracle.truffle.js.runtime.objects.DefaultJSModuleLoader;
 import com.oracle.truffle.js.runtime.objects.JSModuleLoader;
-import com.oracle.truffle.js.runtime.objects.JSModuleRecord;
 import com.oracle.truffle.js.runtime.objects.JSObject;
 import com.oracle.truffle.js.runtime.objects.JSObjectUtil;
 import com.oracle.truffle.js.runtime.objects.JSShape;
-import com.oracle.truffle.js.runtime.objects.JSShapeData;
+import com.oracle.truffle.js.runtime.objects.MegamorphicPropertyCache;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 import com.oracle.truffle.js.runtime.util.DebugJSAgent;
+import com.oracle.truffle.js.runtime.util.LRUCache;
+import com.oracle.truffle.js.runtime.util.Pair;
+import com.oracle.truffle.js.runtime.util.PromiseJobQueue;
 import com.oracle.truffle.js.runtime.util.TRegexUtil;
 import com.oracle.truffle.js.runtime.util.TimeProfiler;
 import com.oracle.truffle.regex.RegexCompiler;
@@ -159,7 +157,7 @@ public class JSContext implements ShapeContext {
     /**
      * ECMA 8.4 "PromiseJobs" job queue.
      */
-    private final Deque<DynamicObject> promiseJobsQueue;
+    private final PromiseJobQueue promiseJobsQueue;
     private final Assumption promiseJobsQueueNotUsedAssumption;
 
     private final Object nodeFactory;
@@ -174,6 +172,9 @@ public class JSContext implements ShapeContext {
 
     /** The RegExp engine, as obtained from RegexLanguage. */
     private TruffleObject regexEngine;
+    /** Compiled regexes by (pattern, flags); {@code null} if disabled. */
+    private final LRUCache<Pair<String, String>, TruffleObject> regexCache;
+    private final MegamorphicPropertyCache megamorphicPropertyCache;
     /** Support for RegExp.$1. */
     private TruffleObject regexResult;
 
@@ -217,8 +218,6 @@ public class JSContext implements ShapeContext {
     private volatile JSFunctionData boundFunctionData;
     private volatile JSFunctionData boundConstructorFunctionData;
 
-    private volatile Map<Shape, JSShapeData> shapeDataMap;
-
     private List<JSRealm> realmList;
 
     final Assumption noChildRealmsAssumption;
@@ -296,7 +295,9 @@ public class JSContext implements ShapeContext {
         this.errorWriter = new PrintWriterWrapper(System.err, true);
         this.errorWriterStream = System.err;
 
-        this.promiseJobsQueue = new LinkedList<>();
+        this.promiseJobsQueue = new PromiseJobQueue();
+        this.regexCache = JSTruffleOptions.RegexCacheSize > 0 ? new LRUCache<>(JSTruffleOptions.RegexCacheSize) : null;
+        this.megamorphicPropertyCache = JSTruffleOptions.MegamorphicPropertyCacheSize > 0 ? new MegamorphicPropertyCache(this, JSTruffleOptions.MegamorphicPropertyCacheSize) : null;
         this.promiseJobsQueueNotUsedAssumption = Truffle.getRuntime().createAssumption("promiseJobsQueueNotUsedAssumption");
 
         this.promiseHookNotUsedAssumption = Truffle.getRuntime().createAssumption("promiseHookNotUsedAssumption");
@@ -431,6 +432,10 @@ public class JSContext implements ShapeContext {
         return typedArrayNotDetachedAssumption;
     }
 
+    public final Assumption getPromiseHookNotUsedAssumption() {
+        return promiseHookNotUsedAssumption;
+    }
+
     public static JSContext createContext(Evaluator evaluator, JSFunctionLookup lookup, JSContextOptions contextOptions, AbstractJavaScriptLanguage lang, TruffleLanguage.Env env) {
         return new JSContext(evaluator, lookup, contextOptions, lang, env);
     }
@@ -502,7 +507,7 @@ public class JSContext implements ShapeContext {
      */
     public final void promiseEnqueueJob(DynamicObject newTarget) {
         invalidatePromiseQueueNotUsedAssumption();
-        promiseJobsQueue.push(newTarget);
+        promiseJobsQueue.add(newTarget);
     }
 
     private void invalidatePromiseQueueNotUsedAssumption() {
@@ -523,18 +528,18 @@ public class JSContext implements ShapeContext {
     @TruffleBoundary
     private boolean processAllPromises() {
         boolean queueContainsJobs = false;
-        Object thisArg = Undefined.instance;
-        while (promiseJobsQueue.size() > 0) {
-            DynamicObject nextJob = promiseJobsQueue.pollLast();
-            if (JSFunction.isJSFunction(nextJob)) {
-                JSRealm functionRealm = JSFunction.getRealm(nextJob);
-                Object prev = functionRealm.getTruffleContext().enter();
-                try {
-                    JSFunction.call(nextJob, thisArg, JSArguments.EMPTY_ARGUMENTS_ARRAY);
-                } finally {
-                    functionRealm.getTruffleContext().leave(prev);
+        if (!promiseJobsQueue.isEmpty()) {
+            long start = System.nanoTime();
+            try {
+                while (!promiseJobsQueue.isEmpty()) {
+                    DynamicObject nextJob = promiseJobsQueue.poll();
+                    if (JSFunction.isJSFunction(nextJob)) {
+                        runPromiseJobs(nextJob);
+                        queueContainsJobs = true;
+                    }
                 }
-                queueContainsJobs = true;
+            } finally {
+                promiseJobsQueue.recordDrain(System.nanoTime() - start);
             }
         }
 
@@ -547,6 +552,32 @@ public class JSContext implements ShapeContext {
         return queueContainsJobs;
     }
 
+    /**
+     * Runs the given job and all following jobs of the same realm under a single context enter.
+     */
+    private void runPromiseJobs(DynamicObject firstJob) {
+        JSRealm functionRealm = JSFunction.getRealm(firstJob);
+        Object thisArg = Undefined.instance;
+        Object prev = functionRealm.getTruffleContext().enter();
+        try {
+            DynamicObject job = firstJob;
+            while (true) {
+                JSFunction.call(job, thisArg, JSArguments.EMPTY_ARGUMENTS_ARRAY);
+                DynamicObject next = promiseJobsQueue.peek();
+                if (next == null || !JSFunction.isJSFunction(next) || JSFunction.getRealm(next) != functionRealm) {
+                    break;
+                }
+                job = promiseJobsQueue.poll();
+            }
+        } finally {
+            functionRealm.getTruffleContext().leave(prev);
+        }
+    }
+
+    public PromiseJobQueue getPromiseJobQueue() {
+        return promiseJobsQueue;
+    }
+
     public void interopBoundaryEnter() {
         if (getEcmaScriptVersion() >= 6) {
             interopCallStackDepth++;
@@ -796,6 +827,20 @@ public class JSContext implements ShapeContext {
         return regexEngine;
     }
 
+    /**
+     * Returns the cache of compiled regexes, or {@code null} if disabled.
+     */
+    public LRUCache<Pair<String, String>, TruffleObject> getRegexCache() {
+        return regexCache;
+    }
+
+    /**
+     * Returns the stub cache shared by megamorphic property accesses, or {@code null} if disabled.
+     */
+    public MegamorphicPropertyCache getMegamorphicPropertyCache() {
+        return megamorphicPropertyCache;
+    }
+
     public TruffleObject getRegexResult() {
         assert isOptionRegexpStaticResult();
         if (regexResult == null) {
@@ -825,49 +870,7 @@ public class JSContext implements ShapeContext {
     @TruffleBoundary
     private synchronized void createModuleLoader() {
         if (moduleLoader == null) {
-            moduleLoader = new JSModuleLoader() {
-                private final Map<String, JSModuleRecord> moduleMap = new HashMap<>();
-
-                @Override
-                public JSModuleRecord resolveImportedModule(JSModuleRecord referencingModule, String specifier) {
-                    try {
-                        String path = getPath(referencingModule.getSource());
-                        File moduleFile = Paths.get(path).resolveSibling(specifier).toFile();
-                        String canonicalPath = moduleFile.getCanonicalPath();
-                        JSModuleRecord existingModule = moduleMap.get(canonicalPath);
-                        if (existingModule != null) {
-                            return existingModule;
-                        }
-                        Source source = Source.newBuilder(moduleFile).name(specifier).language(AbstractJavaScriptLanguage.ID).build();
-                        JSModuleRecord newModule = getEvaluator().parseModule(JSContext.this, source, this);
-                        moduleMap.put(canonicalPath, newModule);
-                        return newModule;
-                    } catch (IOException e) {
-                        throw Errors.createError(e.getMessage());
-                    }
-                }
-
-                String getPath(Source source) {
-                    String path = source.getPath();
-                    if (path == null) {
-                        path = source.getName();
-                        if (path.startsWith("module:")) {
-                            path = path.substring("module:".length());
-                        }
-                    }
-                    try {
-                        return Paths.get(path).toFile().getCanonicalPath();
-                    } catch (IOException e) {
-                        throw Errors.createError(e.getMessage());
-                    }
-                }
-
-                @Override
-                public JSModuleRecord loadModule(Source source) {
-                    String path = getPath(source);
-                    return moduleMap.computeIfAbsent(path, (key) -> getEvaluator().parseModule(JSContext.this, source, this));
-                }
-            };
+            moduleLoader = new DefaultJSModuleLoader(this);
         }
     }
 
@@ -889,23 +892,6 @@ public class JSContext implements ShapeContext {
         this.symbolRegistry = newSymbolRegistry;
     }
 
-    public Map<Shape, JSShapeData> getShapeDataMap() {
-        Map<Shape, JSShapeData> map = shapeDataMap;
-        if (map == null) {
-            map = createShapeDataMap();
-        }
-        return map;
-    }
-
-    private synchronized Map<Shape, JSShapeData> createShapeDataMap() {
-        Map<Shape, JSShapeData> map = shapeDataMap;
-        if (map == null) {
-            return shapeDataMap = new WeakHashMap<>();
-        } else {
-            return map;
-        }
-    }
-
     public AbstractJavaScriptLanguage getLanguage() {
         return language;
     }
@@ -1170,6 +1156,10 @@ public class JSContext implements ShapeContext {
         return contextOptions.isPreciseTime();
     }
 
+    public boolean isOptionJSONStringifyOutput() {
+        return contextOptions.isJSONStringifyOutput();
+    }
+
     /**
      * Creation of PrintWriter is expensive, this is why we change just the delegate writer in this
      * wrapper class.
@@ -125,10 +125,27 @@ public final class JSContextOptions {
     private static final OptionKey<Boolean> PRECISE_TIME = new OptionKey<>(false);
     @CompilationFinal private boolean preciseTime;
 
+    public static final String JSON_STRINGIFY_OUTPUT_NAME = JS_OPTION_PREFIX + "json-stringify-output";
+    private static final String JSON_STRINGIFY_OUTPUT_HELP = "Accept a host OutputStream or WritableByteChannel as non-standard fourth argument of JSON.stringify.";
+    private static final OptionKey<Boolean> JSON_STRINGIFY_OUTPUT = new OptionKey<>(false);
+    @CompilationFinal private boolean jsonStringifyOutput;
+
     public static final String CODE_SHARING_NAME = JS_OPTION_PREFIX + "code-sharing";
     private static final String CODE_SHARING_HELP = "Code sharing between Contexts of an Engine: 'pool' enables code reuse via a pool of closed contexts.";
     public static final OptionKey<String> CODE_SHARING = new OptionKey<>("pool");
 
+    public static final String CONTEXT_POOL_SIZE_NAME = JS_OPTION_PREFIX + "context-pool-size";
+    private static final String CONTEXT_POOL_SIZE_HELP = "Maximum number of idle contexts kept per parser configuration in the code sharing pool.";
+    public static final OptionKey<Integer> CONTEXT_POOL_SIZE = new OptionKey<>(32);
+
+    public static final String CONTEXT_POOL_PREWARM_NAME = JS_OPTION_PREFIX + "context-pool-prewarm";
+    private static final String CONTEXT_POOL_PREWARM_HELP = "Number of contexts to create in advance for the code sharing pool when the first context is created.";
+    public static final OptionKey<Integer> CONTEXT_POOL_PREWARM = new OptionKey<>(0);
+
+    public static final String SNAPSHOT_CACHE_NAME = JS_OPTION_PREFIX + "snapshot-cache";
+    private static final String SNAPSHOT_CACHE_HELP = "Directory of a persistent cache of binary AST snapshots, keyed by source content.";
+    public static final OptionKey<String> SNAPSHOT_CACHE = new OptionKey<>("");
+
     private static final OptionKey<?>[] PREINIT_CONTEXT_OPTION_KEYS = {
                     ECMASCRIPT_VERSION,
                     ANNEX_B,
@@ -180,6 +197,7 @@ public final class JSContextOptions {
         this.parseOnly = readBooleanOption(PARSE_ONLY, PARSE_ONLY_NAME);
         this.debug = readBooleanOption(DEBUG_BUILTIN, DEBUG_BUILTIN_NAME);
         this.preciseTime = readBooleanOption(PRECISE_TIME, PRECISE_TIME_NAME);
+        this.jsonStringifyOutput = readBooleanOption(JSON_STRINGIFY_OUTPUT, JSON_STRINGIFY_OUTPUT_NAME);
     }
 
     private boolean readBooleanOption(OptionKey<Boolean> key, String name) {
@@ -225,7 +243,11 @@ public final class JSContextOptions {
         options.add(OptionDescriptor.newBuilder(PARSE_ONLY, PARSE_ONLY_NAME).category(OptionCategory.USER).help(PARSE_ONLY_HELP).build());
         options.add(OptionDescriptor.newBuilder(TIME_ZONE, TIME_ZONE_NAME).category(OptionCategory.USER).help(TIME_ZONE_HELP).build());
         options.add(OptionDescriptor.newBuilder(PRECISE_TIME, PRECISE_TIME_NAME).category(OptionCategory.USER).help(PRECISE_TIME_HELP).build());
+        options.add(OptionDescriptor.newBuilder(JSON_STRINGIFY_OUTPUT, JSON_STRINGIFY_OUTPUT_NAME).category(OptionCategory.USER).help(JSON_STRINGIFY_OUTPUT_HELP).build());
         options.add(OptionDescriptor.newBuilder(CODE_SHARING, CODE_SHARING_NAME).category(OptionCategory.DEBUG).help(CODE_SHARING_HELP).build());
+        options.add(OptionDescriptor.newBuilder(CONTEXT_POOL_SIZE, CONTEXT_POOL_SIZE_NAME).category(OptionCategory.DEBUG).help(CONTEXT_POOL_SIZE_HELP).build());
+        options.add(OptionDescriptor.newBuilder(CONTEXT_POOL_PREWARM, CONTEXT_POOL_PREWARM_NAME).category(OptionCategory.DEBUG).help(CONTEXT_POOL_PREWARM_HELP).build());
+        options.add(OptionDescriptor.newBuilder(SNAPSHOT_CACHE, SNAPSHOT_CACHE_NAME).category(OptionCategory.USER).help(SNAPSHOT_CACHE_HELP).build());
     }
 
     // check for options that are not on their default value.
@@ -296,4 +318,8 @@ public final class JSContextOptions {
     public boolean isV8RealmBuiltin() {
         return v8RealmBuiltin;
     }
+
+    public boolean isJSONStringifyOutput() {
+        return jsonStringifyOutput;
+    }
 }
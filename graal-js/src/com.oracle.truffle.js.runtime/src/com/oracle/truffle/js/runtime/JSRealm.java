@@ -113,6 +113,7 @@ import com.oracle.truffle.js.runtime.objects.JSAttributes;
 import com.oracle.truffle.js.runtime.objects.JSObject;
 import com.oracle.truffle.js.runtime.objects.JSObjectUtil;
 import com.oracle.truffle.js.runtime.objects.Undefined;
+import com.oracle.truffle.js.runtime.util.LRUCache;
 
 /**
  * Container for JavaScript globals (i.e. an ECMAScript 6 Realm object).
@@ -187,6 +188,10 @@ public class JSRealm implements ShapeContext {
     private final DynamicObjectFactory pluralRulesFactory;
     private final JSConstructor dateTimeFormatConstructor;
     private final DynamicObjectFactory dateTimeFormatFactory;
+    /** Prototype instances of Intl formatters, to be cloned; {@code null} if disabled. */
+    private final LRUCache<String, Object> intlFormatterCache;
+    /** Collator used by localeCompare without locales and options. */
+    private DynamicObject defaultCollator;
     private final JSConstructor dateConstructor;
     private final DynamicObjectFactory dateFactory;
 
@@ -440,6 +445,7 @@ public class JSRealm implements ShapeContext {
             this.dateTimeFormatFactory = JSDateTimeFormat.makeInitialShape(context, dateTimeFormatConstructor.getPrototype()).createFactory();
             this.pluralRulesConstructor = JSPluralRules.createConstructor(this);
             this.pluralRulesFactory = JSPluralRules.makeInitialShape(context, pluralRulesConstructor.getPrototype()).createFactory();
+            this.intlFormatterCache = JSTruffleOptions.IntlFormatterCacheSize > 0 ? new LRUCache<>(JSTruffleOptions.IntlFormatterCacheSize) : null;
         } else {
             this.collatorConstructor = null;
             this.collatorFactory = null;
@@ -449,6 +455,7 @@ public class JSRealm implements ShapeContext {
             this.dateTimeFormatFactory = null;
             this.pluralRulesConstructor = null;
             this.pluralRulesFactory = null;
+            this.intlFormatterCache = null;
         }
 
         this.jsAdapterConstructor = JSTruffleOptions.NashornExtensions ? JSAdapter.createConstructor(this) : null;
@@ -1318,6 +1325,23 @@ public class JSRealm implements ShapeContext {
         return dateTimeFormatFactory;
     }
 
+    /**
+     * Cache of fully configured Intl formatters, keyed by formatter kind, locale and resolved
+     * options, or {@code null} if disabled. Cached formatters must not be used directly, only
+     * cloned.
+     */
+    public final LRUCache<String, Object> getIntlFormatterCache() {
+        return intlFormatterCache;
+    }
+
+    public final DynamicObject getDefaultCollator() {
+        return defaultCollator;
+    }
+
+    public final void setDefaultCollator(DynamicObject collator) {
+        this.defaultCollator = collator;
+    }
+
     @Override
     public final DynamicObjectFactory getDateFactory() {
         return dateFactory;
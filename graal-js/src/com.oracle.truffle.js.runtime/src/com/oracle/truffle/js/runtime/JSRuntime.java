@@ -40,8 +40,6 @@
  */
 package com.oracle.truffle.js.runtime;
 
-import java.math.BigDecimal;
-import java.math.MathContext;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -435,26 +433,37 @@ public final class JSRuntime {
     private static Number stringToNumberParse(String str) {
         assert str.length() > 0;
         boolean hex = str.startsWith("0x") || str.startsWith("0X");
-        int eIndex = firstExpIndexInString(str);
-        boolean sci = !hex && (0 <= eIndex && eIndex < str.length() - 1);
-        try {
-            if (sci) {
-                return stringToNumberSci(str);
-            } else if (str.length() <= 18 && !str.contains(".")) {
-                // 18 digits always fit into long
-                if (hex) {
+        if (hex) {
+            try {
+                if (str.length() <= 18) {
                     return Long.valueOf(str.substring(2), 16);
                 } else {
-                    return stringToNumberLong(str);
+                    return Double.valueOf(str);
                 }
-            } else {
-                return Double.valueOf(str);
+            } catch (NumberFormatException e) {
+                return Double.valueOf(Double.NaN);
             }
-        } catch (NumberFormatException e) {
-            return Double.valueOf(Double.NaN);
+        } else if (str.length() <= 18 && isDecimalInteger(str)) {
+            // 18 digits always fit into long
+            return stringToNumberLong(str);
+        } else {
+            return DoubleConversion.stringToDouble(str, 0, str.length());
         }
     }
 
+    private static boolean isDecimalInteger(String str) {
+        int start = (str.charAt(0) == '-' || str.charAt(0) == '+') ? 1 : 0;
+        if (start == str.length()) {
+            return false;
+        }
+        for (int i = start; i < str.length(); i++) {
+            if (!isAsciiDigit(str.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @TruffleBoundary
     public static Number stringToNumberLong(String strLower) throws NumberFormatException {
         assert strLower.length() > 0;
@@ -471,21 +480,10 @@ public final class JSRuntime {
 
     @TruffleBoundary
     public static double stringToNumberSci(String str) {
-        int firstIdx = firstExpIndexInString(str);
-        if (firstIdx < 0) {
+        if (firstExpIndexInString(str) < 0) {
             return Double.NaN; // no 'e' found
         }
-        String part1 = str.substring(0, firstIdx);
-        if ("-0".equals(part1)) {
-            return -0.0;
-        }
-        String part2 = str.substring(firstIdx + 1);
-        int exponent = Integer.parseInt(part2);
-        if (exponent <= -324 || exponent >= 324 || part1.contains(".")) {
-            return stringToNumberSciBigExponent(part1, exponent);
-        } else {
-            return movePointRight(part1, exponent).doubleValue();
-        }
+        return DoubleConversion.stringToDouble(str, 0, str.length());
     }
 
     /**
@@ -500,32 +498,6 @@ public final class JSRuntime {
         return str.indexOf('E', 0);
     }
 
-    private static double stringToNumberSciBigExponent(String number, int exponent) {
-        BigDecimal result = movePointRight(number, exponent);
-        BigDecimal resultAbs = result.abs();
-        if ((resultAbs.compareTo(BigDecimal.valueOf(Double.MAX_VALUE)) > 0)) {
-            if (result.signum() > 0) {
-                return Double.POSITIVE_INFINITY;
-            } else {
-                return Double.NEGATIVE_INFINITY;
-            }
-        }
-        if ((resultAbs.compareTo(BigDecimal.valueOf(Double.MIN_VALUE)) < 0)) {
-            if (result.signum() < 0) {
-                return -0.0;
-            } else {
-                return 0;
-            }
-        }
-        return result.doubleValue();
-    }
-
-    private static BigDecimal movePointRight(String number, int exponent) {
-        // we won't be accurate if we do the decimalization twice
-        BigDecimal exp = BigDecimal.TEN.pow(exponent, MathContext.DECIMAL128);
-        return new BigDecimal(number).multiply(exp);
-    }
-
     public static double identifyInfinity(String str, char firstChar) {
         int len = str.length();
         int infinityLength = INFINITY_STRING.length();
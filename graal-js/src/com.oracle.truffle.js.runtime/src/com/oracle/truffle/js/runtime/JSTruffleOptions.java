@@ -87,6 +87,7 @@ public class JSTruffleOptions {
     // Inline cache configuration
     public static int PropertyCacheLimit = integerOption("PropertyCacheLimit", 5, OPTION_PERFORMANCE | OPTION_LIMIT);
     public static int FunctionCacheLimit = integerOption("FunctionCacheLimit", 4, OPTION_PERFORMANCE | OPTION_LIMIT);
+    public static final int MegamorphicPropertyCacheSize = integerOption("MegamorphicPropertyCacheSize", 1024, OPTION_PERFORMANCE | OPTION_LIMIT);
 
     public static final boolean AssertFinalPropertySpecialization = booleanOption("AssertFinalPropertySpecialization", false, 0);
     /** Try to cache by function object instead of call target. */
@@ -105,6 +106,10 @@ public class JSTruffleOptions {
     public static final int MinLazyStringLength = integerOption("MinLazyStringLength", 20, OPTION_LIMIT);
     public static final int MaxLoadCacheLength = integerOption("MaxLoadCacheLength", 0, OPTION_LIMIT);
     public static final int MaxCompiledRegexCacheLength = integerOption("MaxCompiledRegexCacheLength", 4, OPTION_LIMIT);
+    /** Size of the per-context cache of regexes compiled from dynamic patterns (0 to disable). */
+    public static final int RegexCacheSize = integerOption("RegexCacheSize", 256, OPTION_PERFORMANCE | OPTION_LIMIT);
+    /** Size of the per-realm cache of configured Intl formatters. */
+    public static final int IntlFormatterCacheSize = integerOption("IntlFormatterCacheSize", 64, OPTION_PERFORMANCE | OPTION_LIMIT);
     public static final boolean TrimLoadCache = booleanOption("TrimLoadCache", false, 0);
     public static final boolean TrimCompiledRegexCache = booleanOption("TrimCompiledRegexCache", true, 0);
     public static final int StackTraceLimit = integerOption("StackTraceLimit", 10, OPTION_LIMIT);
@@ -185,6 +190,7 @@ public class JSTruffleOptions {
     // Java Interop options
     public static final boolean NashornJavaInterop = !SubstrateVM && booleanOption("NashornJavaInterop", false, OPTION_LANGUAGE_FEATURE);
     public static final boolean JavaCallCache = booleanOption("JavaCallCache", true, OPTION_PERFORMANCE);
+    public static final int JavaCallCacheLimit = integerOption("JavaCallCacheLimit", 4, OPTION_PERFORMANCE | OPTION_LIMIT);
     public static final boolean SingleThreaded = booleanOption("SingleThreaded", false, OPTION_SETUP);
     public static final boolean JavaConvertersAsMethodHandles = booleanOption("JavaConvertersAsMethodHandles", false, OPTION_PERFORMANCE);
 
@@ -207,8 +213,12 @@ public class JSTruffleOptions {
     public static final boolean DebugCounters = booleanOption("DebugCounters", false, OPTION_SETUP);
     /** Load per-function data lazily. */
     public static final boolean LazyFunctionData = booleanOption("LazyFunctionData", true, OPTION_SETUP | OPTION_PERFORMANCE);
+    /** Parse statically imported modules ahead of time on a fork-join pool. */
+    public static final boolean ParallelModuleParsing = booleanOption("ParallelModuleParsing", !SingleThreaded, OPTION_PERFORMANCE);
     /** Translate function bodies lazily. */
     public static final boolean LazyTranslation = booleanOption("LazyTranslation", false, OPTION_SETUP | OPTION_PERFORMANCE);
+    /** Only syntax-check function bodies up front and reparse them from the source on first call. */
+    public static final boolean LazyParsing = booleanOption("LazyParsing", false, OPTION_SETUP | OPTION_PERFORMANCE);
     /** AST-level inlining of trivial built-in functions (e.g. String.prototype.charAt). */
     public static final boolean InlineTrivialBuiltins = booleanOption("InlineTrivialBuiltins", true, OPTION_SETUP | OPTION_PERFORMANCE);
     /** [Construct] as part of the CallTarget names. Off by default (footprint). */
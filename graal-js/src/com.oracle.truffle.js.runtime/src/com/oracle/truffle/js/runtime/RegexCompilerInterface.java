@@ -46,6 +46,8 @@ import com.oracle.truffle.api.interop.InteropException;
 import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.js.runtime.truffleinterop.JSInteropUtil;
+import com.oracle.truffle.js.runtime.util.LRUCache;
+import com.oracle.truffle.js.runtime.util.Pair;
 import com.oracle.truffle.regex.RegexLanguage;
 import com.oracle.truffle.regex.RegexSyntaxException;
 import com.oracle.truffle.regex.nashorn.regexp.RegExpScanner;
@@ -68,6 +70,20 @@ public final class RegexCompilerInterface {
 
     @TruffleBoundary
     public static TruffleObject compile(String pattern, String flags, JSContext context, Node executeCompilerNode) {
+        LRUCache<Pair<String, String>, TruffleObject> cache = context.getRegexCache();
+        if (cache == null) {
+            return compileUncached(pattern, flags, context, executeCompilerNode);
+        }
+        Pair<String, String> key = new Pair<>(pattern, flags);
+        TruffleObject compiledRegex = cache.get(key);
+        if (compiledRegex == null) {
+            compiledRegex = compileUncached(pattern, flags, context, executeCompilerNode);
+            cache.put(key, compiledRegex);
+        }
+        return compiledRegex;
+    }
+
+    private static TruffleObject compileUncached(String pattern, String flags, JSContext context, Node executeCompilerNode) {
         try {
             // RegexLanguage does its own validation of the flags. This call to validateFlags only
             // serves the purpose of mimicking the error messages of Nashorn and V8.
@@ -46,23 +46,26 @@ import static com.oracle.truffle.js.runtime.builtins.JSAbstractArray.arraySetArr
 import static com.oracle.truffle.js.runtime.builtins.JSAbstractArray.arraySetLength;
 
 import java.util.Arrays;
-import java.util.Map;
-import java.util.NoSuchElementException;
-import java.util.TreeMap;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.object.DynamicObject;
-import com.oracle.truffle.js.runtime.Boundaries;
 import com.oracle.truffle.js.runtime.JSRuntime;
+import com.oracle.truffle.js.runtime.JSTruffleOptions;
+import com.oracle.truffle.js.runtime.array.dyn.HolesObjectArray;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 
 /**
- * Array that stores its elements in a HashMap-like structure, e.g. in a TreeMap.
+ * Array that stores its elements in a map from primitive long indices to values, see
+ * {@link SparseArrayStore}. Turns back into a {@link HolesObjectArray} once the elements are dense
+ * enough.
  */
 public final class SparseArray extends DynamicArray {
 
     private static final SparseArray SPARSE_ARRAY = new SparseArray(INTEGRITY_LEVEL_NONE, createCache());
 
+    /** Minimum number of elements before a sparse array is considered for densifying. */
+    private static final int DENSIFY_MIN_SIZE = 64;
+
     private SparseArray(int integrityLevel, DynamicArrayCache cache) {
         super(integrityLevel, cache);
     }
@@ -72,7 +75,7 @@ public final class SparseArray extends DynamicArray {
     }
 
     public static SparseArray makeSparseArray(DynamicObject object, long length) {
-        TreeMap<Long, Object> arrayMap = createArrayMap();
+        SparseArrayStore arrayMap = createArrayMap();
         arraySetLength(object, length);
         arraySetArray(object, arrayMap);
         return createSparseArray();
@@ -82,7 +85,7 @@ public final class SparseArray extends DynamicArray {
         if (fromArray instanceof SparseArray) {
             return (SparseArray) fromArray;
         }
-        TreeMap<Long, Object> arrayMap = createArrayMap();
+        SparseArrayStore arrayMap = createArrayMap();
         copyArrayToMap(object, fromArray, arrayMap);
         arraySetLength(object, fromArray.length(object));
         arraySetArray(object, arrayMap);
@@ -90,20 +93,20 @@ public final class SparseArray extends DynamicArray {
     }
 
     @TruffleBoundary
-    public static TreeMap<Long, Object> createArrayMap() {
-        return new TreeMap<>();
+    public static SparseArrayStore createArrayMap() {
+        return new SparseArrayStore();
     }
 
-    protected static void copyArrayToMap(DynamicObject object, ScriptArray fromArray, Map<Long, Object> toMap) {
+    @TruffleBoundary
+    protected static void copyArrayToMap(DynamicObject object, ScriptArray fromArray, SparseArrayStore toMap) {
         for (long index = fromArray.firstElementIndex(object); index <= fromArray.lastElementIndex(object); index = fromArray.nextElementIndex(object, index)) {
             assert fromArray.hasElement(object, index);
-            Boundaries.mapPut(toMap, index, fromArray.getElement(object, index));
+            toMap.put(index, fromArray.getElement(object, index));
         }
     }
 
-    @SuppressWarnings("unchecked")
-    private static TreeMap<Long, Object> arrayMap(DynamicObject object, boolean condition) {
-        return (TreeMap<Long, Object>) arrayGetArray(object, condition);
+    private static SparseArrayStore arrayMap(DynamicObject object, boolean condition) {
+        return (SparseArrayStore) arrayGetArray(object, condition);
     }
 
     @TruffleBoundary
@@ -124,13 +127,41 @@ public final class SparseArray extends DynamicArray {
     @TruffleBoundary
     @Override
     public ScriptArray setElementImpl(DynamicObject object, long index, Object value, boolean strict, boolean condition) {
-        arrayMap(object, condition).put(index, value);
-        if (index >= length(object, condition)) {
-            arraySetLength(object, index + 1);
+        SparseArrayStore arrayMap = arrayMap(object, condition);
+        long first = arrayMap.firstKey();
+        long last = arrayMap.lastKey();
+        boolean added = arrayMap.put(index, value) == null;
+        long length = length(object, condition);
+        if (index >= length) {
+            length = index + 1;
+            arraySetLength(object, length);
+        }
+        // only filling gaps or growing at either end can make the array dense
+        if (added && index >= first - 1 && index <= last + 1 && isDenseEnough(arrayMap, length)) {
+            return toHolesArray(object, arrayMap, length);
         }
         return this;
     }
 
+    private static boolean isDenseEnough(SparseArrayStore arrayMap, long length) {
+        int size = arrayMap.size();
+        long span = arrayMap.lastKey() - arrayMap.firstKey() + 1;
+        return size >= DENSIFY_MIN_SIZE && span <= (long) size * 2 && length <= Integer.MAX_VALUE;
+    }
+
+    private ScriptArray toHolesArray(DynamicObject object, SparseArrayStore arrayMap, long length) {
+        long first = arrayMap.firstKey();
+        int usedLength = (int) (arrayMap.lastKey() - first + 1);
+        Object[] array = new Object[usedLength];
+        arrayMap.copyTo(array, first);
+        int holeCount = usedLength - arrayMap.size();
+        ScriptArray newArray = HolesObjectArray.makeHolesObjectArray(object, (int) length, array, first, 0, usedLength, holeCount, integrityLevel);
+        if (JSTruffleOptions.TraceArrayTransitions) {
+            traceArrayTransition(this, newArray, first, null);
+        }
+        return newArray;
+    }
+
     @Override
     public long length(DynamicObject object, boolean condition) {
         return arrayGetLength(object, condition);
@@ -149,42 +180,34 @@ public final class SparseArray extends DynamicArray {
     @Override
     public SparseArray setLengthImpl(DynamicObject object, long len, boolean condition, ProfileHolder profile) {
         arraySetLength(object, len);
-        arrayMap(object, condition).tailMap(len).clear();
+        arrayMap(object, condition).removeFrom(len);
         return this;
     }
 
     @TruffleBoundary
     @Override
     public long firstElementIndex(DynamicObject object, boolean condition) {
-        try {
-            return arrayMap(object, condition).firstKey();
-        } catch (NoSuchElementException ex) {
-            return 0;
-        }
+        SparseArrayStore arrayMap = arrayMap(object, condition);
+        return arrayMap.isEmpty() ? 0 : arrayMap.firstKey();
     }
 
     @TruffleBoundary
     @Override
     public long lastElementIndex(DynamicObject object, boolean condition) {
-        try {
-            return arrayMap(object, condition).lastKey();
-        } catch (NoSuchElementException ex) {
-            return -1;
-        }
+        return arrayMap(object, condition).lastKey();
     }
 
     @TruffleBoundary
     @Override
     public long nextElementIndex(DynamicObject object, long index, boolean condition) {
-        Long nextIndex = arrayMap(object, condition).higherKey(index);
-        return nextIndex != null ? nextIndex.longValue() : JSRuntime.MAX_SAFE_INTEGER_LONG;
+        long nextIndex = arrayMap(object, condition).higherKey(index);
+        return nextIndex >= 0 ? nextIndex : JSRuntime.MAX_SAFE_INTEGER_LONG;
     }
 
     @TruffleBoundary
     @Override
     public long previousElementIndex(DynamicObject object, long index, boolean condition) {
-        Long nextIndex = arrayMap(object, condition).lowerKey(index);
-        return nextIndex != null ? nextIndex.longValue() : -1;
+        return arrayMap(object, condition).lowerKey(index);
     }
 
     @Override
@@ -210,10 +233,7 @@ public final class SparseArray extends DynamicArray {
     @TruffleBoundary
     @Override
     public boolean hasElement(DynamicObject object, long index, boolean condition) {
-        if (arrayMap(object, condition).containsKey(index)) {
-            return true;
-        }
-        return false;
+        return arrayMap(object, condition).containsKey(index);
     }
 
     @Override
@@ -243,9 +263,9 @@ public final class SparseArray extends DynamicArray {
             pos = nextElementIndex(object, pos, arrayCondition());
         }
         // move all element higher downwards
+        SparseArrayStore arrayMap = arrayMap(object, arrayCondition());
         while (pos < length(object)) {
-            setElement(object, pos - delta, getElement(object, pos), false);
-            deleteElementImpl(object, pos, false, arrayCondition());
+            arrayMap.put(pos - delta, arrayMap.remove(pos));
             pos = nextElementIndex(object, pos, arrayCondition());
         }
         return this;
@@ -260,9 +280,13 @@ public final class SparseArray extends DynamicArray {
             pos = previousElementIndex(object, pos, arrayCondition());
         }
         // move all element higher upwardswards
+        SparseArrayStore arrayMap = arrayMap(object, arrayCondition());
         while (pos >= offset) {
-            setElement(object, pos + size, getElement(object, pos), false);
-            deleteElementImpl(object, pos, false, arrayCondition());
+            long newPos = pos + size;
+            arrayMap.put(newPos, arrayMap.remove(pos));
+            if (newPos >= length(object)) {
+                arraySetLength(object, newPos + 1);
+            }
             pos = previousElementIndex(object, pos, arrayCondition());
         }
         return this;
@@ -0,0 +1,351 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime.array;
+
+import java.util.Arrays;
+
+/**
+ * Backing store of {@link SparseArray}: a map from primitive {@code long} indices to values.
+ *
+ * The index space is divided into pages of 64 consecutive indices. Only non-empty pages are
+ * present; they are kept sorted by page number in parallel arrays and found by binary search. Each
+ * page has a 64-bit occupancy bitmap and a value array that holds only the present elements, in
+ * index order, so that the position of an element is the number of bits set below it. Sparse
+ * elements therefore cost a few words each, while dense runs approach one reference per element.
+ */
+public final class SparseArrayStore {
+
+    private static final int PAGE_SHIFT = 6;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+    private static final int INITIAL_PAGE_CAPACITY = 8;
+
+    /** Page numbers ({@code index >>> PAGE_SHIFT}) of the non-empty pages, ascending. */
+    private long[] pageNumbers;
+    /** Occupancy bitmap of each page. */
+    private long[] pageBits;
+    /** Values of each page, in index order; possibly longer than the number of elements. */
+    private Object[][] pageValues;
+    private int pageCount;
+    private int size;
+    /** Position of the most recently accessed page, for sequential access. */
+    private int lastPagePos;
+
+    public SparseArrayStore() {
+        this.pageNumbers = new long[INITIAL_PAGE_CAPACITY];
+        this.pageBits = new long[INITIAL_PAGE_CAPACITY];
+        this.pageValues = new Object[INITIAL_PAGE_CAPACITY][];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the position of the page, or {@code -(insertionPoint + 1)} if it is not present.
+     */
+    private int findPage(long pageNumber) {
+        int pos = lastPagePos;
+        if (pos < pageCount && pageNumbers[pos] == pageNumber) {
+            return pos;
+        }
+        pos = Arrays.binarySearch(pageNumbers, 0, pageCount, pageNumber);
+        if (pos >= 0) {
+            lastPagePos = pos;
+        }
+        return pos;
+    }
+
+    private static int slot(long bits, int offset) {
+        return Long.bitCount(bits & ((1L << offset) - 1));
+    }
+
+    public Object get(long index) {
+        if (index < 0) {
+            return null;
+        }
+        int pos = findPage(index >>> PAGE_SHIFT);
+        if (pos < 0) {
+            return null;
+        }
+        int offset = (int) (index & PAGE_MASK);
+        long bits = pageBits[pos];
+        if ((bits & (1L << offset)) == 0) {
+            return null;
+        }
+        return pageValues[pos][slot(bits, offset)];
+    }
+
+    public boolean containsKey(long index) {
+        if (index < 0) {
+            return false;
+        }
+        int pos = findPage(index >>> PAGE_SHIFT);
+        return pos >= 0 && (pageBits[pos] & (1L << (index & PAGE_MASK))) != 0;
+    }
+
+    /**
+     * Associates the value with the index.
+     *
+     * @return the previous value, or {@code null} if the index was not present
+     */
+    public Object put(long index, Object value) {
+        assert index >= 0 && value != null;
+        long pageNumber = index >>> PAGE_SHIFT;
+        int offset = (int) (index & PAGE_MASK);
+        int pos = findPage(pageNumber);
+        if (pos < 0) {
+            pos = -(pos + 1);
+            insertPage(pos, pageNumber);
+        }
+        long bits = pageBits[pos];
+        long bit = 1L << offset;
+        Object[] values = pageValues[pos];
+        int slot = slot(bits, offset);
+        if ((bits & bit) != 0) {
+            Object previous = values[slot];
+            values[slot] = value;
+            return previous;
+        }
+        int count = Long.bitCount(bits);
+        if (count == values.length) {
+            Object[] newValues = new Object[Math.min(PAGE_SIZE, count * 2)];
+            System.arraycopy(values, 0, newValues, 0, slot);
+            System.arraycopy(values, slot, newValues, slot + 1, count - slot);
+            values = newValues;
+            pageValues[pos] = values;
+        } else {
+            System.arraycopy(values, slot, values, slot + 1, count - slot);
+        }
+        values[slot] = value;
+        pageBits[pos] = bits | bit;
+        size++;
+        return null;
+    }
+
+    private void insertPage(int pos, long pageNumber) {
+        if (pageCount == pageNumbers.length) {
+            int newCapacity = pageCount * 2;
+            pageNumbers = Arrays.copyOf(pageNumbers, newCapacity);
+            pageBits = Arrays.copyOf(pageBits, newCapacity);
+            pageValues = Arrays.copyOf(pageValues, newCapacity);
+        }
+        int tail = pageCount - pos;
+        if (tail > 0) {
+            System.arraycopy(pageNumbers, pos, pageNumbers, pos + 1, tail);
+            System.arraycopy(pageBits, pos, pageBits, pos + 1, tail);
+            System.arraycopy(pageValues, pos, pageValues, pos + 1, tail);
+        }
+        pageNumbers[pos] = pageNumber;
+        pageBits[pos] = 0;
+        pageValues[pos] = new Object[1];
+        pageCount++;
+        lastPagePos = pos;
+    }
+
+    private void removePages(int fromPos, int toPos) {
+        int tail = pageCount - toPos;
+        if (tail > 0) {
+            System.arraycopy(pageNumbers, toPos, pageNumbers, fromPos, tail);
+            System.arraycopy(pageBits, toPos, pageBits, fromPos, tail);
+            System.arraycopy(pageValues, toPos, pageValues, fromPos, tail);
+        }
+        int newPageCount = pageCount - (toPos - fromPos);
+        Arrays.fill(pageValues, newPageCount, pageCount, null);
+        pageCount = newPageCount;
+        lastPagePos = 0;
+    }
+
+    /**
+     * Removes the element at the index.
+     *
+     * @return the removed value, or {@code null} if the index was not present
+     */
+    public Object remove(long index) {
+        if (index < 0) {
+            return null;
+        }
+        int pos = findPage(index >>> PAGE_SHIFT);
+        if (pos < 0) {
+            return null;
+        }
+        int offset = (int) (index & PAGE_MASK);
+        long bits = pageBits[pos];
+        long bit = 1L << offset;
+        if ((bits & bit) == 0) {
+            return null;
+        }
+        Object[] values = pageValues[pos];
+        int slot = slot(bits, offset);
+        int count = Long.bitCount(bits);
+        Object previous = values[slot];
+        System.arraycopy(values, slot + 1, values, slot, count - slot - 1);
+        values[count - 1] = null;
+        pageBits[pos] = bits & ~bit;
+        size--;
+        if (count == 1) {
+            removePages(pos, pos + 1);
+        }
+        return previous;
+    }
+
+    /**
+     * Removes all elements at indices greater than or equal to {@code fromIndex}.
+     */
+    public void removeFrom(long fromIndex) {
+        long from = Math.max(0, fromIndex);
+        long pageNumber = from >>> PAGE_SHIFT;
+        int pos = Arrays.binarySearch(pageNumbers, 0, pageCount, pageNumber);
+        int firstRemovedPos;
+        if (pos >= 0) {
+            int offset = (int) (from & PAGE_MASK);
+            long bits = pageBits[pos];
+            int kept = slot(bits, offset);
+            int count = Long.bitCount(bits);
+            if (kept > 0) {
+                Arrays.fill(pageValues[pos], kept, count, null);
+                pageBits[pos] = bits & ((1L << offset) - 1);
+                size -= count - kept;
+                firstRemovedPos = pos + 1;
+            } else {
+                firstRemovedPos = pos;
+            }
+        } else {
+            firstRemovedPos = -(pos + 1);
+        }
+        for (int i = firstRemovedPos; i < pageCount; i++) {
+            size -= Long.bitCount(pageBits[i]);
+        }
+        removePages(firstRemovedPos, pageCount);
+    }
+
+    /**
+     * Returns the smallest index present, or -1 if empty.
+     */
+    public long firstKey() {
+        if (pageCount == 0) {
+            return -1;
+        }
+        return (pageNumbers[0] << PAGE_SHIFT) + Long.numberOfTrailingZeros(pageBits[0]);
+    }
+
+    /**
+     * Returns the largest index present, or -1 if empty.
+     */
+    public long lastKey() {
+        if (pageCount == 0) {
+            return -1;
+        }
+        int pos = pageCount - 1;
+        return (pageNumbers[pos] << PAGE_SHIFT) + (PAGE_MASK - Long.numberOfLeadingZeros(pageBits[pos]));
+    }
+
+    /**
+     * Returns the smallest index present that is greater than {@code index}, or -1 if none.
+     */
+    public long higherKey(long index) {
+        if (index < 0) {
+            return firstKey();
+        }
+        int pos = findPage(index >>> PAGE_SHIFT);
+        if (pos >= 0) {
+            int offset = (int) (index & PAGE_MASK);
+            long bits = pageBits[pos] & (-2L << offset);
+            if (bits != 0) {
+                return (pageNumbers[pos] << PAGE_SHIFT) + Long.numberOfTrailingZeros(bits);
+            }
+            pos++;
+        } else {
+            pos = -(pos + 1);
+        }
+        if (pos < pageCount) {
+            lastPagePos = pos;
+            return (pageNumbers[pos] << PAGE_SHIFT) + Long.numberOfTrailingZeros(pageBits[pos]);
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the largest index present that is less than {@code index}, or -1 if none.
+     */
+    public long lowerKey(long index) {
+        if (index <= 0) {
+            return -1;
+        }
+        int pos = findPage(index >>> PAGE_SHIFT);
+        if (pos >= 0) {
+            int offset = (int) (index & PAGE_MASK);
+            long bits = pageBits[pos] & ((1L << offset) - 1);
+            if (bits != 0) {
+                return (pageNumbers[pos] << PAGE_SHIFT) + (PAGE_MASK - Long.numberOfLeadingZeros(bits));
+            }
+            pos--;
+        } else {
+            pos = -(pos + 1) - 1;
+        }
+        if (pos >= 0) {
+            lastPagePos = pos;
+            return (pageNumbers[pos] << PAGE_SHIFT) + (PAGE_MASK - Long.numberOfLeadingZeros(pageBits[pos]));
+        }
+        return -1;
+    }
+
+    /**
+     * Copies the elements into {@code target}, where the element at index {@code i} is stored at
+     * {@code target[i - indexOffset]}. All indices must be in range.
+     */
+    public void copyTo(Object[] target, long indexOffset) {
+        for (int pos = 0; pos < pageCount; pos++) {
+            long base = (pageNumbers[pos] << PAGE_SHIFT) - indexOffset;
+            long bits = pageBits[pos];
+            Object[] values = pageValues[pos];
+            for (int slot = 0; bits != 0; slot++) {
+                int offset = Long.numberOfTrailingZeros(bits);
+                target[(int) (base + offset)] = values[slot];
+                bits &= bits - 1;
+            }
+        }
+    }
+}
@@ -61,6 +61,7 @@ import com.oracle.truffle.js.runtime.objects.JSObjectUtil;
 import com.oracle.truffle.js.runtime.objects.JSShape;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 import com.oracle.truffle.js.runtime.util.IntlUtil;
+import com.oracle.truffle.js.runtime.util.LRUCache;
 
 import java.text.Collator;
 import java.text.Normalizer;
@@ -121,7 +122,7 @@ public final class JSCollator extends JSBuiltinObject implements JSConstructorFa
 
     // localeMatcher unused as our lookup matcher and best fit matcher are the same at the moment
     @TruffleBoundary
-    public static void initializeCollator(JSCollator.InternalState state, String[] locales, String usage, @SuppressWarnings("unused") String localeMatcher, Boolean optkn, String optkf,
+    public static void initializeCollator(JSContext context, JSCollator.InternalState state, String[] locales, String usage, @SuppressWarnings("unused") String localeMatcher, Boolean optkn, String optkf,
                     String sensitivity, Boolean ignorePunctuation) {
         Boolean kn = optkn;
         String kf = optkf;
@@ -155,22 +156,38 @@ public final class JSCollator extends JSBuiltinObject implements JSConstructorFa
         }
         state.ignorePunctuation = ignorePunctuation;
         state.locale = strippedLocale.toLanguageTag();
-        state.collator = Collator.getInstance(Locale.forLanguageTag(state.locale));
-        state.collator.setDecomposition(Collator.CANONICAL_DECOMPOSITION);
-        switch (state.sensitivity) {
+        LRUCache<String, Object> cache = context.getRealm().getIntlFormatterCache();
+        if (cache == null) {
+            state.collator = createCollator(state.locale, state.sensitivity);
+            return;
+        }
+        String key = "Collator|" + state.locale + "|" + state.sensitivity;
+        Collator collator = (Collator) cache.get(key);
+        if (collator == null) {
+            collator = createCollator(state.locale, state.sensitivity);
+            cache.put(key, collator);
+        }
+        state.collator = (Collator) collator.clone();
+    }
+
+    private static Collator createCollator(String locale, String sensitivity) {
+        Collator collator = Collator.getInstance(Locale.forLanguageTag(locale));
+        collator.setDecomposition(Collator.CANONICAL_DECOMPOSITION);
+        switch (sensitivity) {
             case "base":
-                state.collator.setStrength(Collator.PRIMARY);
+                collator.setStrength(Collator.PRIMARY);
                 break;
             case "accent":
-                state.collator.setStrength(Collator.SECONDARY);
+                collator.setStrength(Collator.SECONDARY);
                 break;
             case "case":
-                state.collator.setStrength(Collator.TERTIARY);
+                collator.setStrength(Collator.TERTIARY);
                 break;
             case "variant":
-                state.collator.setStrength(Collator.IDENTICAL);
+                collator.setStrength(Collator.IDENTICAL);
                 break;
         }
+        return collator;
     }
 
     public static Shape makeInitialShape(JSContext ctx, DynamicObject prototype) {
@@ -62,6 +62,7 @@ import com.oracle.truffle.js.runtime.objects.JSObjectUtil;
 import com.oracle.truffle.js.runtime.objects.JSShape;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 import com.oracle.truffle.js.runtime.util.IntlUtil;
+import com.oracle.truffle.js.runtime.util.LRUCache;
 
 import com.ibm.icu.text.DateFormat;
 import com.ibm.icu.text.DateTimePatternGenerator;
@@ -156,7 +157,7 @@ public final class JSDateTimeFormat extends JSBuiltinObject implements JSConstru
 
     @TruffleBoundary
     public static void setupInternalDateTimeFormat(
-                    InternalState state, String[] locales, DynamicObject options,
+                    JSContext context, InternalState state, String[] locales, DynamicObject options,
                     String weekdayOpt,
                     String eraOpt,
                     String yearOpt,
@@ -173,9 +174,8 @@ public final class JSDateTimeFormat extends JSBuiltinObject implements JSConstru
         Locale strippedLocale = selectedLocale.stripExtensions();
         String skeleton = makeSkeleton(weekdayOpt, eraOpt, yearOpt, monthOpt, dayOpt, hourOpt, hcOpt, hour12Opt, minuteOpt, secondOpt, tzNameOpt);
 
-        DateTimePatternGenerator patternGenerator = DateTimePatternGenerator.getInstance(strippedLocale);
-        String bestPattern = patternGenerator.getBestPattern(skeleton);
-        String baseSkeleton = patternGenerator.getBaseSkeleton(bestPattern);
+        DateFormatTemplate template = getDateFormatTemplate(context, strippedLocale, skeleton);
+        String baseSkeleton = template.baseSkeleton;
 
         if (containsOneOf(baseSkeleton, "eEc")) {
             state.weekday = weekdayOpt;
@@ -212,22 +212,10 @@ public final class JSDateTimeFormat extends JSBuiltinObject implements JSConstru
 
         state.initialized = true;
 
-        SimpleDateFormat dateFormat = new SimpleDateFormat(bestPattern, strippedLocale);
+        SimpleDateFormat dateFormat = (SimpleDateFormat) template.dateFormat.clone();
         state.dateFormat = dateFormat;
         state.locale = strippedLocale.toLanguageTag();
-
-        state.calendar = Calendar.getInstance(strippedLocale).getCalendarType();
-        if ("gregory".equals(state.calendar)) {
-            // Ensure that Gregorian calendar is used for all dates.
-            // GregorianCalendar used by SimpleDateFormat is using
-            // Julian calendar for dates before 1582 otherwise.
-            com.ibm.icu.util.Calendar calendar = dateFormat.getCalendar();
-            if (!(calendar instanceof GregorianCalendar)) {
-                calendar = new GregorianCalendar(strippedLocale);
-                dateFormat.setCalendar(calendar);
-            }
-            ((GregorianCalendar) calendar).setGregorianChange(new Date(Long.MIN_VALUE));
-        }
+        state.calendar = template.calendar;
 
         if (tzNameOpt != null && !tzNameOpt.isEmpty()) {
             state.timeZoneName = tzNameOpt;
@@ -252,6 +240,58 @@ public final class JSDateTimeFormat extends JSBuiltinObject implements JSConstru
         }
     }
 
+    /**
+     * The locale and skeleton dependent parts of a date time format, shared by all formats with
+     * the same locale and skeleton.
+     */
+    private static final class DateFormatTemplate {
+        final String baseSkeleton;
+        final String calendar;
+        /** Must be cloned before use. */
+        final SimpleDateFormat dateFormat;
+
+        DateFormatTemplate(String baseSkeleton, String calendar, SimpleDateFormat dateFormat) {
+            this.baseSkeleton = baseSkeleton;
+            this.calendar = calendar;
+            this.dateFormat = dateFormat;
+        }
+    }
+
+    private static DateFormatTemplate getDateFormatTemplate(JSContext context, Locale locale, String skeleton) {
+        LRUCache<String, Object> cache = context.getRealm().getIntlFormatterCache();
+        if (cache == null) {
+            return createDateFormatTemplate(locale, skeleton);
+        }
+        String key = "DateTimeFormat|" + locale.toLanguageTag() + "|" + skeleton;
+        DateFormatTemplate template = (DateFormatTemplate) cache.get(key);
+        if (template == null) {
+            template = createDateFormatTemplate(locale, skeleton);
+            cache.put(key, template);
+        }
+        return template;
+    }
+
+    private static DateFormatTemplate createDateFormatTemplate(Locale locale, String skeleton) {
+        DateTimePatternGenerator patternGenerator = DateTimePatternGenerator.getInstance(locale);
+        String bestPattern = patternGenerator.getBestPattern(skeleton);
+        String baseSkeleton = patternGenerator.getBaseSkeleton(bestPattern);
+
+        SimpleDateFormat dateFormat = new SimpleDateFormat(bestPattern, locale);
+        String calendarType = Calendar.getInstance(locale).getCalendarType();
+        if ("gregory".equals(calendarType)) {
+            // Ensure that Gregorian calendar is used for all dates.
+            // GregorianCalendar used by SimpleDateFormat is using
+            // Julian calendar for dates before 1582 otherwise.
+            com.ibm.icu.util.Calendar calendar = dateFormat.getCalendar();
+            if (!(calendar instanceof GregorianCalendar)) {
+                calendar = new GregorianCalendar(locale);
+                dateFormat.setCalendar(calendar);
+            }
+            ((GregorianCalendar) calendar).setGregorianChange(new Date(Long.MIN_VALUE));
+        }
+        return new DateFormatTemplate(baseSkeleton, calendarType, dateFormat);
+    }
+
     private static String weekdayOptToSkeleton(String weekdayOpt) {
         if (weekdayOpt == null) {
             return "";
@@ -63,6 +63,7 @@ import com.oracle.truffle.js.runtime.objects.JSObjectUtil;
 import com.oracle.truffle.js.runtime.objects.JSShape;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 import com.oracle.truffle.js.runtime.util.IntlUtil;
+import com.oracle.truffle.js.runtime.util.LRUCache;
 import java.text.AttributedCharacterIterator;
 
 import com.ibm.icu.text.NumberFormat;
@@ -499,17 +500,35 @@ public final class JSNumberFormat extends JSBuiltinObject implements JSConstruct
     }
 
     @TruffleBoundary
-    public static void setupInternalNumberFormat(InternalState state) {
-        if (state.style.equals("currency")) {
-            state.numberFormat = NumberFormat.getCurrencyInstance(state.javaLocale);
-        } else if (state.style.equals("percent")) {
-            state.numberFormat = NumberFormat.getPercentInstance(state.javaLocale);
+    public static void setupInternalNumberFormat(JSContext context, InternalState state) {
+        LRUCache<String, Object> cache = context.getRealm().getIntlFormatterCache();
+        NumberFormat numberFormat;
+        if (cache == null) {
+            numberFormat = createNumberFormat(state.style, state.javaLocale);
         } else {
-            state.numberFormat = NumberFormat.getInstance(state.javaLocale);
+            String key = "NumberFormat|" + state.style + "|" + state.javaLocale.toLanguageTag();
+            NumberFormat template = (NumberFormat) cache.get(key);
+            if (template == null) {
+                template = createNumberFormat(state.style, state.javaLocale);
+                cache.put(key, template);
+            }
+            // the format is configured further by the caller
+            numberFormat = (NumberFormat) template.clone();
         }
+        state.numberFormat = numberFormat;
         state.numberFormat.setGroupingUsed(state.useGrouping);
     }
 
+    private static NumberFormat createNumberFormat(String style, Locale locale) {
+        if (style.equals("currency")) {
+            return NumberFormat.getCurrencyInstance(locale);
+        } else if (style.equals("percent")) {
+            return NumberFormat.getPercentInstance(locale);
+        } else {
+            return NumberFormat.getInstance(locale);
+        }
+    }
+
     @TruffleBoundary
     public static void setSignificantDigits(BasicInternalState state) {
         if (state.numberFormat instanceof DecimalFormat) {
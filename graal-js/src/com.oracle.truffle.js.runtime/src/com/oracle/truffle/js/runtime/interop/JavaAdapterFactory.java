@@ -47,11 +47,14 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.js.runtime.Errors;
 import com.oracle.truffle.js.runtime.JSRuntime;
+import com.oracle.truffle.js.runtime.util.DebugCounter;
 
 /**
  * Provides static utility services to generated Java adapter classes.
@@ -59,6 +62,20 @@ import com.oracle.truffle.js.runtime.JSRuntime;
 public final class JavaAdapterFactory {
     private static final Class<?> INTERNAL_CLASS = JavaAdapterServices.class;
 
+    /**
+     * Adapter classes without class overrides, by superclass and interfaces. The adapters of a
+     * class loader are attached to a class defined by that loader, so that they only live as long
+     * as the classes of that loader. The adapter classes are defined by a child of that loader.
+     */
+    private static final ClassValue<ConcurrentMap<List<Class<?>>, JavaClass>> ADAPTER_CACHE = new ClassValue<ConcurrentMap<List<Class<?>>, JavaClass>>() {
+        @Override
+        protected ConcurrentMap<List<Class<?>>, JavaClass> computeValue(Class<?> loaderClass) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+    private static final DebugCounter generatedAdapters = DebugCounter.create("Java adapter classes generated");
+    private static final DebugCounter reusedAdapters = DebugCounter.create("Java adapter classes reused");
+
     @TruffleBoundary
     public static JavaClass getAdapterClassFor(Class<?>[] types, DynamicObject classOverrides) {
         return getAdapterClassFor(types, classOverrides, null);
@@ -100,7 +117,7 @@ public final class JavaAdapterFactory {
         superClass = superClass != null ? superClass : Object.class;
 
         ClassLoader commonLoader = classLoader != null ? classLoader : getCommonClassLoader(types);
-        return getAdapterClassForCommon(superClass, interfaces, classOverrides, commonLoader);
+        return getAdapterClassForCommon(superClass, interfaces, classOverrides, commonLoader, classLoader == null);
     }
 
     @TruffleBoundary
@@ -110,11 +127,53 @@ public final class JavaAdapterFactory {
         List<Class<?>> interfaces = !isInterface ? Collections.<Class<?>> emptyList() : Collections.<Class<?>> singletonList(type);
 
         ClassLoader commonLoader = classLoader != null ? classLoader : getClassLoaderWithAccessTo(type);
-        return getAdapterClassForCommon(superClass, interfaces, classOverrides, commonLoader);
+        return getAdapterClassForCommon(superClass, interfaces, classOverrides, commonLoader, classLoader == null);
     }
 
-    private static JavaClass getAdapterClassForCommon(Class<?> superClass, List<Class<?>> interfaces, DynamicObject classOverrides, ClassLoader commonLoader) {
+    private static JavaClass getAdapterClassForCommon(Class<?> superClass, List<Class<?>> interfaces, DynamicObject classOverrides, ClassLoader commonLoader, boolean cacheable) {
         boolean classOverride = classOverrides != null && JSRuntime.isObject(classOverrides);
+        if (classOverride || !cacheable) {
+            // class overrides are bound to the generated class
+            return generateAdapterClass(superClass, interfaces, classOverrides, commonLoader, classOverride);
+        }
+        Class<?> loaderClass = getClassDefinedBy(commonLoader, superClass, interfaces);
+        if (loaderClass == null) {
+            return generateAdapterClass(superClass, interfaces, null, commonLoader, false);
+        }
+        List<Class<?>> key = new ArrayList<>(interfaces.size() + 1);
+        key.add(superClass);
+        key.addAll(interfaces);
+        ConcurrentMap<List<Class<?>>, JavaClass> adapters = ADAPTER_CACHE.get(loaderClass);
+        JavaClass adapter = adapters.get(key);
+        if (adapter != null) {
+            reusedAdapters.inc();
+            return adapter;
+        }
+        adapter = generateAdapterClass(superClass, interfaces, null, commonLoader, false);
+        JavaClass existing = adapters.putIfAbsent(key, adapter);
+        return existing != null ? existing : adapter;
+    }
+
+    /**
+     * Returns one of the adapter's types or the engine class defined by the given loader, or
+     * {@code null} if there is none.
+     */
+    private static Class<?> getClassDefinedBy(ClassLoader loader, Class<?> superClass, List<Class<?>> interfaces) {
+        if (INTERNAL_CLASS.getClassLoader() == loader) {
+            return INTERNAL_CLASS;
+        } else if (superClass.getClassLoader() == loader) {
+            return superClass;
+        }
+        for (Class<?> type : interfaces) {
+            if (type.getClassLoader() == loader) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    private static JavaClass generateAdapterClass(Class<?> superClass, List<Class<?>> interfaces, DynamicObject classOverrides, ClassLoader commonLoader, boolean classOverride) {
+        generatedAdapters.inc();
         JavaAdapterBytecodeGenerator bytecodeGenerator = new JavaAdapterBytecodeGenerator(superClass, interfaces, commonLoader, classOverride);
         JavaAdapterClassLoader generatedClassLoader = bytecodeGenerator.createAdapterClassLoader();
 
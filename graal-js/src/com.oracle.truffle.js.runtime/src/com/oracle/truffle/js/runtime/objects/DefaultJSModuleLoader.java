@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime.objects;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.js.runtime.AbstractJavaScriptLanguage;
+import com.oracle.truffle.js.runtime.Errors;
+import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.JSTruffleOptions;
+
+/**
+ * Default file-based module loader.
+ *
+ * Resolved specifiers and canonical paths are cached. Once a module has been parsed, the modules
+ * it statically imports are parsed ahead of time on a fork-join pool, so that the import graph is
+ * parsed in parallel while the main thread is busy with instantiation. Translation still happens
+ * lazily on the thread that instantiates the module.
+ */
+public final class DefaultJSModuleLoader implements JSModuleLoader {
+    private static final char KEY_SEPARATOR = '\0';
+
+    private final JSContext context;
+    private final ConcurrentMap<String, CompletableFuture<JSModuleRecord>> moduleMap = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, String> canonicalPathCache = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, String> resolutionCache = new ConcurrentHashMap<>();
+    private final ForkJoinPool parsePool;
+
+    public DefaultJSModuleLoader(JSContext context) {
+        this.context = context;
+        this.parsePool = JSTruffleOptions.ParallelModuleParsing ? ForkJoinPool.commonPool() : null;
+    }
+
+    @TruffleBoundary
+    @Override
+    public JSModuleRecord resolveImportedModule(JSModuleRecord referencingModule, String specifier) {
+        String canonicalPath;
+        try {
+            canonicalPath = resolve(referencingModule.getSource(), specifier);
+        } catch (IOException e) {
+            throw Errors.createError(e.getMessage());
+        }
+        JSModuleRecord existingModule = getParsedModule(canonicalPath);
+        if (existingModule != null) {
+            return existingModule;
+        }
+        return putModule(canonicalPath, parseModule(moduleSource(canonicalPath, specifier)));
+    }
+
+    @TruffleBoundary
+    @Override
+    public JSModuleRecord loadModule(Source source) {
+        String canonicalPath;
+        try {
+            canonicalPath = getCanonicalPath(source);
+        } catch (IOException e) {
+            throw Errors.createError(e.getMessage());
+        }
+        JSModuleRecord existingModule = getParsedModule(canonicalPath);
+        if (existingModule != null) {
+            return existingModule;
+        }
+        return putModule(canonicalPath, parseModule(source));
+    }
+
+    /**
+     * Returns the module parsed for the given path, waiting for a pending background parse. If the
+     * background parse failed, the module is parsed again by the caller so that the error is
+     * reported on the thread that requested the module.
+     */
+    private JSModuleRecord getParsedModule(String canonicalPath) {
+        CompletableFuture<JSModuleRecord> future = moduleMap.get(canonicalPath);
+        if (future != null) {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                moduleMap.remove(canonicalPath, future);
+            }
+        }
+        return null;
+    }
+
+    private JSModuleRecord putModule(String canonicalPath, JSModuleRecord newModule) {
+        CompletableFuture<JSModuleRecord> existing = moduleMap.putIfAbsent(canonicalPath, CompletableFuture.completedFuture(newModule));
+        if (existing != null) {
+            JSModuleRecord existingModule = getParsedModule(canonicalPath);
+            if (existingModule != null) {
+                return existingModule;
+            }
+            moduleMap.put(canonicalPath, CompletableFuture.completedFuture(newModule));
+        }
+        return newModule;
+    }
+
+    private JSModuleRecord parseModule(Source source) {
+        JSModuleRecord moduleRecord = context.getEvaluator().parseModule(context, source, this);
+        prefetchImports(moduleRecord);
+        return moduleRecord;
+    }
+
+    private void prefetchImports(JSModuleRecord moduleRecord) {
+        if (parsePool == null) {
+            return;
+        }
+        for (String specifier : context.getEvaluator().getRequestedModules(moduleRecord)) {
+            String canonicalPath;
+            try {
+                canonicalPath = resolve(moduleRecord.getSource(), specifier);
+            } catch (IOException e) {
+                // reported when the module is actually resolved
+                continue;
+            }
+            moduleMap.computeIfAbsent(canonicalPath, path -> CompletableFuture.supplyAsync(() -> parseModule(moduleSource(path, specifier)), parsePool));
+        }
+    }
+
+    private static Source moduleSource(String canonicalPath, String specifier) {
+        try {
+            return Source.newBuilder(new File(canonicalPath)).name(specifier).language(AbstractJavaScriptLanguage.ID).build();
+        } catch (IOException e) {
+            throw Errors.createError(e.getMessage());
+        }
+    }
+
+    private String resolve(Source referencingSource, String specifier) throws IOException {
+        String referencingPath = getRawPath(referencingSource);
+        String key = referencingPath + KEY_SEPARATOR + specifier;
+        String resolved = resolutionCache.get(key);
+        if (resolved == null) {
+            String canonicalReferencingPath = getCanonicalPath(referencingSource);
+            resolved = Paths.get(canonicalReferencingPath).resolveSibling(specifier).toFile().getCanonicalPath();
+            resolutionCache.putIfAbsent(key, resolved);
+        }
+        return resolved;
+    }
+
+    private String getCanonicalPath(Source source) throws IOException {
+        String path = getRawPath(source);
+        String canonicalPath = canonicalPathCache.get(path);
+        if (canonicalPath == null) {
+            canonicalPath = Paths.get(path).toFile().getCanonicalPath();
+            canonicalPathCache.putIfAbsent(path, canonicalPath);
+        }
+        return canonicalPath;
+    }
+
+    private static String getRawPath(Source source) {
+        String path = source.getPath();
+        if (path == null) {
+            path = source.getName();
+            if (path.startsWith("module:")) {
+                path = path.substring("module:".length());
+            }
+        }
+        return path;
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime.objects;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.Property;
+import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.js.runtime.JSTruffleOptions;
+import com.oracle.truffle.js.runtime.util.DebugCounter;
+
+/**
+ * Precomputed for-in key list of a receiver shape.
+ *
+ * Contains the enumerable string keys of the receiver and its prototypes in enumeration order,
+ * with keys shadowed by an object closer to the receiver removed. The cache is only created if
+ * every object on the prototype chain has only shape properties and stores its prototype in the
+ * shape, so the receiver shape determines the prototype chain. It stays valid as long as the
+ * prototypes keep their shapes. The prototypes are not referenced by the cache, they are found
+ * through the shapes.
+ *
+ * @see JSShape#getEnumCache(DynamicObject)
+ */
+public final class EnumCache {
+    private static final Shape[] EMPTY_SHAPE_ARRAY = new Shape[0];
+
+    @CompilationFinal(dimensions = 1) private final String[] keys;
+    /** Keys at indices below this are own properties of the receiver. */
+    private final int ownKeyCount;
+    @CompilationFinal(dimensions = 1) private final Shape[] prototypeShapes;
+
+    private EnumCache(String[] keys, int ownKeyCount, Shape[] prototypeShapes) {
+        this.keys = keys;
+        this.ownKeyCount = ownKeyCount;
+        this.prototypeShapes = prototypeShapes;
+    }
+
+    public String[] getKeys() {
+        return keys;
+    }
+
+    public boolean isOwnKey(int index) {
+        return index < ownKeyCount;
+    }
+
+    /**
+     * Checks that this cache still applies to {@code receiver}, which must have the shape this
+     * cache was created for.
+     */
+    public boolean isValid(DynamicObject receiver) {
+        return JSObject.getJSClass(receiver).hasOnlyShapeProperties(receiver) && prototypesUnchanged(receiver);
+    }
+
+    /**
+     * Checks that the prototypes still have the shapes they had when the cache was created. The
+     * receiver must have the shape this cache was created for.
+     */
+    public boolean prototypesUnchanged(DynamicObject receiver) {
+        DynamicObject current = receiver;
+        for (int i = 0; i < prototypeShapes.length; i++) {
+            DynamicObject prototype = getPrototypeInShape(current);
+            Shape shape = prototypeShapes[i];
+            if (prototype.getShape() != shape || !shape.isValid() || !JSShape.getJSClass(shape).hasOnlyShapeProperties(prototype)) {
+                return false;
+            }
+            current = prototype;
+        }
+        return true;
+    }
+
+    private static DynamicObject getPrototypeInShape(DynamicObject object) {
+        Shape shape = object.getShape();
+        return (DynamicObject) JSShape.getPrototypeProperty(shape).get(object, shape);
+    }
+
+    /**
+     * Rechecks a key after the receiver or one of its prototypes has changed during enumeration.
+     * Like {@code EnumerateIterator}, a key is skipped if it has been deleted or made
+     * non-enumerable, or if an inherited key is now shadowed by an own property.
+     */
+    @TruffleBoundary
+    public boolean isStillEnumerable(DynamicObject receiver, int index) {
+        String key = keys[index];
+        if (isOwnKey(index)) {
+            PropertyDescriptor desc = JSObject.getOwnProperty(receiver, key);
+            return desc != null && desc.getEnumerable();
+        }
+        if (JSObject.hasOwnProperty(receiver, key)) {
+            return false;
+        }
+        for (DynamicObject current = JSObject.getPrototype(receiver); current != Null.instance; current = JSObject.getPrototype(current)) {
+            PropertyDescriptor desc = JSObject.getOwnProperty(current, key);
+            if (desc != null) {
+                return desc.getEnumerable();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Creates the for-in key list for the receiver's shape, or returns {@code null} if the object
+     * or one of its prototypes does not qualify.
+     */
+    static EnumCache create(DynamicObject receiver) {
+        CompilerAsserts.neverPartOfCompilation();
+        if (!JSTruffleOptions.FastOwnKeys || !isCacheable(receiver)) {
+            return null;
+        }
+        List<DynamicObject> prototypeList = new ArrayList<>();
+        for (DynamicObject current = JSObject.getPrototype(receiver); current != Null.instance; current = JSObject.getPrototype(current)) {
+            if (!isCacheable(current) || prototypeList.contains(current)) {
+                return null;
+            }
+            prototypeList.add(current);
+        }
+
+        List<String> keyList = new ArrayList<>();
+        Set<Object> visitedKeys = new HashSet<>();
+        collectKeys(receiver.getShape(), keyList, visitedKeys);
+        int ownKeyCount = keyList.size();
+        Shape[] prototypeShapes = prototypeList.isEmpty() ? EMPTY_SHAPE_ARRAY : new Shape[prototypeList.size()];
+        for (int i = 0; i < prototypeShapes.length; i++) {
+            prototypeShapes[i] = prototypeList.get(i).getShape();
+            collectKeys(prototypeShapes[i], keyList, visitedKeys);
+        }
+        enumCacheAllocCount.inc();
+        return new EnumCache(keyList.toArray(new String[keyList.size()]), ownKeyCount, prototypeShapes);
+    }
+
+    private static boolean isCacheable(DynamicObject object) {
+        Shape shape = object.getShape();
+        return JSShape.isPrototypeInShape(shape) && JSObject.getJSClass(object).hasOnlyShapeProperties(object);
+    }
+
+    /**
+     * Appends the enumerable string keys of one object, skipping keys of objects visited before.
+     * All keys of the object, including non-enumerable ones, hide keys of later prototypes.
+     */
+    private static void collectKeys(Shape shape, List<String> keyList, Set<Object> visitedKeys) {
+        List<Property> properties = JSShape.getProperties(shape);
+        boolean first = visitedKeys.isEmpty();
+        for (Property property : properties) {
+            Object key = property.getKey();
+            if (JSProperty.isEnumerable(property) && key instanceof String && (first || !visitedKeys.contains(key))) {
+                keyList.add((String) key);
+            }
+        }
+        for (Property property : properties) {
+            visitedKeys.add(property.getKey());
+        }
+    }
+
+    private static final DebugCounter enumCacheAllocCount = DebugCounter.create("Enum caches allocated");
+}
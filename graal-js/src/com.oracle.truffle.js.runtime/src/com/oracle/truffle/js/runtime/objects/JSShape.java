@@ -208,6 +208,13 @@ public final class JSShape {
         return JSShapeData.getEnumerablePropertyNames(shape);
     }
 
+    /**
+     * Returns the for-in key list of the object's shape, or {@code null} if it cannot be cached.
+     */
+    public static EnumCache getEnumCache(DynamicObject object) {
+        return JSShapeData.getEnumCache(object);
+    }
+
     /**
      * Internal constructor for null shape et al.
      */
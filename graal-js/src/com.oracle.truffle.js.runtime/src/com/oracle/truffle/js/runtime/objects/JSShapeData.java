@@ -42,16 +42,16 @@ package com.oracle.truffle.js.runtime.objects;
 
 import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.object.Property;
 import com.oracle.truffle.api.object.Shape;
-import com.oracle.truffle.js.runtime.JSContext;
 import com.oracle.truffle.js.runtime.JSRuntime;
 import com.oracle.truffle.js.runtime.util.DebugCounter;
 import com.oracle.truffle.js.runtime.util.IteratorUtil;
@@ -65,14 +65,20 @@ public final class JSShapeData {
     private static final Property[] EMPTY_PROPERTY_ARRAY = new Property[0];
     private static final String[] EMPTY_STRING_ARRAY = new String[0];
 
-    private Property[] propertyArray;
-    private String[] enumerablePropertyNames;
+    private volatile Property[] propertyArray;
+    private volatile String[] enumerablePropertyNames;
+    private volatile EnumCache enumCache;
 
-    private JSShapeData() {
+    JSShapeData() {
     }
 
     private static Property[] createPropertiesArray(Shape shape) {
         CompilerAsserts.neverPartOfCompilation();
+        Property[] parentArray = getParentPropertiesArray(shape);
+        if (parentArray != null) {
+            propertyListDerivedCount.inc();
+            return appendProperty(parentArray, shape.getLastProperty());
+        }
         propertyListAllocCount.inc();
         List<Property> ownProperties = shape.getPropertyList();
         sortProperties(ownProperties);
@@ -81,6 +87,18 @@ public final class JSShapeData {
 
     private static String[] createEnumerablePropertyNamesArray(Shape shape) {
         CompilerAsserts.neverPartOfCompilation();
+        String[] parentNames = getParentEnumerablePropertyNamesArray(shape);
+        if (parentNames != null) {
+            enumerablePropertyListDerivedCount.inc();
+            Property last = shape.getLastProperty();
+            if (JSProperty.isEnumerable(last) && last.getKey() instanceof String) {
+                String[] names = Arrays.copyOf(parentNames, parentNames.length + 1);
+                names[parentNames.length] = (String) last.getKey();
+                return names;
+            } else {
+                return parentNames;
+            }
+        }
         enumerablePropertyListAllocCount.inc();
         List<String> ownProperties = new ArrayList<>();
         shape.getPropertyList().forEach(property -> {
@@ -92,6 +110,62 @@ public final class JSShapeData {
         return ownProperties.toArray(EMPTY_STRING_ARRAY);
     }
 
+    /**
+     * Inserts a property that is not an array index into a sorted property array: string keys
+     * follow the other string keys in insertion order, symbols go last.
+     */
+    private static Property[] appendProperty(Property[] sorted, Property property) {
+        int pos = sorted.length;
+        if (property.getKey() instanceof String) {
+            while (pos > 0 && !(sorted[pos - 1].getKey() instanceof String)) {
+                pos--;
+            }
+        }
+        Property[] result = new Property[sorted.length + 1];
+        System.arraycopy(sorted, 0, result, 0, pos);
+        result[pos] = property;
+        System.arraycopy(sorted, pos, result, pos + 1, sorted.length - pos);
+        return result;
+    }
+
+    /**
+     * If the shape was derived from its parent by adding a single (non-index) property, returns
+     * the parent shape, so that the parent's property arrays can be extended incrementally.
+     */
+    private static Shape getAppendParent(Shape shape) {
+        Shape parent = shape.getParent();
+        if (parent == null || parent.getPropertyCount() + 1 != shape.getPropertyCount()) {
+            return null;
+        }
+        Property last = shape.getLastProperty();
+        if (last == null || last.isHidden() || JSRuntime.isArrayIndex(JSRuntime.propertyKeyToArrayIndex(last.getKey())) || parent.getProperty(last.getKey()) != null) {
+            return null;
+        }
+        return parent;
+    }
+
+    private static Property[] getParentPropertiesArray(Shape shape) {
+        Shape parent = getAppendParent(shape);
+        if (parent == null) {
+            return null;
+        } else if (parent.getPropertyCount() == 0) {
+            return EMPTY_PROPERTY_ARRAY;
+        }
+        JSShapeData parentData = JSShape.getSharedData(parent).peekShapeData(parent);
+        return parentData == null ? null : parentData.propertyArray;
+    }
+
+    private static String[] getParentEnumerablePropertyNamesArray(Shape shape) {
+        Shape parent = getAppendParent(shape);
+        if (parent == null) {
+            return null;
+        } else if (parent.getPropertyCount() == 0) {
+            return EMPTY_STRING_ARRAY;
+        }
+        JSShapeData parentData = JSShape.getSharedData(parent).peekShapeData(parent);
+        return parentData == null ? null : parentData.enumerablePropertyNames;
+    }
+
     private static void sortProperties(List<Property> ownProperties) {
         CompilerAsserts.neverPartOfCompilation();
         Collections.sort(ownProperties, (o1, o2) -> JSRuntime.comparePropertyKeys(o1.getKey(), o2.getKey()));
@@ -104,9 +178,7 @@ public final class JSShapeData {
 
     private static JSShapeData getShapeData(Shape shape) {
         CompilerAsserts.neverPartOfCompilation();
-        JSContext context = JSShape.getJSContext(shape);
-        Map<Shape, JSShapeData> map = context.getShapeDataMap();
-        return map.computeIfAbsent(shape, s -> new JSShapeData());
+        return JSShape.getSharedData(shape).getShapeData(shape);
     }
 
     @TruffleBoundary
@@ -115,12 +187,14 @@ public final class JSShapeData {
             return EMPTY_PROPERTY_ARRAY;
         } else {
             JSShapeData shapeData = getShapeData(shape);
-            if (shapeData.propertyArray == null) {
+            Property[] propertyArray = shapeData.propertyArray;
+            if (propertyArray == null) {
                 assert shape.getPropertyCount() != 0;
-                shapeData.propertyArray = createPropertiesArray(shape);
-                assert shapeData.propertyArray.length == shape.getPropertyCount();
+                propertyArray = createPropertiesArray(shape);
+                assert propertyArray.length == shape.getPropertyCount();
+                shapeData.propertyArray = propertyArray;
             }
-            return shapeData.propertyArray;
+            return propertyArray;
         }
     }
 
@@ -134,11 +208,13 @@ public final class JSShapeData {
             return EMPTY_STRING_ARRAY;
         } else {
             JSShapeData shapeData = getShapeData(shape);
-            if (shapeData.enumerablePropertyNames == null) {
+            String[] enumerablePropertyNames = shapeData.enumerablePropertyNames;
+            if (enumerablePropertyNames == null) {
                 assert shape.getPropertyCount() != 0;
-                shapeData.enumerablePropertyNames = createEnumerablePropertyNamesArray(shape);
+                enumerablePropertyNames = createEnumerablePropertyNamesArray(shape);
+                shapeData.enumerablePropertyNames = enumerablePropertyNames;
             }
-            return shapeData.enumerablePropertyNames;
+            return enumerablePropertyNames;
         }
     }
 
@@ -146,6 +222,23 @@ public final class JSShapeData {
         return asUnmodifiableList(getEnumerablePropertyNamesArray(shape));
     }
 
+    @TruffleBoundary
+    static EnumCache getEnumCache(DynamicObject receiver) {
+        Shape shape = receiver.getShape();
+        if (!shape.isValid()) {
+            return null;
+        }
+        JSShapeData shapeData = getShapeData(shape);
+        EnumCache enumCache = shapeData.enumCache;
+        if (enumCache == null || !enumCache.isValid(receiver)) {
+            enumCache = EnumCache.create(receiver);
+            if (enumCache != null) {
+                shapeData.enumCache = enumCache;
+            }
+        }
+        return enumCache;
+    }
+
     private static <T> List<T> asUnmodifiableList(T[] array) {
         return new AbstractList<T>() {
             @Override
@@ -167,4 +260,6 @@ public final class JSShapeData {
 
     private static final DebugCounter enumerablePropertyListAllocCount = DebugCounter.create("Enumerable property lists allocated");
     private static final DebugCounter propertyListAllocCount = DebugCounter.create("Property lists allocated");
+    private static final DebugCounter enumerablePropertyListDerivedCount = DebugCounter.create("Enumerable property lists derived from parent shape");
+    private static final DebugCounter propertyListDerivedCount = DebugCounter.create("Property lists derived from parent shape");
 }
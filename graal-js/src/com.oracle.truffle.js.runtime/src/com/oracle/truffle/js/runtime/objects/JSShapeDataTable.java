@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime.objects;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.oracle.truffle.api.object.Shape;
+
+/**
+ * Metadata of the shapes of a shape tree, weakly keyed by shape identity.
+ *
+ * Truffle only keeps shape transitions weakly, so the table must not keep the shapes alive either.
+ * Entries are immutable and lookups do not lock; insertions and the removal of entries whose shape
+ * has been collected are synchronized and replace the affected bucket chain.
+ */
+final class JSShapeDataTable {
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final ReferenceQueue<Shape> queue = new ReferenceQueue<>();
+    private volatile AtomicReferenceArray<Entry> table = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+    /** Number of entries, guarded by {@code this}. */
+    private int size;
+
+    private static final class Entry extends WeakReference<Shape> {
+        final int hash;
+        final JSShapeData data;
+        final Entry next;
+
+        Entry(Shape shape, int hash, JSShapeData data, Entry next, ReferenceQueue<Shape> queue) {
+            super(shape, queue);
+            this.hash = hash;
+            this.data = data;
+            this.next = next;
+        }
+    }
+
+    private static int hash(Shape shape) {
+        int h = System.identityHashCode(shape);
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the metadata of the shape if it has already been created, otherwise {@code null}.
+     */
+    JSShapeData get(Shape shape) {
+        AtomicReferenceArray<Entry> tab = table;
+        int hash = hash(shape);
+        for (Entry e = tab.get(hash & (tab.length() - 1)); e != null; e = e.next) {
+            if (e.get() == shape) {
+                return e.data;
+            }
+        }
+        return null;
+    }
+
+    synchronized JSShapeData getOrCreate(Shape shape) {
+        JSShapeData data = get(shape);
+        if (data != null) {
+            return data;
+        }
+        expungeStaleEntries();
+        AtomicReferenceArray<Entry> tab = table;
+        if (size >= tab.length() - (tab.length() >>> 2)) {
+            tab = resize(tab);
+        }
+        data = new JSShapeData();
+        int hash = hash(shape);
+        int index = hash & (tab.length() - 1);
+        tab.set(index, new Entry(shape, hash, data, tab.get(index), queue));
+        size++;
+        return data;
+    }
+
+    private void expungeStaleEntries() {
+        for (Object ref; (ref = queue.poll()) != null;) {
+            remove((Entry) ref);
+        }
+    }
+
+    /**
+     * Unlinks an entry whose shape has been collected by copying the live entries in front of it.
+     * Entries that have already been dropped by a previous copy or resize are not found.
+     */
+    private void remove(Entry stale) {
+        AtomicReferenceArray<Entry> tab = table;
+        int index = stale.hash & (tab.length() - 1);
+        Entry head = tab.get(index);
+        if (!contains(head, stale)) {
+            return;
+        }
+        Entry newHead = stale.next;
+        for (Entry e = head; e != stale; e = e.next) {
+            Shape shape = e.get();
+            if (shape != null) {
+                newHead = new Entry(shape, e.hash, e.data, newHead, queue);
+            } else {
+                size--;
+            }
+        }
+        tab.set(index, newHead);
+        size--;
+    }
+
+    private static boolean contains(Entry head, Entry entry) {
+        for (Entry e = head; e != null; e = e.next) {
+            if (e == entry) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private AtomicReferenceArray<Entry> resize(AtomicReferenceArray<Entry> oldTable) {
+        // entries of collected shapes are dropped, grow only if the table stays half full
+        int capacity = oldTable.length();
+        if (countLiveEntries(oldTable) >= capacity >>> 1) {
+            capacity *= 2;
+        }
+        AtomicReferenceArray<Entry> newTable = new AtomicReferenceArray<>(capacity);
+        int count = 0;
+        for (int i = 0; i < oldTable.length(); i++) {
+            for (Entry e = oldTable.get(i); e != null; e = e.next) {
+                Shape shape = e.get();
+                if (shape != null) {
+                    int index = e.hash & (capacity - 1);
+                    newTable.set(index, new Entry(shape, e.hash, e.data, newTable.get(index), queue));
+                    count++;
+                }
+            }
+        }
+        table = newTable;
+        size = count;
+        return newTable;
+    }
+
+    private static int countLiveEntries(AtomicReferenceArray<Entry> tab) {
+        int count = 0;
+        for (int i = 0; i < tab.length(); i++) {
+            for (Entry e = tab.get(i); e != null; e = e.next) {
+                if (e.get() != null) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -63,6 +63,8 @@ public final class JSSharedData implements ShapeListener {
     private final CopyOnWriteArrayList<Shape> protoChildTrees;
     private final Property prototypeProperty;
     private Map<Object, Assumption> propertyAssumptions;
+    /** Metadata of the shapes of this shape tree, created on demand. */
+    private volatile JSShapeDataTable shapeDataTable;
 
     private static final DebugCounter propertyAssumptionsCreated = DebugCounter.create("Property assumptions created");
     private static final DebugCounter propertyAssumptionsRemoved = DebugCounter.create("Property assumptions removed");
@@ -132,6 +134,38 @@ public final class JSSharedData implements ShapeListener {
         }
     }
 
+    JSShapeData getShapeData(Shape shape) {
+        assert shape.getSharedData() == this;
+        JSShapeDataTable dataTable = shapeDataTable;
+        if (dataTable == null) {
+            dataTable = createShapeDataTable();
+        } else {
+            JSShapeData shapeData = dataTable.get(shape);
+            if (shapeData != null) {
+                return shapeData;
+            }
+        }
+        return dataTable.getOrCreate(shape);
+    }
+
+    /**
+     * Returns the metadata of the shape if it has already been created, otherwise {@code null}.
+     */
+    JSShapeData peekShapeData(Shape shape) {
+        assert shape.getSharedData() == this;
+        JSShapeDataTable dataTable = shapeDataTable;
+        return dataTable == null ? null : dataTable.get(shape);
+    }
+
+    private synchronized JSShapeDataTable createShapeDataTable() {
+        JSShapeDataTable dataTable = shapeDataTable;
+        if (dataTable == null) {
+            dataTable = new JSShapeDataTable();
+            shapeDataTable = dataTable;
+        }
+        return dataTable;
+    }
+
     public JSContext getContext() {
         return context;
     }
@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime.objects;
+
+import com.oracle.truffle.api.Assumption;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.FinalLocationException;
+import com.oracle.truffle.api.object.IncompatibleLocationException;
+import com.oracle.truffle.api.object.Location;
+import com.oracle.truffle.api.object.ObjectType;
+import com.oracle.truffle.api.object.Property;
+import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.JSRuntime;
+import com.oracle.truffle.js.runtime.JSTruffleOptions;
+import com.oracle.truffle.js.runtime.builtins.JSArrayBufferView;
+import com.oracle.truffle.js.runtime.builtins.JSBuiltinObject;
+import com.oracle.truffle.js.runtime.builtins.JSDictionaryObject;
+import com.oracle.truffle.js.runtime.builtins.JSModuleNamespace;
+import com.oracle.truffle.js.runtime.interop.JavaImporter;
+import com.oracle.truffle.js.runtime.interop.JavaPackage;
+import com.oracle.truffle.js.runtime.util.DebugCounter;
+
+/**
+ * Global stub cache for megamorphic property accesses, shared by all property access nodes of a
+ * context that have exceeded {@link JSTruffleOptions#PropertyCacheLimit}.
+ *
+ * A fixed-size, direct-mapped table maps a (receiver shape, key) pair to the property and the
+ * prototype holding it. Entries are immutable and may be overwritten at any time, so no locking is
+ * required. An entry for a property found on a prototype is only created if the prototypes are
+ * stored in the shapes (the receiver shape determines the prototype chain) and is guarded by the
+ * property assumptions of all prototype shapes up to the holder, mirroring the checks of
+ * {@code PrototypeChainShapeCheckNode}.
+ *
+ * Only objects whose class looks up named properties in the shape are cached; lookups that miss
+ * or involve exotic objects return {@code null} and are left to the generic path.
+ */
+public final class MegamorphicPropertyCache {
+
+    private static final DebugCounter cacheHitCount = DebugCounter.create("Megamorphic property cache hits");
+    private static final DebugCounter cacheMissCount = DebugCounter.create("Megamorphic property cache misses");
+
+    private static final Assumption[] NO_ASSUMPTIONS = new Assumption[0];
+
+    private final JSContext context;
+    private final Entry[] entries;
+    private final int mask;
+
+    private static final class Entry {
+        final Shape shape;
+        final Object key;
+        final Property property;
+        /** The prototype holding the property, or {@code null} for an own property. */
+        final DynamicObject holder;
+        final Assumption[] prototypeAssumptions;
+        /** Own, writable, plain data property with a settable location. */
+        final boolean writableData;
+
+        Entry(Shape shape, Object key, Property property, DynamicObject holder, Assumption[] prototypeAssumptions) {
+            this.shape = shape;
+            this.key = key;
+            this.property = property;
+            this.holder = holder;
+            this.prototypeAssumptions = prototypeAssumptions;
+            this.writableData = holder == null && isWritableData(property);
+        }
+
+        boolean matches(Shape otherShape, Object otherKey) {
+            return shape == otherShape && (key == otherKey || key.equals(otherKey));
+        }
+
+        boolean isValid() {
+            if (!shape.isValid()) {
+                return false;
+            }
+            for (Assumption assumption : prototypeAssumptions) {
+                if (!assumption.isValid()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * @param size the number of entries, rounded up to a power of two
+     */
+    public MegamorphicPropertyCache(JSContext context, int size) {
+        assert size > 0;
+        this.context = context;
+        int capacity = Integer.highestOneBit(Math.max(size - 1, 1)) << 1;
+        this.entries = new Entry[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Gets the value of a named property of {@code store}, or its prototypes.
+     *
+     * @param store the object to start the lookup at
+     * @param receiver the receiver passed to getters
+     * @param key the property key
+     * @return the value of the property, or {@code null} if the property could not be resolved via
+     *         the cache and the generic lookup has to be used
+     */
+    @TruffleBoundary
+    public Object get(DynamicObject store, Object receiver, Object key) {
+        Shape shape = store.getShape();
+        int index = index(shape, key);
+        Entry entry = entries[index];
+        if (entry == null || !entry.matches(shape, key) || !entry.isValid() || (entry.holder != null && !context.isSingleRealm())) {
+            cacheMissCount.inc();
+            entry = resolve(store, shape, key);
+            if (entry == null) {
+                return null;
+            }
+            entries[index] = entry;
+        } else {
+            cacheHitCount.inc();
+        }
+        DynamicObject holder = entry.holder == null ? store : entry.holder;
+        return JSProperty.getValue(entry.property, holder, receiver, false);
+    }
+
+    /**
+     * Sets the value of an existing own writable data property of {@code store}.
+     *
+     * @return {@code true} if the value has been set, {@code false} if the generic path has to be
+     *         used.
+     */
+    @TruffleBoundary
+    public boolean set(DynamicObject store, Object key, Object value) {
+        Shape shape = store.getShape();
+        int index = index(shape, key);
+        Entry entry = entries[index];
+        if (entry == null || !entry.matches(shape, key) || !entry.isValid()) {
+            cacheMissCount.inc();
+            entry = resolveOwn(shape, key);
+            if (entry == null) {
+                return false;
+            }
+            entries[index] = entry;
+        } else {
+            cacheHitCount.inc();
+        }
+        if (!entry.writableData) {
+            return false;
+        }
+        try {
+            entry.property.set(store, value, shape);
+            return true;
+        } catch (IncompatibleLocationException | FinalLocationException e) {
+            return false;
+        }
+    }
+
+    private int index(Shape shape, Object key) {
+        int hash = shape.hashCode() * 31 + key.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private static Entry resolveOwn(Shape shape, Object key) {
+        if (!isCacheable(shape, key)) {
+            return null;
+        }
+        Property property = shape.getProperty(key);
+        if (property == null) {
+            return null;
+        }
+        return new Entry(shape, key, property, null, NO_ASSUMPTIONS);
+    }
+
+    private Entry resolve(DynamicObject store, Shape shape, Object key) {
+        if (!isCacheable(shape, key)) {
+            return null;
+        }
+        Property property = shape.getProperty(key);
+        if (property != null) {
+            return new Entry(shape, key, property, null, NO_ASSUMPTIONS);
+        }
+        if (!JSTruffleOptions.SkipPrototypeShapeCheck || !context.isSingleRealm()) {
+            return null;
+        }
+
+        Assumption[] assumptions = NO_ASSUMPTIONS;
+        Shape currentShape = shape;
+        DynamicObject current = store;
+        while (JSShape.isPrototypeInShape(currentShape)) {
+            DynamicObject prototype = JSObject.getPrototype(current);
+            if (prototype == Null.instance) {
+                return null;
+            }
+            Shape prototypeShape = prototype.getShape();
+            if (!isCacheable(prototypeShape, key)) {
+                return null;
+            }
+            Assumption assumption = JSShape.getPropertyAssumption(prototypeShape, key);
+            if (!assumption.isValid()) {
+                return null;
+            }
+            assumptions = append(assumptions, assumption);
+            property = prototypeShape.getProperty(key);
+            if (property != null) {
+                return new Entry(shape, key, property, prototype, assumptions);
+            }
+            current = prototype;
+            currentShape = prototypeShape;
+        }
+        return null;
+    }
+
+    private static Assumption[] append(Assumption[] array, Assumption element) {
+        Assumption[] result = new Assumption[array.length + 1];
+        System.arraycopy(array, 0, result, 0, array.length);
+        result[array.length] = element;
+        return result;
+    }
+
+    /**
+     * Whether named property lookups on objects of this shape can be answered by the shape alone.
+     */
+    private static boolean isCacheable(Shape shape, Object key) {
+        if (!shape.isValid() || JSRuntime.isArrayIndex(JSRuntime.propertyKeyToArrayIndex(key))) {
+            return false;
+        }
+        ObjectType jsclass = shape.getObjectType();
+        return jsclass instanceof JSBuiltinObject && !(jsclass instanceof JSDictionaryObject || jsclass instanceof JSModuleNamespace || jsclass instanceof JSArrayBufferView ||
+                        jsclass instanceof JavaPackage || jsclass instanceof JavaImporter);
+    }
+
+    private static boolean isWritableData(Property property) {
+        if (JSProperty.isAccessor(property) || JSProperty.isProxy(property) || !JSProperty.isWritable(property)) {
+            return false;
+        }
+        Location location = property.getLocation();
+        return !location.isFinal() && !location.isConstant();
+    }
+}
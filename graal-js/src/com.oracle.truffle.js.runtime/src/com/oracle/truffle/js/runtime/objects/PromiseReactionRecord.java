@@ -45,9 +45,9 @@ import com.oracle.truffle.api.object.DynamicObject;
 public final class PromiseReactionRecord {
     private final PromiseCapabilityRecord capability;
     private final boolean fulfill;
-    private final DynamicObject handler;
+    private final Object handler;
 
-    private PromiseReactionRecord(PromiseCapabilityRecord capability, DynamicObject handler, boolean fulfill) {
+    private PromiseReactionRecord(PromiseCapabilityRecord capability, Object handler, boolean fulfill) {
         this.capability = capability;
         this.handler = handler;
         this.fulfill = fulfill;
@@ -57,7 +57,10 @@ public final class PromiseReactionRecord {
         return capability;
     }
 
-    public DynamicObject getHandler() {
+    /**
+     * Returns the handler function, {@link Undefined} or an {@link AwaitContinuation}.
+     */
+    public Object getHandler() {
         return handler;
     }
 
@@ -72,4 +75,12 @@ public final class PromiseReactionRecord {
     public static PromiseReactionRecord create(PromiseCapabilityRecord capability, DynamicObject handler, boolean fulfill) {
         return new PromiseReactionRecord(capability, handler, fulfill);
     }
+
+    /**
+     * Creates a reaction that resumes an async function. It has no capability: the result of the
+     * resumption is not used to resolve a promise.
+     */
+    public static PromiseReactionRecord createAwait(AwaitContinuation continuation, boolean fulfill) {
+        return new PromiseReactionRecord(null, continuation, fulfill);
+    }
 }
@@ -111,4 +111,18 @@ public final class DelimitedStringBuilder {
     public int length() {
         return builder.length();
     }
+
+    @TruffleBoundary
+    public void getChars(int srcBegin, int srcEnd, char[] dst, int dstBegin) {
+        builder.getChars(srcBegin, srcEnd, dst, dstBegin);
+    }
+
+    /**
+     * Sets the length of the builder, keeping its capacity. Used to drain the builder after its
+     * contents have been written out.
+     */
+    @TruffleBoundary
+    public void setLength(int newLength) {
+        builder.setLength(newLength);
+    }
 }
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime.util;
+
+import java.util.Iterator;
+
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.js.runtime.Boundaries;
+import com.oracle.truffle.js.runtime.objects.EnumCache;
+
+/**
+ * State of a for-in loop.
+ *
+ * With an {@link EnumCache}, the loop walks the cached key array of the receiver shape and only
+ * rechecks a key if the receiver (or, for inherited keys, a prototype) has changed its shape in
+ * the meantime. Otherwise, it drains a generic enumeration iterator.
+ */
+public final class ForInIterator {
+    private final DynamicObject receiver;
+    private final Shape receiverShape;
+    private final EnumCache enumCache;
+    private final Iterator<?> iterator;
+    private int index;
+    private Object current;
+
+    public ForInIterator(DynamicObject receiver, EnumCache enumCache) {
+        this.receiver = receiver;
+        this.receiverShape = receiver.getShape();
+        this.enumCache = enumCache;
+        this.iterator = null;
+    }
+
+    public ForInIterator(Iterator<?> iterator) {
+        this.receiver = null;
+        this.receiverShape = null;
+        this.enumCache = null;
+        this.iterator = iterator;
+    }
+
+    public boolean isCached() {
+        return enumCache != null;
+    }
+
+    /**
+     * Advances to the next key using the enum cache.
+     *
+     * @return {@code false} if there are no more keys
+     */
+    public boolean stepCached() {
+        String[] keys = enumCache.getKeys();
+        while (index < keys.length) {
+            int i = index++;
+            if (isUnchanged(i) || enumCache.isStillEnumerable(receiver, i)) {
+                current = keys[i];
+                return true;
+            }
+        }
+        current = null;
+        return false;
+    }
+
+    private boolean isUnchanged(int keyIndex) {
+        return receiver.getShape() == receiverShape && (enumCache.isOwnKey(keyIndex) || enumCache.prototypesUnchanged(receiver));
+    }
+
+    /**
+     * Advances to the next key using the generic iterator.
+     *
+     * @return {@code false} if there are no more keys
+     */
+    public boolean stepGeneric() {
+        if (Boundaries.iteratorHasNext(iterator)) {
+            current = Boundaries.iteratorNext(iterator);
+            return true;
+        }
+        current = null;
+        return false;
+    }
+
+    /**
+     * Returns the key produced by the last successful step.
+     */
+    public Object getCurrent() {
+        return current;
+    }
+}
@@ -40,12 +40,21 @@
  */
 package com.oracle.truffle.js.runtime.util;
 
-import java.util.HashMap;
+import java.util.Arrays;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 
 /**
  * ES6-compliant hash map implementation.
+ *
+ * Deterministic-order hash table in the style of V8's OrderedHashMap: entries are appended to
+ * parallel key/value arrays in insertion order, and hash buckets are chained through an index
+ * array, so there are no per-entry objects. Int and double keys are stored unboxed.
+ *
+ * Removed entries leave a hole that is dropped when the table is rehashed. Rehashing renumbers the
+ * entries, so every rehash that drops holes (and every {@link #clear()}) starts a new
+ * {@link Table generation} that records the dropped indices; live {@link Cursor cursors} use it
+ * to catch up with the current numbering.
  */
 public final class JSHashMap {
     public interface Cursor {
@@ -72,15 +81,46 @@ public final class JSHashMap {
         Cursor copy();
     }
 
-    private final HashMap<Object, Node> map = new HashMap<>();
-    private final Node head = new Node(null, null, null, null);
-    private Node tail = head;
+    private static final int INITIAL_CAPACITY = 4;
+    /** Average number of entries per bucket. */
+    private static final int LOAD_FACTOR = 2;
+    private static final int NO_ENTRY = -1;
+
+    /** Key marker of an entry whose key is an int stored in {@link #numericKeys}. */
+    private static final Object INT_KEY = new Object();
+    /** Key marker of an entry whose key is a double stored in {@link #numericKeys} (raw bits). */
+    private static final Object DOUBLE_KEY = new Object();
+
+    /** Entry keys in insertion order; {@code null} marks a removed entry. */
+    private Object[] keys;
+    /** Unboxed int and double keys; allocated on first use. */
+    private long[] numericKeys;
+    private Object[] values;
+    /** Next entry in the same bucket, or {@link #NO_ENTRY}. */
+    private int[] chain;
+    /** First entry of each bucket, or {@link #NO_ENTRY}. */
+    private int[] buckets;
+    /** Number of used entry slots, including removed entries. */
+    private int usedCount;
+    private int size;
+    private Table table = new Table();
+
+    /**
+     * A numbering generation of the entries. When the entries are renumbered, the obsolete
+     * generation points to its successor and records how the numbering changed.
+     */
+    private static final class Table {
+        Table next;
+        /** Sorted indices of the entries dropped by the rehash. */
+        int[] removed;
+        boolean cleared;
+    }
 
     public JSHashMap() {
     }
 
     public int size() {
-        return map.size();
+        return size;
     }
 
     /**
@@ -88,172 +128,314 @@ public final class JSHashMap {
      */
     @TruffleBoundary
     public void put(Object key, Object value) {
-        Node newNode = new Node(key, value, null, null);
-        Node oldNode = map.putIfAbsent(key, newNode);
-        if (oldNode == null) {
-            newNode.setPrev(tail);
-            tail.setNext(newNode);
-            tail = newNode;
-        } else {
-            oldNode.setValue(value);
+        int hash = hash(key);
+        int index = find(key, hash);
+        if (index != NO_ENTRY) {
+            values[index] = value;
+            return;
+        }
+
+        if (keys == null) {
+            allocate(INITIAL_CAPACITY, false);
+        } else if (usedCount == keys.length) {
+            rehash(size >= keys.length / 2 ? keys.length * 2 : keys.length);
         }
+        index = usedCount++;
+        storeKey(index, key);
+        values[index] = value;
+        int bucket = hash & (buckets.length - 1);
+        chain[index] = buckets[bucket];
+        buckets[bucket] = index;
+        size++;
     }
 
     @TruffleBoundary
     public Object get(Object key) {
-        Node node = map.get(key);
-        return node == null ? null : node.getValue();
+        int index = find(key, hash(key));
+        return index == NO_ENTRY ? null : values[index];
     }
 
     @TruffleBoundary
     public boolean has(Object key) {
-        return map.containsKey(key);
+        return find(key, hash(key)) != NO_ENTRY;
     }
 
     @TruffleBoundary
     public boolean remove(Object key) {
-        Node node = map.remove(key);
-        if (node == null) {
+        int index = find(key, hash(key));
+        if (index == NO_ENTRY) {
             return false;
-        } else {
-            unlink(node);
-            return true;
         }
-    }
-
-    private void unlink(Node node) {
-        Node next = node.getNext();
-        Node prev = node.getPrev();
-        prev.setNext(next);
-        if (next != null) {
-            next.setPrev(prev);
-        } else {
-            tail = prev;
+        // the entry stays in its bucket chain as a hole until the next rehash
+        keys[index] = null;
+        values[index] = null;
+        size--;
+        if (size < keys.length / (2 * LOAD_FACTOR) && keys.length > INITIAL_CAPACITY) {
+            rehash(keys.length / 2);
         }
-        node.setEmpty();
+        return true;
     }
 
     @TruffleBoundary
     public void clear() {
-        map.clear();
-        for (Node current = head.getNext(); current != null; current = current.getNext()) {
-            current.setEmpty();
+        if (keys == null) {
+            return;
         }
-        head.setNext(null);
-        tail = head;
+        keys = null;
+        numericKeys = null;
+        values = null;
+        chain = null;
+        buckets = null;
+        usedCount = 0;
+        size = 0;
+        Table newTable = new Table();
+        table.cleared = true;
+        table.next = newTable;
+        table = newTable;
     }
 
     @TruffleBoundary
     @Override
     public String toString() {
-        return map.toString();
+        StringBuilder sb = new StringBuilder("{");
+        boolean first = true;
+        for (int i = 0; i < usedCount; i++) {
+            if (keys[i] != null) {
+                if (!first) {
+                    sb.append(", ");
+                }
+                first = false;
+                sb.append(getKey(i)).append('=').append(values[i]);
+            }
+        }
+        return sb.append('}').toString();
     }
 
     public Cursor getEntries() {
-        return new CursorImpl(head);
+        return new CursorImpl(this, table, NO_ENTRY, false);
     }
 
-    private static final class CursorImpl implements Cursor {
-        private Node current;
+    private void allocate(int capacity, boolean withNumericKeys) {
+        keys = new Object[capacity];
+        numericKeys = withNumericKeys ? new long[capacity] : null;
+        values = new Object[capacity];
+        chain = new int[capacity];
+        buckets = new int[Math.max(1, capacity / LOAD_FACTOR)];
+        Arrays.fill(buckets, NO_ENTRY);
+    }
 
-        CursorImpl(Node head) {
-            this.current = head;
+    /**
+     * Rebuilds the table with the given capacity, dropping removed entries.
+     */
+    private void rehash(int newCapacity) {
+        Object[] oldKeys = keys;
+        long[] oldNumericKeys = numericKeys;
+        Object[] oldValues = values;
+        int oldUsedCount = usedCount;
+        int[] removed = size < oldUsedCount ? new int[oldUsedCount - size] : null;
+
+        allocate(newCapacity, oldNumericKeys != null);
+        int removedCount = 0;
+        int newIndex = 0;
+        for (int i = 0; i < oldUsedCount; i++) {
+            Object key = oldKeys[i];
+            if (key == null) {
+                removed[removedCount++] = i;
+                continue;
+            }
+            keys[newIndex] = key;
+            if (oldNumericKeys != null) {
+                numericKeys[newIndex] = oldNumericKeys[i];
+            }
+            values[newIndex] = oldValues[i];
+            int bucket = hashAt(newIndex) & (buckets.length - 1);
+            chain[newIndex] = buckets[bucket];
+            buckets[bucket] = newIndex;
+            newIndex++;
+        }
+        assert newIndex == size;
+        usedCount = newIndex;
+
+        if (removed != null) {
+            Table newTable = new Table();
+            table.removed = removed;
+            table.next = newTable;
+            table = newTable;
         }
+    }
 
-        @Override
-        public boolean advance() {
-            if (current == null) {
-                return false;
-            } else {
-                // if current is no longer in the map, back up to a previous node still in the map
-                while (current.isEmpty() && current.getPrev() != null) {
-                    current = current.getPrev();
+    private int find(Object key, int hash) {
+        if (buckets == null) {
+            return NO_ENTRY;
+        }
+        int index = buckets[hash & (buckets.length - 1)];
+        if (key instanceof Integer) {
+            long bits = (Integer) key;
+            while (index != NO_ENTRY) {
+                if (keys[index] == INT_KEY && numericKeys[index] == bits) {
+                    return index;
+                }
+                index = chain[index];
+            }
+        } else if (key instanceof Double) {
+            long bits = Double.doubleToLongBits((Double) key);
+            while (index != NO_ENTRY) {
+                if (keys[index] == DOUBLE_KEY && numericKeys[index] == bits) {
+                    return index;
+                }
+                index = chain[index];
+            }
+        } else if (key instanceof String) {
+            while (index != NO_ENTRY) {
+                Object k = keys[index];
+                if (k == key || (k instanceof String && key.equals(k))) {
+                    return index;
                 }
-                Node next = current.getNext();
-                assert next == null || next.getKey() != null;
-                current = next;
-                return next != null;
+                index = chain[index];
+            }
+        } else {
+            while (index != NO_ENTRY) {
+                Object k = keys[index];
+                if (k == key || (k != null && k != INT_KEY && k != DOUBLE_KEY && key.equals(k))) {
+                    return index;
+                }
+                index = chain[index];
             }
         }
+        return NO_ENTRY;
+    }
 
-        @Override
-        public Object getKey() {
-            Object key = current.getKey();
-            assert key != null;
-            return key;
+    private void storeKey(int index, Object key) {
+        if (key instanceof Integer) {
+            ensureNumericKeys()[index] = (Integer) key;
+            keys[index] = INT_KEY;
+        } else if (key instanceof Double) {
+            ensureNumericKeys()[index] = Double.doubleToLongBits((Double) key);
+            keys[index] = DOUBLE_KEY;
+        } else {
+            keys[index] = key;
         }
+    }
 
-        @Override
-        public Object getValue() {
-            Object value = current.getValue();
-            assert value != null;
-            return value;
+    private long[] ensureNumericKeys() {
+        if (numericKeys == null) {
+            numericKeys = new long[keys.length];
         }
+        return numericKeys;
+    }
 
-        @Override
-        public String toString() {
-            return "Cursor [current=" + current + "]";
+    private Object getKey(int index) {
+        Object key = keys[index];
+        if (key == INT_KEY) {
+            return (int) numericKeys[index];
+        } else if (key == DOUBLE_KEY) {
+            return Double.longBitsToDouble(numericKeys[index]);
         }
+        return key;
+    }
 
-        @Override
-        public Cursor copy() {
-            return new CursorImpl(current);
+    private int hashAt(int index) {
+        Object key = keys[index];
+        if (key == INT_KEY || key == DOUBLE_KEY) {
+            return hashBits(numericKeys[index]);
         }
+        return mix(key.hashCode());
     }
 
-    private static final class Node {
-        private Object key;
-        private Object value;
-        private Node prev;
-        private Node next;
-
-        Node(Object key, Object value, Node prev, Node next) {
-            this.key = key;
-            this.value = value;
-            this.prev = prev;
-            this.next = next;
+    private static int hash(Object key) {
+        if (key instanceof Integer) {
+            return hashBits((Integer) key);
+        } else if (key instanceof Double) {
+            return hashBits(Double.doubleToLongBits((Double) key));
         }
+        return mix(key.hashCode());
+    }
 
-        Object getKey() {
-            return key;
-        }
+    private static int hashBits(long bits) {
+        return mix((int) (bits ^ (bits >>> 32)) * 0x9E3779B9);
+    }
 
-        Object getValue() {
-            return value;
-        }
+    private static int mix(int h) {
+        return h ^ (h >>> 16);
+    }
 
-        void setValue(Object value) {
-            this.value = value;
+    private static final class CursorImpl implements Cursor {
+        private final JSHashMap map;
+        private Table table;
+        /** Index of the current entry in the numbering of {@link #table}. */
+        private int index;
+        private boolean done;
+
+        CursorImpl(JSHashMap map, Table table, int index, boolean done) {
+            this.map = map;
+            this.table = table;
+            this.index = index;
+            this.done = done;
         }
 
-        Node getPrev() {
-            return prev;
+        @Override
+        public boolean advance() {
+            if (done) {
+                return false;
+            }
+            updateIndex();
+            Object[] keys = map.keys;
+            int next = index + 1;
+            while (next < map.usedCount && keys[next] == null) {
+                next++;
+            }
+            if (next < map.usedCount) {
+                index = next;
+                return true;
+            }
+            done = true;
+            return false;
         }
 
-        void setPrev(Node prev) {
-            this.prev = prev;
+        /**
+         * Translates {@link #index} to the current numbering of the map's entries.
+         */
+        private void updateIndex() {
+            Table current = map.table;
+            while (table != current) {
+                if (table.cleared) {
+                    index = NO_ENTRY;
+                } else {
+                    index -= countRemovedUpTo(table.removed, index);
+                }
+                table = table.next;
+            }
         }
 
-        Node getNext() {
-            return next;
+        private static int countRemovedUpTo(int[] removed, int index) {
+            int pos = Arrays.binarySearch(removed, index);
+            return pos >= 0 ? pos + 1 : -(pos + 1);
         }
 
-        void setNext(Node next) {
-            this.next = next;
+        @Override
+        public Object getKey() {
+            updateIndex();
+            Object key = map.getKey(index);
+            assert key != null;
+            return key;
         }
 
-        void setEmpty() {
-            this.key = null;
-            this.value = null;
+        @Override
+        public Object getValue() {
+            updateIndex();
+            Object value = map.values[index];
+            assert value != null;
+            return value;
         }
 
-        boolean isEmpty() {
-            return this.key == null;
+        @Override
+        public String toString() {
+            return "Cursor [index=" + index + "]";
         }
 
         @Override
-        public String toString() {
-            return "Node [key=" + key + ", value=" + value + "]";
+        public Cursor copy() {
+            return new CursorImpl(map, table, index, done);
         }
     }
 }
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime.util;
+
+import com.oracle.truffle.api.object.DynamicObject;
+
+/**
+ * FIFO queue of pending promise jobs, backed by a growable ring buffer.
+ *
+ * Also keeps statistics about the queue depth and the time spent draining it.
+ */
+public final class PromiseJobQueue {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private DynamicObject[] elements = new DynamicObject[INITIAL_CAPACITY];
+    private int head;
+    private int size;
+
+    private long enqueuedCount;
+    private int maxDepth;
+    private long drainCount;
+    private long drainTimeNanos;
+
+    public PromiseJobQueue() {
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void add(DynamicObject job) {
+        if (size == elements.length) {
+            grow();
+        }
+        elements[(head + size) & (elements.length - 1)] = job;
+        size++;
+        enqueuedCount++;
+        if (size > maxDepth) {
+            maxDepth = size;
+        }
+    }
+
+    /**
+     * Returns the job at the head of the queue without removing it, or {@code null} if empty.
+     */
+    public DynamicObject peek() {
+        return size == 0 ? null : elements[head];
+    }
+
+    /**
+     * Removes and returns the job at the head of the queue, or {@code null} if empty.
+     */
+    public DynamicObject poll() {
+        if (size == 0) {
+            return null;
+        }
+        DynamicObject job = elements[head];
+        elements[head] = null;
+        head = (head + 1) & (elements.length - 1);
+        size--;
+        return job;
+    }
+
+    private void grow() {
+        DynamicObject[] newElements = new DynamicObject[elements.length * 2];
+        int firstPart = elements.length - head;
+        System.arraycopy(elements, head, newElements, 0, firstPart);
+        System.arraycopy(elements, 0, newElements, firstPart, head);
+        elements = newElements;
+        head = 0;
+    }
+
+    /**
+     * Records the completion of one drain of the queue.
+     */
+    public void recordDrain(long nanos) {
+        drainCount++;
+        drainTimeNanos += nanos;
+    }
+
+    /**
+     * Total number of jobs ever enqueued.
+     */
+    public long getEnqueuedCount() {
+        return enqueuedCount;
+    }
+
+    /**
+     * Highest number of jobs that were pending at the same time.
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public long getDrainCount() {
+        return drainCount;
+    }
+
+    /**
+     * Total time spent draining the queue, including the execution of the jobs.
+     */
+    public long getDrainTimeNanos() {
+        return drainTimeNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "PromiseJobQueue [size=" + size + ", enqueued=" + enqueuedCount + ", maxDepth=" + maxDepth + ", drains=" + drainCount + ", drainTime=" + drainTimeNanos / 1000000 + "ms]";
+    }
+}
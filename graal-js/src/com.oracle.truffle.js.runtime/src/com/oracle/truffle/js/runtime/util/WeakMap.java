@@ -40,22 +40,44 @@
  */
 package com.oracle.truffle.js.runtime.util;
 
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
-import java.util.WeakHashMap;
 
 import com.oracle.truffle.api.object.DynamicObject;
-import com.oracle.truffle.api.object.HiddenKey;
-import com.oracle.truffle.js.runtime.objects.JSObject;
-import com.oracle.truffle.js.runtime.objects.JSShape;
 
 /**
  * JavaScript WeakMap.
+ *
+ * A hash table owned by the map, with weakly referenced keys compared by identity. Entries whose
+ * key has been collected are expunged via a reference queue on the next access, releasing their
+ * values. Key objects are never written to, so adding a key to a WeakMap does not change its shape.
+ *
+ * Values are held strongly by the table. The JVM offers no ephemerons, so a value that (directly
+ * or indirectly) references its own key keeps that entry alive until the WeakMap itself becomes
+ * unreachable.
  */
 public class WeakMap implements Map<DynamicObject, Object> {
-    private static final HiddenKey INVERTED_WEAK_MAP_KEY = new HiddenKey("InvertedWeakMap");
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final ReferenceQueue<DynamicObject> queue = new ReferenceQueue<>();
+    private Entry[] table = new Entry[INITIAL_CAPACITY];
+    private int size;
+
+    private static final class Entry extends WeakReference<DynamicObject> {
+        final int hash;
+        Object value;
+        Entry next;
+
+        Entry(DynamicObject key, int hash, Object value, Entry next, ReferenceQueue<DynamicObject> queue) {
+            super(key, queue);
+            this.hash = hash;
+            this.value = value;
+            this.next = next;
+        }
+    }
 
     public WeakMap() {
     }
@@ -67,54 +89,119 @@ public class WeakMap implements Map<DynamicObject, Object> {
         return (DynamicObject) key;
     }
 
-    @SuppressWarnings("unchecked")
-    private static Map<WeakMap, Object> getInvertedMap(DynamicObject k, boolean put) {
-        if (k.containsKey(INVERTED_WEAK_MAP_KEY)) {
-            return (WeakHashMap<WeakMap, Object>) k.get(INVERTED_WEAK_MAP_KEY);
-        } else {
-            if (put) {
-                return putInvertedMap(k);
-            } else {
-                return Collections.emptyMap();
+    private static int hash(Object key) {
+        int h = System.identityHashCode(key);
+        return h ^ (h >>> 16);
+    }
+
+    private Entry findEntry(DynamicObject key) {
+        int hash = hash(key);
+        for (Entry e = table[hash & (table.length - 1)]; e != null; e = e.next) {
+            if (e.hash == hash && e.get() == key) {
+                return e;
             }
         }
+        return null;
+    }
+
+    /**
+     * Removes entries whose keys have been collected.
+     */
+    private void expungeStaleEntries() {
+        for (Object ref; (ref = queue.poll()) != null;) {
+            unlink((Entry) ref);
+        }
     }
 
-    private static WeakHashMap<WeakMap, Object> putInvertedMap(DynamicObject k) {
-        WeakHashMap<WeakMap, Object> invertedMap = new WeakHashMap<>();
-        boolean wasNotExtensible = !JSShape.isExtensible(k.getShape());
-        k.define(INVERTED_WEAK_MAP_KEY, invertedMap);
-        if (wasNotExtensible && JSObject.isExtensible(k)) {
-            // not-extensible marker property is expected to be the last property; ensure it is.
-            k.delete(JSShape.NOT_EXTENSIBLE_KEY);
-            JSObject.preventExtensions(k);
-            assert !JSObject.isExtensible(k);
+    private boolean unlink(Entry entry) {
+        int index = entry.hash & (table.length - 1);
+        Entry prev = null;
+        for (Entry e = table[index]; e != null; prev = e, e = e.next) {
+            if (e == entry) {
+                if (prev == null) {
+                    table[index] = e.next;
+                } else {
+                    prev.next = e.next;
+                }
+                e.value = null;
+                size--;
+                return true;
+            }
         }
-        return invertedMap;
+        return false;
+    }
+
+    private void resize() {
+        Entry[] oldTable = table;
+        Entry[] newTable = new Entry[oldTable.length * 2];
+        for (Entry head : oldTable) {
+            Entry e = head;
+            while (e != null) {
+                Entry next = e.next;
+                if (e.get() == null) {
+                    // collected, but not yet enqueued; drop it now
+                    e.value = null;
+                    e.clear();
+                    size--;
+                } else {
+                    int index = e.hash & (newTable.length - 1);
+                    e.next = newTable[index];
+                    newTable[index] = e;
+                }
+                e = next;
+            }
+        }
+        table = newTable;
     }
 
     @Override
     public boolean containsKey(Object key) {
         DynamicObject k = checkKey(key);
-        return getInvertedMap(k, false).containsKey(this);
+        expungeStaleEntries();
+        return findEntry(k) != null;
     }
 
     @Override
     public Object get(Object key) {
         DynamicObject k = checkKey(key);
-        return getInvertedMap(k, false).get(this);
+        expungeStaleEntries();
+        Entry e = findEntry(k);
+        return e == null ? null : e.value;
     }
 
     @Override
     public Object put(DynamicObject key, Object value) {
         DynamicObject k = checkKey(key);
-        return getInvertedMap(k, true).put(this, value);
+        expungeStaleEntries();
+        Entry e = findEntry(k);
+        if (e != null) {
+            Object oldValue = e.value;
+            e.value = value;
+            return oldValue;
+        }
+        if (size >= table.length - (table.length >>> 2)) {
+            resize();
+        }
+        int hash = hash(k);
+        int index = hash & (table.length - 1);
+        table[index] = new Entry(k, hash, value, table[index], queue);
+        size++;
+        return null;
     }
 
     @Override
     public Object remove(Object key) {
         DynamicObject k = checkKey(key);
-        return getInvertedMap(k, false).remove(this);
+        expungeStaleEntries();
+        Entry e = findEntry(k);
+        if (e == null) {
+            return null;
+        }
+        Object oldValue = e.value;
+        unlink(e);
+        // the entry must not be unlinked again when its key is collected
+        e.clear();
+        return oldValue;
     }
 
     @Override
@@ -127,19 +214,31 @@ public class WeakMap implements Map<DynamicObject, Object> {
         throw unsupported();
     }
 
+    /**
+     * Number of entries, including entries whose keys have been collected but not yet expunged.
+     */
     @Override
     public int size() {
-        throw unsupported();
+        expungeStaleEntries();
+        return size;
     }
 
     @Override
     public boolean isEmpty() {
-        throw unsupported();
+        return size() == 0;
     }
 
     @Override
     public void clear() {
-        throw unsupported();
+        for (Entry head : table) {
+            for (Entry e = head; e != null; e = e.next) {
+                e.value = null;
+                e.clear();
+            }
+        }
+        table = new Entry[INITIAL_CAPACITY];
+        size = 0;
+        expungeStaleEntries();
     }
 
     @Override
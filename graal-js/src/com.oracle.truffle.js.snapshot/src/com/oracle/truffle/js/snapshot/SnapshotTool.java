@@ -61,6 +61,7 @@ import com.oracle.truffle.js.runtime.JSTruffleOptions;
 public class SnapshotTool {
     static {
         System.setProperty("truffle.js.LazyTranslation", "false");
+        System.setProperty("truffle.js.LazyParsing", "false");
     }
 
     private final TimeStats timeStats = new TimeStats();
@@ -75,6 +76,7 @@ public class SnapshotTool {
 
     public static void main(String[] args) throws IOException {
         assert !JSTruffleOptions.LazyTranslation;
+        assert !JSTruffleOptions.LazyParsing;
 
         boolean binary = true;
         String outDir = null;
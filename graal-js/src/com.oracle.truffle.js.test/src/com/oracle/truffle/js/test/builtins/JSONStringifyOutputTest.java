@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.builtins;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Flushable;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+import org.junit.Test;
+
+import com.oracle.truffle.js.runtime.JSContextOptions;
+
+public class JSONStringifyOutputTest {
+
+    private static Context createContext(boolean outputEnabled) {
+        return Context.newBuilder("js").option(JSContextOptions.JSON_STRINGIFY_OUTPUT_NAME, String.valueOf(outputEnabled)).build();
+    }
+
+    private static byte[] expectedBytes(Context context, String value) {
+        return context.eval("js", "JSON.stringify(" + value + ")").asString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Records the chunks it receives and how often it has been flushed.
+     */
+    private static final class ChunkChannel implements WritableByteChannel, Flushable {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final List<Integer> chunkSizes = new ArrayList<>();
+        int flushCount;
+
+        @Override
+        public int write(ByteBuffer src) {
+            int length = src.remaining();
+            byte[] chunk = new byte[length];
+            src.get(chunk);
+            bytes.write(chunk, 0, length);
+            chunkSizes.add(length);
+            return length;
+        }
+
+        @Override
+        public void flush() {
+            flushCount++;
+        }
+
+        public int size() {
+            return bytes.size();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    @Test
+    public void ignoredWithoutOption() {
+        try (Context context = createContext(false)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            context.getBindings("js").putMember("out", out);
+            Value result = context.eval("js", "JSON.stringify({a: [1, 'b']}, null, 0, out)");
+            assertEquals("{\"a\":[1,\"b\"]}", result.asString());
+            assertEquals(0, out.size());
+        }
+    }
+
+    @Test
+    public void returnsByteCount() {
+        try (Context context = createContext(true)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            context.getBindings("js").putMember("out", out);
+            String value = "{a: [1, 'b\\u00e9\\u20ac\\ud83d\\ude00'], c: {d: null}}";
+            Value result = context.eval("js", "JSON.stringify(" + value + ", null, 2, out)");
+            byte[] expected = context.eval("js", "JSON.stringify(" + value + ", null, 2)").asString().getBytes(StandardCharsets.UTF_8);
+            assertEquals(expected.length, result.asInt());
+            assertArrayEquals(expected, out.toByteArray());
+        }
+    }
+
+    @Test
+    public void unserializableValue() {
+        try (Context context = createContext(true)) {
+            ChunkChannel out = new ChunkChannel();
+            context.getBindings("js").putMember("out", out);
+            assertTrue(context.eval("js", "JSON.stringify(undefined, null, 0, out)").isNull());
+            assertEquals(0, out.size());
+        }
+    }
+
+    @Test
+    public void flushesChunksDuringSerialization() {
+        try (Context context = createContext(true)) {
+            ChunkChannel out = new ChunkChannel();
+            context.getBindings("js").putMember("out", out);
+            String value = "Array.from({length: 10000}, (_, i) => 'element' + i)";
+            Value writtenBeforeLast = context.eval("js", "var written = -1;" +
+                            "JSON.stringify(" + value + ", (k, v) => { if (k === '9999') { written = out.size(); } return v; }, 0, out);" +
+                            "written");
+            assertTrue(writtenBeforeLast.asInt() > 0);
+            assertTrue(out.chunkSizes.size() > 1);
+            assertEquals(1, out.flushCount);
+            assertArrayEquals(expectedBytes(context, value), out.bytes.toByteArray());
+        }
+    }
+
+    @Test
+    public void surrogatePairsAcrossChunkBoundaries() {
+        try (Context context = createContext(true)) {
+            // the first pair straddles the 16K flush threshold, the long run of pairs overflows the
+            // encoder's byte buffer in the middle of a string
+            String[] values = {
+                            "['x'.repeat(16382) + '\\ud83d\\ude00', 'y']",
+                            "Array.from({length: 3}, (_, i) => 'x'.repeat(16379 + i) + '\\ud83d\\ude00'.repeat(3))",
+                            "['\\ud83d\\ude00'.repeat(20000)]",
+            };
+            for (String value : values) {
+                ChunkChannel out = new ChunkChannel();
+                context.getBindings("js").putMember("out", out);
+                Value result = context.eval("js", "JSON.stringify(" + value + ", null, 0, out)");
+                byte[] expected = expectedBytes(context, value);
+                assertEquals(expected.length, result.asInt());
+                assertArrayEquals(expected, out.bytes.toByteArray());
+            }
+        }
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.oracle.truffle.js.runtime.util.JSHashMap;
+
+public class JSHashMapTest {
+
+    private static List<Object> keys(JSHashMap map) {
+        List<Object> keys = new ArrayList<>();
+        JSHashMap.Cursor cursor = map.getEntries();
+        while (cursor.advance()) {
+            keys.add(cursor.getKey());
+        }
+        return keys;
+    }
+
+    private static JSHashMap createMap(int count) {
+        JSHashMap map = new JSHashMap();
+        for (int i = 0; i < count; i++) {
+            map.put(i, "v" + i);
+        }
+        return map;
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        JSHashMap map = new JSHashMap();
+        Object object = new Object();
+        map.put("a", 1);
+        map.put(2, "two");
+        map.put(2.5, "two and a half");
+        map.put(object, "object");
+        assertEquals(4, map.size());
+        assertEquals(1, map.get("a"));
+        assertEquals("two", map.get(2));
+        assertEquals("two and a half", map.get(2.5));
+        assertEquals("object", map.get(object));
+        assertNull(map.get(2.0));
+        assertNull(map.get(new Object()));
+        assertFalse(map.has(Double.NaN));
+        map.put(Double.NaN, "nan");
+        assertEquals("nan", map.get(Double.NaN));
+
+        map.put("a", 10);
+        assertEquals(10, map.get("a"));
+        assertEquals(5, map.size());
+        assertTrue(map.remove(2));
+        assertFalse(map.remove(2));
+        assertFalse(map.has(2));
+        assertEquals(4, map.size());
+        assertEquals(Arrays.asList("a", 2.5, object, Double.NaN), keys(map));
+    }
+
+    @Test
+    public void testInsertionOrderAcrossRehash() {
+        JSHashMap map = createMap(1000);
+        for (int i = 0; i < 1000; i += 2) {
+            assertTrue(map.remove(i));
+        }
+        // updating a value keeps the position, re-adding a removed key appends it
+        map.put(1, "updated");
+        map.put(0, "v0");
+        List<Object> expected = new ArrayList<>();
+        for (int i = 1; i < 1000; i += 2) {
+            expected.add(i);
+        }
+        expected.add(0);
+        assertEquals(expected, keys(map));
+        assertEquals("updated", map.get(1));
+        assertEquals(501, map.size());
+    }
+
+    @Test
+    public void testDeleteDuringIteration() {
+        JSHashMap map = createMap(10);
+        List<Object> visited = new ArrayList<>();
+        JSHashMap.Cursor cursor = map.getEntries();
+        while (cursor.advance()) {
+            int key = (Integer) cursor.getKey();
+            assertEquals("v" + key, cursor.getValue());
+            visited.add(key);
+            // delete the current entry and one that has not been visited yet
+            map.remove(key);
+            map.remove(key + 1);
+        }
+        assertEquals(Arrays.asList(0, 2, 4, 6, 8), visited);
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    public void testDeleteDuringIterationWithRehash() {
+        JSHashMap map = createMap(1000);
+        List<Object> visited = new ArrayList<>();
+        JSHashMap.Cursor cursor = map.getEntries();
+        while (cursor.advance()) {
+            Object key = cursor.getKey();
+            visited.add(key);
+            // shrinking rehashes renumber the remaining entries under the cursor
+            map.remove(key);
+        }
+        assertEquals(1000, visited.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, visited.get(i));
+        }
+    }
+
+    @Test
+    public void testInsertDuringIteration() {
+        JSHashMap map = createMap(2);
+        List<Object> visited = new ArrayList<>();
+        JSHashMap.Cursor cursor = map.getEntries();
+        while (cursor.advance()) {
+            int key = (Integer) cursor.getKey();
+            visited.add(key);
+            if (key < 100) {
+                // entries added during iteration are visited, also after growing the table
+                map.remove(key);
+                map.put(key + 2, "v" + (key + 2));
+            }
+        }
+        assertEquals(102, visited.size());
+        for (int i = 0; i < visited.size(); i++) {
+            assertEquals(i, visited.get(i));
+        }
+    }
+
+    @Test
+    public void testCursorsAcrossRehashes() {
+        JSHashMap map = createMap(100);
+        JSHashMap.Cursor cursor = map.getEntries();
+        for (int i = 0; i < 50; i++) {
+            assertTrue(cursor.advance());
+        }
+        assertEquals(49, cursor.getKey());
+        JSHashMap.Cursor copy = cursor.copy();
+
+        // several generations of renumbering: holes before, at and after the cursors
+        for (int i = 0; i < 100; i += 3) {
+            map.remove(i);
+        }
+        for (int i = 1; i < 100; i += 3) {
+            map.remove(i);
+        }
+        for (int i = 100; i < 1000; i++) {
+            map.put(i, "v" + i);
+        }
+
+        for (JSHashMap.Cursor c : Arrays.asList(cursor, copy)) {
+            assertTrue(c.advance());
+            assertEquals(50, c.getKey());
+            assertTrue(c.advance());
+            assertEquals(53, c.getKey());
+            assertEquals("v53", c.getValue());
+        }
+        int count = 2;
+        while (cursor.advance()) {
+            count++;
+        }
+        assertEquals(17 + 900, count);
+        assertTrue(copy.advance());
+        assertEquals(56, copy.getKey());
+    }
+
+    @Test
+    public void testCursorAcrossClear() {
+        JSHashMap map = createMap(10);
+        JSHashMap.Cursor cursor = map.getEntries();
+        assertTrue(cursor.advance());
+        assertTrue(cursor.advance());
+        JSHashMap.Cursor copy = cursor.copy();
+
+        map.clear();
+        assertEquals(0, map.size());
+        map.put("x", 1);
+        map.put("y", 2);
+        // the cursor continues with the entries added after the clear
+        assertTrue(cursor.advance());
+        assertEquals("x", cursor.getKey());
+
+        map.clear();
+        map.clear();
+        map.put("z", 3);
+        assertTrue(cursor.advance());
+        assertEquals("z", cursor.getKey());
+        assertFalse(cursor.advance());
+
+        assertTrue(copy.advance());
+        assertEquals("z", copy.getKey());
+        assertFalse(copy.advance());
+    }
+
+    @Test
+    public void testExhaustedCursor() {
+        JSHashMap map = createMap(3);
+        JSHashMap.Cursor cursor = map.getEntries();
+        while (cursor.advance()) {
+            // consume all entries
+        }
+        map.put(3, "v3");
+        assertFalse(cursor.advance());
+
+        JSHashMap.Cursor empty = new JSHashMap().getEntries();
+        assertFalse(empty.advance());
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.oracle.truffle.js.runtime.util.LRUCache;
+
+public class LRUCacheTest {
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        LRUCache<String, Integer> cache = new LRUCache<>(3);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+        // a lookup makes "a" the most recently used entry
+        assertEquals(Integer.valueOf(1), cache.get("a"));
+        cache.put("d", 4);
+        assertEquals(3, cache.size());
+        assertNull(cache.get("b"));
+        assertEquals(Integer.valueOf(1), cache.get("a"));
+        assertEquals(Integer.valueOf(3), cache.get("c"));
+        assertEquals(Integer.valueOf(4), cache.get("d"));
+        assertEquals(1, cache.getEvictions());
+
+        // replacing a value does not evict
+        cache.put("c", 30);
+        assertEquals(3, cache.size());
+        assertEquals(Integer.valueOf(30), cache.get("c"));
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    public void testStatistics() {
+        LRUCache<String, Integer> cache = new LRUCache<>(2);
+        assertEquals(0, cache.getHitRate(), 0);
+        assertNull(cache.get("a"));
+        cache.put("a", 1);
+        cache.get("a");
+        cache.get("a");
+        cache.get("a");
+        assertEquals(3, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0.75, cache.getHitRate(), 0);
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertNull(cache.get("a"));
+        assertEquals(2, cache.getMisses());
+        assertEquals(2, cache.getMaxSize());
+    }
+
+    @Test
+    public void testConcurrentAccess() throws InterruptedException {
+        final int maxSize = 16;
+        final int iterations = 10000;
+        LRUCache<Integer, Integer> cache = new LRUCache<>(maxSize);
+        AtomicInteger mismatches = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            final int offset = t;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < iterations; i++) {
+                    Integer key = (i * 4 + offset) % 64;
+                    Integer value = cache.get(key);
+                    if (value == null) {
+                        cache.put(key, key);
+                    } else if (!value.equals(key)) {
+                        mismatches.incrementAndGet();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, mismatches.get());
+        assertEquals(maxSize, cache.size());
+        assertEquals(4L * iterations, cache.getHits() + cache.getMisses());
+    }
+}
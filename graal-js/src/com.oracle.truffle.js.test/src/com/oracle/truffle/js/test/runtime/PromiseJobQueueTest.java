@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayDeque;
+
+import org.junit.Test;
+
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.js.parser.JSEngine;
+import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.builtins.JSUserObject;
+import com.oracle.truffle.js.runtime.util.PromiseJobQueue;
+
+public class PromiseJobQueueTest {
+
+    private final JSContext context = JSEngine.createJSContext();
+
+    @Test
+    public void testEmpty() {
+        PromiseJobQueue queue = new PromiseJobQueue();
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.size());
+        assertNull(queue.peek());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void testFifoOrder() {
+        PromiseJobQueue queue = new PromiseJobQueue();
+        DynamicObject first = JSUserObject.create(context);
+        DynamicObject second = JSUserObject.create(context);
+        queue.add(first);
+        queue.add(second);
+        assertEquals(2, queue.size());
+        assertSame(first, queue.peek());
+        assertSame(first, queue.poll());
+        assertSame(second, queue.peek());
+        assertSame(second, queue.poll());
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void testGrowWhileWrappedAround() {
+        PromiseJobQueue queue = new PromiseJobQueue();
+        ArrayDeque<DynamicObject> expected = new ArrayDeque<>();
+        // interleave adds and polls so that the head moves around the ring buffer while it grows
+        for (int round = 0; round < 200; round++) {
+            for (int i = 0; i < 3; i++) {
+                DynamicObject job = JSUserObject.create(context);
+                queue.add(job);
+                expected.add(job);
+            }
+            for (int i = 0; i < 2; i++) {
+                assertSame(expected.poll(), queue.poll());
+            }
+            assertEquals(expected.size(), queue.size());
+            assertSame(expected.peek(), queue.peek());
+        }
+        while (!expected.isEmpty()) {
+            assertSame(expected.poll(), queue.poll());
+        }
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testStatistics() {
+        PromiseJobQueue queue = new PromiseJobQueue();
+        for (int i = 0; i < 5; i++) {
+            queue.add(JSUserObject.create(context));
+        }
+        queue.poll();
+        queue.poll();
+        queue.add(JSUserObject.create(context));
+        assertEquals(6, queue.getEnqueuedCount());
+        assertEquals(5, queue.getMaxDepth());
+
+        queue.recordDrain(100);
+        queue.recordDrain(50);
+        assertEquals(2, queue.getDrainCount());
+        assertEquals(150, queue.getDrainTimeNanos());
+    }
+}
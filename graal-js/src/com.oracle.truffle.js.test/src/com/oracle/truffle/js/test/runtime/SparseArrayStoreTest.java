@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.js.parser.JSEngine;
+import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.array.SparseArray;
+import com.oracle.truffle.js.runtime.array.SparseArrayStore;
+import com.oracle.truffle.js.runtime.array.dyn.HolesObjectArray;
+import com.oracle.truffle.js.runtime.builtins.JSAbstractArray;
+import com.oracle.truffle.js.runtime.builtins.JSArray;
+import com.oracle.truffle.js.runtime.objects.JSObject;
+import com.oracle.truffle.js.runtime.objects.Undefined;
+
+public class SparseArrayStoreTest {
+
+    private static void assertSameContents(TreeMap<Long, Object> expected, SparseArrayStore store) {
+        assertEquals(expected.size(), store.size());
+        assertEquals(expected.isEmpty(), store.isEmpty());
+        assertEquals(expected.isEmpty() ? -1 : expected.firstKey(), store.firstKey());
+        assertEquals(expected.isEmpty() ? -1 : expected.lastKey(), store.lastKey());
+        // walk forwards and backwards through the keys
+        long index = -1;
+        for (Map.Entry<Long, Object> entry : expected.entrySet()) {
+            index = store.higherKey(index);
+            assertEquals(entry.getKey().longValue(), index);
+            assertEquals(entry.getValue(), store.get(index));
+        }
+        assertEquals(-1, store.higherKey(index));
+        index = Long.MAX_VALUE;
+        for (Long key : expected.descendingKeySet()) {
+            index = store.lowerKey(index);
+            assertEquals(key.longValue(), index);
+        }
+        assertEquals(-1, store.lowerKey(index));
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        SparseArrayStore store = new SparseArrayStore();
+        assertTrue(store.isEmpty());
+        assertNull(store.get(0));
+        assertNull(store.get(-1));
+        assertNull(store.put(63, "a"));
+        assertNull(store.put(64, "b"));
+        assertNull(store.put(0, "c"));
+        assertNull(store.put(4294967294L, "d"));
+        assertEquals("a", store.put(63, "A"));
+        assertEquals(4, store.size());
+        assertEquals("A", store.get(63));
+        assertTrue(store.containsKey(64));
+        assertFalse(store.containsKey(65));
+        assertFalse(store.containsKey(-1));
+        assertEquals(0, store.firstKey());
+        assertEquals(4294967294L, store.lastKey());
+        assertEquals(4294967294L, store.higherKey(64));
+        assertEquals(64, store.lowerKey(4294967294L));
+
+        assertEquals("b", store.remove(64));
+        assertNull(store.remove(64));
+        assertNull(store.remove(-1));
+        assertEquals(3, store.size());
+        assertEquals(4294967294L, store.higherKey(63));
+    }
+
+    @Test
+    public void testRemoveFrom() {
+        long[] cuts = {-1, 0, 1, 63, 64, 65, 100, 127, 128, 129, 1000, 5000};
+        for (long cut : cuts) {
+            TreeMap<Long, Object> expected = new TreeMap<>();
+            SparseArrayStore store = new SparseArrayStore();
+            for (long i = 0; i < 200; i += 3) {
+                expected.put(i, i);
+                store.put(i, i);
+            }
+            expected.put(1000L, 1000L);
+            store.put(1000, 1000L);
+
+            store.removeFrom(cut);
+            expected.tailMap(Math.max(0, cut), true).clear();
+            assertSameContents(expected, store);
+
+            // the store stays usable after truncation
+            store.put(150, "x");
+            expected.put(150L, "x");
+            assertSameContents(expected, store);
+        }
+    }
+
+    @Test
+    public void testCopyTo() {
+        SparseArrayStore store = new SparseArrayStore();
+        for (long i = 100; i < 300; i += 2) {
+            store.put(i, i);
+        }
+        Object[] array = new Object[199];
+        store.copyTo(array, 100);
+        for (int i = 0; i < array.length; i++) {
+            assertEquals(i % 2 == 0 ? Long.valueOf(i + 100) : null, array[i]);
+        }
+    }
+
+    @Test
+    public void testRandomOperations() {
+        Random random = new Random(42);
+        TreeMap<Long, Object> expected = new TreeMap<>();
+        SparseArrayStore store = new SparseArrayStore();
+        for (int step = 0; step < 20000; step++) {
+            // mostly clustered indices, with some far away
+            long index = random.nextInt(10) == 0 ? random.nextLong() & 0xFFFFFFFFL : random.nextInt(2000);
+            int op = random.nextInt(100);
+            if (op < 60) {
+                assertEquals(expected.put(index, step), store.put(index, step));
+            } else if (op < 95) {
+                assertEquals(expected.remove(index), store.remove(index));
+            } else if (op < 96) {
+                store.removeFrom(index);
+                expected.tailMap(index, true).clear();
+            } else {
+                assertEquals(expected.get(index), store.get(index));
+                Long higher = expected.higherKey(index);
+                assertEquals(higher == null ? -1 : higher, store.higherKey(index));
+                Long lower = expected.lowerKey(index);
+                assertEquals(lower == null ? -1 : lower, store.lowerKey(index));
+            }
+            assertEquals(expected.size(), store.size());
+        }
+        assertSameContents(expected, store);
+    }
+
+    @Test
+    public void testDensifyAndTruncate() {
+        JSContext context = JSEngine.createJSContext();
+        long length = 1000000;
+        DynamicObject array = JSArray.create(context, SparseArray.createSparseArray(), SparseArray.createArrayMap(), length);
+        // fill a contiguous run far from index 0; the array becomes dense once the run is long
+        // enough
+        for (int i = 0; i < 63; i++) {
+            JSObject.set(array, 5000 + i, i);
+        }
+        assertTrue(JSAbstractArray.arrayGetArrayType(array) instanceof SparseArray);
+        JSObject.set(array, 5063, 63);
+        assertTrue(JSAbstractArray.arrayGetArrayType(array) instanceof HolesObjectArray);
+        assertEquals(length, JSAbstractArray.arrayGetLength(array));
+        for (int i = 0; i < 64; i++) {
+            assertEquals(i, JSObject.get(array, 5000 + i));
+        }
+        assertEquals(Undefined.instance, JSObject.get(array, 4999));
+        assertEquals(Undefined.instance, JSObject.get(array, 5064));
+
+        DynamicObject sparse = JSArray.create(context, SparseArray.createSparseArray(), SparseArray.createArrayMap(), length);
+        JSObject.set(sparse, 10, "a");
+        JSObject.set(sparse, 500000, "b");
+        JSObject.set(sparse, "length", 100000);
+        assertTrue(JSAbstractArray.arrayGetArrayType(sparse) instanceof SparseArray);
+        assertEquals(100000L, JSAbstractArray.arrayGetLength(sparse));
+        assertEquals("a", JSObject.get(sparse, 10));
+        assertEquals(Undefined.instance, JSObject.get(sparse, 500000));
+    }
+}
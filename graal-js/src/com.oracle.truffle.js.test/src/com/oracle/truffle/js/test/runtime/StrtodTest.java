@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+
+import org.junit.Test;
+
+import com.oracle.truffle.js.runtime.JSRuntime;
+import com.oracle.truffle.js.runtime.doubleconv.DoubleConversion;
+
+public class StrtodTest {
+
+    private static void assertParsed(double expected, String str) {
+        assertParsed(expected, str, 0, str.length());
+    }
+
+    private static void assertParsed(double expected, String str, int start, int end) {
+        double actual = DoubleConversion.stringToDouble(str, start, end);
+        assertEquals(str, Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(actual));
+    }
+
+    private static void assertNaN(String str) {
+        assertTrue(str, Double.isNaN(DoubleConversion.stringToDouble(str, 0, str.length())));
+    }
+
+    private static void assertToNumber(double expected, String str) {
+        double actual = JSRuntime.stringToNumber(str).doubleValue();
+        assertEquals(str, Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(actual));
+    }
+
+    private static String repeat(char c, int count) {
+        StringBuilder sb = new StringBuilder(count);
+        for (int i = 0; i < count; i++) {
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Exact decimal representation of the value halfway between {@code value} and the next larger
+     * double.
+     */
+    private static String halfwayAbove(double value) {
+        BigDecimal low = new BigDecimal(value);
+        BigDecimal high = new BigDecimal(Math.nextUp(value));
+        return low.add(high).divide(BigDecimal.valueOf(2)).toString();
+    }
+
+    @Test
+    public void testSimple() {
+        assertParsed(0, "0");
+        assertParsed(1, "1");
+        assertParsed(123.456, "123.456");
+        assertParsed(-123.456, "-123.456");
+        assertParsed(123.456, "+123.456");
+        assertParsed(1.5e300, "1.5e300");
+        assertParsed(1.5e-300, "1.5E-300");
+        assertParsed(1e22, "1e+22");
+        assertParsed(0.1, "0.1");
+        assertParsed(1.5, "x1.5y", 1, 4);
+    }
+
+    @Test
+    public void testSyntax() {
+        assertParsed(-0.0, "-0");
+        assertParsed(-0.0, "-0.0e5");
+        assertParsed(1, "1.");
+        assertParsed(0.5, ".5");
+        assertParsed(-0.5, "-.5");
+        assertParsed(100, "1.e2");
+        assertNaN("");
+        assertNaN(".");
+        assertNaN("-");
+        assertNaN("1e");
+        assertNaN("1e+");
+        assertNaN("e5");
+        assertNaN(".e5");
+        assertNaN("1.2.3");
+        assertNaN("1d");
+        assertNaN("1f");
+        assertNaN(" 1");
+        assertNaN("0x10");
+    }
+
+    @Test
+    public void testRoundHalfToEven() {
+        // 2^53 + 1 lies halfway between 2^53 and 2^53 + 2
+        assertParsed(9007199254740992.0, "9007199254740993");
+        // 2^53 + 3 lies halfway between 2^53 + 2 and 2^53 + 4
+        assertParsed(9007199254740996.0, "9007199254740995");
+        assertParsed(9007199254740994.0, "9007199254740993.0000000000000000001");
+        assertParsed(9007199254740992.0, "9007199254740992.9999999999999999999");
+
+        String half = halfwayAbove(1.0);
+        assertParsed(1.0, half);
+        assertParsed(Math.nextUp(1.0), half + "1");
+        assertParsed(Math.nextUp(Math.nextUp(1.0)), halfwayAbove(Math.nextUp(1.0)));
+
+        assertParsed(Double.MAX_VALUE, "1.7976931348623157e308");
+        assertParsed(Double.MAX_VALUE, "1.7976931348623158e308");
+        assertParsed(Double.POSITIVE_INFINITY, "1.7976931348623159e308");
+    }
+
+    @Test
+    public void testDenormals() {
+        assertParsed(0, "2.4703282292062327e-324");
+        assertParsed(Double.MIN_VALUE, "2.4703282292062328e-324");
+        assertParsed(Double.MIN_VALUE, "4.9406564584124654e-324");
+        assertParsed(2 * Double.MIN_VALUE, "9.8813129168249309e-324");
+        assertParsed(Double.MIN_NORMAL, "2.2250738585072014e-308");
+        assertParsed(Math.nextDown(Double.MIN_NORMAL), "2.2250738585072009e-308");
+        assertParsed(2.225073858507201e-308, "2.2250738585072011e-308");
+        assertParsed(Double.MIN_NORMAL, "2.2250738585072012e-308");
+
+        // exactly half of the smallest denormal rounds to even, i.e. to zero
+        String half = new BigDecimal(Double.MIN_VALUE).divide(BigDecimal.valueOf(2)).toString();
+        assertParsed(0, half);
+        assertParsed(-0.0, "-" + half);
+        assertParsed(Double.MIN_VALUE, half.replace("E", "1E"));
+    }
+
+    @Test
+    public void testManyDigits() {
+        assertParsed(1.2345678901234568e29, "123456789012345678901234567890");
+        assertParsed(1.2345678901234568e-1, "0.123456789012345678901234567890");
+        assertParsed(18446744073709551616.0, "18446744073709551616");
+        assertParsed(18446744073709551616.0, "18446744073709551615");
+        assertParsed(1e-5, "0.0000100000000000000000000000000000000000000");
+        assertParsed(1e23, "100000000000000000000000");
+
+        // beyond 780 significant digits, the tail only matters as far as it is not all zeros
+        String half = halfwayAbove(1.0);
+        assertTrue(half.length() < 780);
+        assertParsed(1.0, half + repeat('0', 800));
+        assertParsed(Math.nextUp(1.0), half + repeat('0', 800) + "1");
+        assertParsed(1.0, repeat('0', 1000) + half + repeat('0', 1000));
+        assertParsed(Double.POSITIVE_INFINITY, "1" + repeat('0', 400));
+        assertParsed(1e300, "1" + repeat('0', 900) + "e-600");
+        assertParsed(1.0 / 3, "0." + repeat('3', 1000));
+    }
+
+    @Test
+    public void testExponentOverflow() {
+        assertParsed(Double.POSITIVE_INFINITY, "1e400");
+        assertParsed(Double.NEGATIVE_INFINITY, "-1e400");
+        assertParsed(0, "1e-400");
+        assertParsed(-0.0, "-1e-400");
+        assertParsed(Double.POSITIVE_INFINITY, "1e99999999999999999999");
+        assertParsed(0, "1e-99999999999999999999");
+        assertParsed(0, "0e99999999999999999999");
+        assertParsed(1e306, "0.0001e310");
+        assertParsed(1e-306, "10000e-310");
+    }
+
+    @Test
+    public void testStringToNumber() {
+        assertToNumber(Double.NaN, "1d");
+        assertToNumber(Double.NaN, "1f");
+        assertToNumber(Double.NaN, "1.5D");
+        assertToNumber(Double.NaN, "1e");
+        assertToNumber(Double.POSITIVE_INFINITY, "1e1000");
+        assertToNumber(Double.NEGATIVE_INFINITY, "-1e1000");
+        assertToNumber(0, "1e-1000");
+        assertToNumber(-0.0, "-1e-1000");
+        assertToNumber(Double.POSITIVE_INFINITY, "1e99999999999");
+        assertToNumber(-0.0, "-0");
+        assertToNumber(12.5, " 12.5 ");
+        assertToNumber(1500, "1.5e3");
+        assertToNumber(0.5, ".5");
+        assertToNumber(1, "1.");
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.ref.WeakReference;
+
+import org.junit.Test;
+
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.js.parser.JSEngine;
+import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.builtins.JSUserObject;
+import com.oracle.truffle.js.runtime.objects.JSObject;
+import com.oracle.truffle.js.runtime.util.WeakMap;
+
+public class WeakMapTest {
+
+    private final JSContext context = JSEngine.createJSContext();
+
+    private static void collect(WeakReference<?> ref) {
+        for (int i = 0; i < 20 && ref.get() != null; i++) {
+            System.gc();
+        }
+    }
+
+    @Test
+    public void putGetRemove() {
+        WeakMap map = new WeakMap();
+        DynamicObject key = JSUserObject.create(context);
+        DynamicObject value = JSUserObject.create(context);
+
+        assertNull(map.put(key, 42));
+        assertEquals(42, map.get(key));
+        assertEquals(42, map.put(key, value));
+        assertSame(value, map.get(key));
+        assertSame(value, map.put(key, "str"));
+        assertEquals("str", map.get(key));
+        assertEquals("str", map.remove(key));
+        assertFalse(map.containsKey(key));
+        assertNull(map.get(key));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void primitiveValueKeepsKeyShape() {
+        WeakMap map = new WeakMap();
+        DynamicObject key = JSUserObject.create(context);
+        Shape shape = key.getShape();
+        map.put(key, 1.5);
+        assertSame(shape, key.getShape());
+    }
+
+    @Test
+    public void objectValueKeepsKeyShape() {
+        WeakMap map = new WeakMap();
+        DynamicObject key = JSUserObject.create(context);
+        Shape shape = key.getShape();
+        map.put(key, JSUserObject.create(context));
+        assertSame(shape, key.getShape());
+        map.put(key, 1);
+        map.put(key, JSUserObject.create(context));
+        map.remove(key);
+        assertSame(shape, key.getShape());
+    }
+
+    @Test
+    public void nonExtensibleKey() {
+        WeakMap map = new WeakMap();
+        DynamicObject key = JSUserObject.create(context);
+        DynamicObject value = JSUserObject.create(context);
+        JSObject.preventExtensions(key);
+        map.put(key, value);
+        assertSame(value, map.get(key));
+        assertFalse(JSObject.isExtensible(key));
+    }
+
+    @Test
+    public void valueAliveWhileKeyAlive() {
+        WeakMap map = new WeakMap();
+        DynamicObject key = JSUserObject.create(context);
+        map.put(key, JSUserObject.create(context));
+        WeakReference<Object> valueRef = new WeakReference<>(map.get(key));
+        collect(valueRef);
+        assertSame(valueRef.get(), map.get(key));
+        assertTrue(map.containsKey(key));
+    }
+
+    @Test
+    public void collectedKeyReleasesValue() {
+        WeakMap map = new WeakMap();
+        DynamicObject key = JSUserObject.create(context);
+        map.put(key, JSUserObject.create(context));
+        WeakReference<DynamicObject> keyRef = new WeakReference<>(key);
+        WeakReference<Object> valueRef = new WeakReference<>(map.get(key));
+        key = null;
+
+        collect(keyRef);
+        assertNull(keyRef.get());
+        assertEquals(0, map.size());
+        collect(valueRef);
+        assertNull(valueRef.get());
+    }
+
+    @Test
+    public void keyValueCycleIsCollectedWithMap() {
+        WeakMap map = new WeakMap();
+        DynamicObject key = JSUserObject.create(context);
+        DynamicObject value = JSUserObject.create(context);
+        JSObject.set(value, "key", key);
+        map.put(key, value);
+        WeakReference<DynamicObject> keyRef = new WeakReference<>(key);
+        WeakReference<DynamicObject> valueRef = new WeakReference<>(value);
+        key = null;
+        value = null;
+        map = null;
+
+        collect(keyRef);
+        collect(valueRef);
+        assertNull(keyRef.get());
+        assertNull(valueRef.get());
+    }
+
+    @Test
+    public void clearReleasesValues() {
+        WeakMap map = new WeakMap();
+        DynamicObject key = JSUserObject.create(context);
+        map.put(key, JSUserObject.create(context));
+        WeakReference<Object> valueRef = new WeakReference<>(map.get(key));
+        map.clear();
+        collect(valueRef);
+        assertNull(valueRef.get());
+        assertNull(map.get(key));
+    }
+}
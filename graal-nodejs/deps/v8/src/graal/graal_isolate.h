@@ -164,6 +164,7 @@ enum GraalAccessMethod {
     isolate_internal_error_check,
     isolate_throw_stack_overflow_error,
     isolate_get_heap_statistics,
+    isolate_get_heap_space_statistics,
     isolate_terminate_execution,
     isolate_cancel_terminate_execution,
     isolate_get_int_placeholder,
@@ -464,11 +464,13 @@ namespace v8 {
         graal_isolate->ResetSharedBuffer();
         JNI_CALL_VOID(this, GraalAccessMethod::isolate_get_heap_statistics);
         heap_statistics->total_heap_size_ = graal_isolate->ReadInt64FromSharedBuffer();
-        heap_statistics->total_heap_size_executable_ = 0;
-        heap_statistics->total_physical_size_ = 0;
+        heap_statistics->total_heap_size_executable_ = graal_isolate->ReadInt64FromSharedBuffer();
+        heap_statistics->total_physical_size_ = graal_isolate->ReadInt64FromSharedBuffer();
         heap_statistics->total_available_size_ = graal_isolate->ReadInt64FromSharedBuffer();
         heap_statistics->used_heap_size_ = graal_isolate->ReadInt64FromSharedBuffer();
-        heap_statistics->heap_size_limit_ = 0;
+        heap_statistics->heap_size_limit_ = graal_isolate->ReadInt64FromSharedBuffer();
+        heap_statistics->malloced_memory_ = graal_isolate->ReadInt64FromSharedBuffer();
+        heap_statistics->peak_malloced_memory_ = graal_isolate->ReadInt64FromSharedBuffer();
         heap_statistics->does_zap_garbage_ = false;
     }
 
@@ -1982,11 +1984,14 @@ namespace v8 {
             "map_space",
             "large_object_space"
         };
+        GraalIsolate* graal_isolate = reinterpret_cast<GraalIsolate*> (this);
+        graal_isolate->ResetSharedBuffer();
+        JNI_CALL_VOID(this, GraalAccessMethod::isolate_get_heap_space_statistics, (jint) index);
         space_statistics->space_name_ = names[index];
-        space_statistics->space_size_ = 0;
-        space_statistics->space_used_size_ = 0;
-        space_statistics->space_available_size_ = 0;
-        space_statistics->physical_space_size_ = 0;
+        space_statistics->space_size_ = graal_isolate->ReadInt64FromSharedBuffer();
+        space_statistics->space_used_size_ = graal_isolate->ReadInt64FromSharedBuffer();
+        space_statistics->space_available_size_ = graal_isolate->ReadInt64FromSharedBuffer();
+        space_statistics->physical_space_size_ = graal_isolate->ReadInt64FromSharedBuffer();
         return true;
     }
 
@@ -41,15 +41,72 @@
 
 // When NIO buffers are enabled, GraalJSAccess ensures that this module is loaded with the builtins constructor as extra argument.
 const NIOBufferPrototypeAllocator = arguments.length === 5 ? arguments[4] : undefined;
+let nioJSONParse;
+let nioJSONSink;
+// Captured before user code runs, the sink must not be passed to a replaced JSON.stringify.
+const JSONStringify = JSON.stringify;
 
 function patchBufferPrototype(proto) {
 	if (NIOBufferPrototypeAllocator) {
 		const bufferBuiltin = NIOBufferPrototypeAllocator(proto.utf8Write, proto.utf8Slice);
 		proto.utf8Write = bufferBuiltin.utf8Write;
 		proto.utf8Slice = bufferBuiltin.utf8Slice;
+		nioJSONParse = bufferBuiltin.jsonParse;
+		nioJSONSink = bufferBuiltin.jsonSink;
 	}
 }
 
+// Parses the UTF-8 encoded JSON text in a buffer, ignoring a leading byte order mark.
+// With NIO buffers the bytes are parsed directly, without decoding them into a string first.
+function parseJSON(buf) {
+	if (buf.length >= 3 && buf[0] === 0xEF && buf[1] === 0xBB && buf[2] === 0xBF) {
+		buf = buf.subarray(3);
+	}
+	if (nioJSONParse) {
+		return nioJSONParse.call(buf);
+	}
+	return JSON.parse(buf.utf8Slice(0, buf.length));
+}
+
+// Serializes a value to UTF-8 encoded JSON text that is written into a chain of buffers, starting
+// with the given buffer. Once a buffer is full, and when the text is complete, onChunk(buffer, length)
+// is called. It returns the buffer for the next chunk: the same buffer once its contents have been
+// consumed, or a new one. With NIO buffers the chunks are written while the value is serialized,
+// without building a string, so the serializer never runs ahead of the consumer by more than one buffer.
+// Returns the number of bytes written, or undefined if the value cannot be serialized.
+function stringifyJSON(value, replacer, space, buffer, onChunk) {
+	if (nioJSONSink) {
+		return JSONStringify(value, replacer, space, nioJSONSink(buffer, onChunk));
+	}
+	if (!ArrayBuffer.isView(buffer)) {
+		throw new TypeError('"buffer" argument must be a Buffer or Uint8Array');
+	}
+	if (typeof onChunk !== 'function') {
+		throw new TypeError('"onChunk" argument must be a function');
+	}
+	const json = JSONStringify(value, replacer, space);
+	if (json === undefined) {
+		return undefined;
+	}
+	const { Buffer } = require('buffer');
+	const bytes = Buffer.from(json, 'utf8');
+	let offset = 0;
+	while (offset < bytes.length) {
+		if (!ArrayBuffer.isView(buffer)) {
+			throw new TypeError('onChunk must return a Buffer or Uint8Array');
+		}
+		if (buffer.byteLength === 0) {
+			throw new RangeError('Buffer must not be empty');
+		}
+		const length = bytes.copy(buffer, 0, offset);
+		offset += length;
+		buffer = onChunk(buffer, length);
+	}
+	return bytes.length;
+}
+
 module.exports = {
-	install: patchBufferPrototype
+	install: patchBufferPrototype,
+	parseJSON: parseJSON,
+	stringifyJSON: stringifyJSON
 }
\ No newline at end of file
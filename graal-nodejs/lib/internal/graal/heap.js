@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+// GraalJSAccess loads this module with a function returning
+// [gcCount, gcTime, pooledAllocations, unpooledAllocations, poolUsedBytes, poolRetainedBytes]
+// as extra argument.
+const heapStatisticsImpl = arguments.length === 5 ? arguments[4] : undefined;
+
+function heapStatistics() {
+	return heapStatisticsImpl ? heapStatisticsImpl() : [0, 0, 0, 0, 0, 0];
+}
+
+// Garbage collection statistics of the JVM; V8's heap statistics have no fields for them.
+function getGCStatistics() {
+	const statistics = heapStatistics();
+	return {
+		'total_gc_count': statistics[0],
+		'total_gc_time': statistics[1]
+	};
+}
+
+// Statistics of the pool that serves small ArrayBuffers allocated by the Java side.
+function getBufferPoolStatistics() {
+	const statistics = heapStatistics();
+	return {
+		'pooled_allocations': statistics[2],
+		'unpooled_allocations': statistics[3],
+		'used_size': statistics[4],
+		'retained_size': statistics[5]
+	};
+}
+
+module.exports = {
+	getGCStatistics: getGCStatistics,
+	getBufferPoolStatistics: getBufferPoolStatistics
+}
@@ -29,6 +29,7 @@ const vm = require('vm');
 const assert = require('assert').ok;
 const fs = require('fs');
 const internalFS = require('internal/fs');
+const graalBuffer = require('internal/graal/buffer');
 const path = require('path');
 const {
   internalModuleReadFile,
@@ -666,9 +667,9 @@ Module._extensions['.js'] = function(module, filename) {
 
 // Native extension for .json
 Module._extensions['.json'] = function(module, filename) {
-  var content = fs.readFileSync(filename, 'utf8');
+  var content = fs.readFileSync(filename);
   try {
-    module.exports = JSON.parse(internalModule.stripBOM(content));
+    module.exports = graalBuffer.parseJSON(content);
   } catch (err) {
     err.message = filename + ': ' + err.message;
     throw err;
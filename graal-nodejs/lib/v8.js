@@ -22,6 +22,8 @@ const {
 const { copy } = process.binding('buffer');
 const { objectToString } = require('internal/util');
 const { FastBuffer } = require('internal/buffer');
+const { getGCStatistics, getBufferPoolStatistics } = require('internal/graal/heap');
+const { stringifyJSON } = require('internal/graal/buffer');
 
 // Calling exposed c++ functions directly throws exception as it expected to be
 // called with new operator and caused an assert to fire.
@@ -210,6 +212,9 @@ module.exports = exports = {
   cachedDataVersionTag,
   getHeapStatistics,
   getHeapSpaceStatistics,
+  getGCStatistics,
+  getBufferPoolStatistics,
+  stringifyJSON,
   setFlagsFromString,
   Serializer,
   Deserializer,
@@ -95,6 +95,7 @@
       'lib/internal/freelist.js',
       'lib/internal/fs.js',
       'lib/internal/graal/buffer.js',
+      'lib/internal/graal/heap.js',
       'lib/internal/http.js',
       'lib/internal/inspector_async_hook.js',
       'lib/internal/linkedlist.js',
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+var assert = require('assert');
+var async_hooks = require('async_hooks');
+
+// Records the order in which an async function resumes from await relative to
+// a chain of promise reactions that is started right after the call.
+function awaitOrder(awaited) {
+    var log = [];
+    var p = Promise.resolve();
+    async function f() {
+        log.push('f1');
+        await awaited;
+        log.push('f2');
+    }
+    f();
+    return p.then(function () {
+        log.push('t1');
+    }).then(function () {
+        log.push('t2');
+    }).then(function () {
+        log.push('t3');
+        return log;
+    });
+}
+
+function withPromiseHook(action) {
+    var hook = async_hooks.createHook({init: function () {}}).enable();
+    return action().then(function (result) {
+        hook.disable();
+        return result;
+    }, function (err) {
+        hook.disable();
+        throw err;
+    });
+}
+
+describe('Await', function () {
+    it('should resume one tick after a native promise', function () {
+        return awaitOrder(Promise.resolve(42)).then(function (log) {
+            assert.deepStrictEqual(log, ['f1', 'f2', 't1', 't2', 't3']);
+        });
+    });
+    it('should resume one tick after a primitive value', function () {
+        return awaitOrder(42).then(function (log) {
+            assert.deepStrictEqual(log, ['f1', 'f2', 't1', 't2', 't3']);
+        });
+    });
+    it('should resume one tick after a native promise with a promise hook', function () {
+        return withPromiseHook(function () {
+            return awaitOrder(Promise.resolve(42));
+        }).then(function (log) {
+            assert.deepStrictEqual(log, ['f1', 'f2', 't1', 't2', 't3']);
+        });
+    });
+    it('should resume one tick after a primitive value with a promise hook', function () {
+        return withPromiseHook(function () {
+            return awaitOrder(42);
+        }).then(function (log) {
+            assert.deepStrictEqual(log, ['f1', 'f2', 't1', 't2', 't3']);
+        });
+    });
+    it('should resume after a thenable job with a promise hook', function () {
+        var thenable = {
+            then: function (resolve) {
+                resolve(42);
+            }
+        };
+        return Promise.all([awaitOrder(thenable), withPromiseHook(function () {
+            return awaitOrder(thenable);
+        })]).then(function (logs) {
+            assert.deepStrictEqual(logs[0], ['f1', 't1', 'f2', 't2', 't3']);
+            assert.deepStrictEqual(logs[1], logs[0]);
+        });
+    });
+});
@@ -90,6 +90,23 @@ describe('Buffer.utf8Write', function() {
     it('should deal with utf8 inputs #2', function() {
         assert.strictEqual(new Buffer(10).utf8Write('½½½'), 6);
     });
+    it('should encode characters of all lengths', function() {
+        var buffer = new Buffer(10);
+        assert.strictEqual(buffer.utf8Write('a\u00e9\u20ac\ud83d\ude00'), 10);
+        assert.deepStrictEqual(Array.from(buffer), [0x61, 0xc3, 0xa9, 0xe2, 0x82, 0xac, 0xf0, 0x9f, 0x98, 0x80]);
+    });
+    it('should not split characters at the end of the range', function() {
+        assert.strictEqual(new Buffer(10).utf8Write('\u20ac\u20ac', 0, 4), 3);
+        assert.strictEqual(new Buffer(10).utf8Write('\ud83d\ude00', 0, 3), 0);
+        assert.strictEqual(new Buffer(10).utf8Write('ab\u00e9', 0, 3), 2);
+    });
+    it('should replace lone surrogates', function() {
+        var buffer = new Buffer(10);
+        assert.strictEqual(buffer.utf8Write('a\ud800b'), 5);
+        assert.deepStrictEqual(Array.from(buffer.slice(0, 5)), [0x61, 0xef, 0xbf, 0xbd, 0x62]);
+        assert.strictEqual(buffer.utf8Write('\udc00\ud800'), 6);
+        assert.deepStrictEqual(Array.from(buffer.slice(0, 6)), [0xef, 0xbf, 0xbd, 0xef, 0xbf, 0xbd]);
+    });
     it('length is zero', function() {
         assert.strictEqual(new Buffer(0).utf8Write.length, 0);
     });
@@ -142,6 +159,22 @@ describe('Buffer.utf8Slice', function() {
             Buffer.prototype.utf8Slice.call(1)
         }, TypeError);
     });
+    it('should decode characters of all lengths', function() {
+        var buffer = Buffer.from([0x61, 0xc3, 0xa9, 0xe2, 0x82, 0xac, 0xf0, 0x9f, 0x98, 0x80]);
+        assert.strictEqual(buffer.utf8Slice(0, 10), 'a\u00e9\u20ac\ud83d\ude00');
+        assert.strictEqual(buffer.utf8Slice(1, 6), '\u00e9\u20ac');
+    });
+    it('should replace ill-formed sequences', function() {
+        assert.strictEqual(Buffer.from([0x61, 0xff, 0x62]).utf8Slice(), 'a\ufffdb');
+        assert.strictEqual(Buffer.from([0x61, 0xc3]).utf8Slice(), 'a\ufffd');
+        assert.strictEqual(Buffer.from([0x61, 0xc3, 0xa9]).utf8Slice(0, 2), 'a\ufffd');
+    });
+    it('should round-trip long mixed strings', function() {
+        var str = 'x'.repeat(100) + '\u00e9'.repeat(100) + '\ud83d\ude00';
+        var buffer = Buffer.from(str);
+        assert.strictEqual(buffer.length, 304);
+        assert.strictEqual(buffer.utf8Slice(), str);
+    });
     it('length is zero', function() {
         assert.strictEqual(new Buffer(0).utf8Slice.length, 0);
     });
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+var assert = require('assert');
+var v8 = require('v8');
+
+describe('v8.getGCStatistics', function () {
+    it('should report the GC count and time', function () {
+        var statistics = v8.getGCStatistics();
+        assert.deepStrictEqual(Object.keys(statistics).sort(), ['total_gc_count', 'total_gc_time']);
+        assert.strictEqual(typeof statistics.total_gc_count, 'number');
+        assert.strictEqual(typeof statistics.total_gc_time, 'number');
+        assert.ok(statistics.total_gc_count >= 0);
+        assert.ok(statistics.total_gc_time >= 0);
+    });
+    it('should not decrease', function () {
+        var before = v8.getGCStatistics();
+        var garbage = [];
+        for (var i = 0; i < 100000; i++) {
+            garbage.push({index: i});
+        }
+        garbage = null;
+        var after = v8.getGCStatistics();
+        assert.ok(after.total_gc_count >= before.total_gc_count);
+        assert.ok(after.total_gc_time >= before.total_gc_time);
+    });
+});
+
+describe('v8.getBufferPoolStatistics', function () {
+    it('should report allocations and sizes', function () {
+        var statistics = v8.getBufferPoolStatistics();
+        assert.deepStrictEqual(Object.keys(statistics).sort(), ['pooled_allocations', 'retained_size', 'unpooled_allocations', 'used_size']);
+        Object.keys(statistics).forEach(function (key) {
+            assert.strictEqual(typeof statistics[key], 'number');
+            assert.ok(statistics[key] >= 0);
+        });
+        assert.ok(statistics.used_size <= statistics.retained_size);
+    });
+});
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+var assert = require('assert');
+var v8 = require('v8');
+
+// Collects the chunks that v8.stringifyJSON passes to the callback; every chunk is copied,
+// the buffer is returned for the next chunk.
+function stringifyToChunks(value, replacer, space, size) {
+    var chunks = [];
+    var written = v8.stringifyJSON(value, replacer, space, Buffer.alloc(size), function (buffer, length) {
+        chunks.push(Buffer.from(buffer.subarray(0, length)));
+        return buffer;
+    });
+    return {written: written, chunks: chunks, bytes: Buffer.concat(chunks)};
+}
+
+describe('v8.stringifyJSON', function () {
+    it('should return the number of bytes written', function () {
+        var value = {a: [1, 'bé€😀'], c: {d: null}};
+        var expected = Buffer.from(JSON.stringify(value, null, 2));
+        var result = stringifyToChunks(value, null, 2, 1024);
+        assert.strictEqual(result.written, expected.length);
+        assert.strictEqual(result.chunks.length, 1);
+        assert.ok(result.bytes.equals(expected));
+    });
+    it('should return undefined for values that cannot be serialized', function () {
+        var result = stringifyToChunks(undefined, null, 0, 1024);
+        assert.strictEqual(result.written, undefined);
+        assert.strictEqual(result.chunks.length, 0);
+    });
+    it('should flush full chunks', function () {
+        var value = [];
+        for (var i = 0; i < 10000; i++) {
+            value.push({index: i, name: 'element' + i});
+        }
+        var expected = Buffer.from(JSON.stringify(value));
+        var result = stringifyToChunks(value, null, 0, 4096);
+        assert.strictEqual(result.written, expected.length);
+        assert.strictEqual(result.chunks.length, Math.ceil(expected.length / 4096));
+        for (var j = 0; j < result.chunks.length - 1; j++) {
+            assert.strictEqual(result.chunks[j].length, 4096);
+        }
+        assert.ok(result.bytes.equals(expected));
+    });
+    it('should split surrogate pairs at the 16K boundary', function () {
+        // in the first value, the four bytes of the emoji are written at offsets 16382 to 16385
+        var values = [
+            ['x'.repeat(16380) + '😀', 'y'],
+            ['😀'.repeat(20000)],
+            Array.from({length: 3}, (_, i) => 'x'.repeat(16379 + i) + '😀'.repeat(3))
+        ];
+        values.forEach(function (value) {
+            var json = JSON.stringify(value);
+            var result = stringifyToChunks(value, null, 0, 16384);
+            assert.strictEqual(result.written, Buffer.byteLength(json));
+            assert.strictEqual(result.chunks[0].length, 16384);
+            assert.strictEqual(result.bytes.toString('utf8'), json);
+        });
+    });
+    it('should continue with the buffer returned by the callback', function () {
+        var value = {text: 'abc'.repeat(1000)};
+        var chain = [];
+        var written = v8.stringifyJSON(value, null, 0, Buffer.alloc(100), function (buffer, length) {
+            chain.push(buffer.subarray(0, length));
+            return Buffer.alloc(100);
+        });
+        assert.strictEqual(written, 3011);
+        assert.strictEqual(chain.length, 31);
+        assert.strictEqual(Buffer.concat(chain).toString(), JSON.stringify(value));
+    });
+    it('should apply the replacer and space', function () {
+        var value = {a: 1, b: 'two', c: [3]};
+        var replacer = function (key, v) {
+            return key === 'b' ? undefined : v;
+        };
+        var result = stringifyToChunks(value, replacer, '\t', 8);
+        assert.strictEqual(result.bytes.toString(), JSON.stringify(value, replacer, '\t'));
+        assert.strictEqual(result.written, result.bytes.length);
+    });
+    it('should require a buffer from the callback', function () {
+        assert.throws(() => {
+            v8.stringifyJSON('x'.repeat(100), null, 0, Buffer.alloc(10), function () {});
+        }, TypeError);
+    });
+    it('should propagate errors of the serialization', function () {
+        var cyclic = {};
+        cyclic.self = cyclic;
+        assert.throws(() => {
+            stringifyToChunks(cyclic, null, 0, 16);
+        }, TypeError);
+    });
+});
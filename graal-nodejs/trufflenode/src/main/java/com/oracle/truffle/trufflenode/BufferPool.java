@@ -0,0 +1,362 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.trufflenode;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.oracle.truffle.js.runtime.util.DirectByteBufferHelper;
+
+/**
+ * Pool of native memory for small {@code ArrayBuffer}s allocated by the Java side.
+ *
+ * Small buffers are carved out of larger direct slabs, one size class (power of two) per slab.
+ * Every slab belongs to the local pool of the thread that allocated it, and only that thread hands
+ * out its chunks, so allocation takes no locks. Collected buffers are detected via weak references
+ * in a queue that every allocating thread polls; a chunk whose slab belongs to another thread is
+ * passed to the owner through a lock-free queue. A slab that becomes completely free is released,
+ * except for {@link #MAX_EMPTY_SLABS} spare slabs per size class and thread. When a thread ends,
+ * the first thread to notice adopts its pool and releases the slabs as their buffers die.
+ */
+final class BufferPool {
+
+    private static final int MIN_SIZE_SHIFT = 4;
+    private static final int MAX_SIZE_SHIFT = 12;
+    /** Largest buffer (in bytes) served from the pool. */
+    static final int MAX_POOLED_SIZE = 1 << MAX_SIZE_SHIFT;
+    private static final int SLAB_SIZE = 64 * 1024;
+    /** Completely free slabs that a thread keeps per size class. */
+    private static final int MAX_EMPTY_SLABS = 1;
+    private static final byte[] ZEROS = new byte[MAX_POOLED_SIZE];
+
+    private final ThreadLocal<PoolHandle> localPool = ThreadLocal.withInitial(this::createLocalPool);
+    private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+    /** Keeps the references that detect the end of each pool's thread reachable. */
+    private final Set<ThreadEndReference> threadEndReferences = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder pooledAllocations = new LongAdder();
+    private final LongAdder unpooledAllocations = new LongAdder();
+    private final LongAdder usedBytes = new LongAdder();
+    private final AtomicLong retainedBytes = new AtomicLong();
+
+    BufferPool() {
+    }
+
+    private PoolHandle createLocalPool() {
+        PoolHandle handle = new PoolHandle(new LocalPool());
+        threadEndReferences.add(new ThreadEndReference(handle, queue));
+        return handle;
+    }
+
+    /**
+     * Allocates a zero-filled direct buffer of the given length in native byte order.
+     */
+    ByteBuffer allocate(int length) {
+        if (length == 0 || length > MAX_POOLED_SIZE) {
+            unpooledAllocations.increment();
+            return DirectByteBufferHelper.allocateDirect(length);
+        }
+        pooledAllocations.increment();
+        LocalPool pool = localPool.get().pool;
+        reclaim(pool);
+        Chunk chunk = pool.take(sizeClass(length));
+        usedBytes.add(chunk.slab.chunkSize);
+        return chunk.take(length, queue);
+    }
+
+    private static int sizeClass(int length) {
+        int shift = 32 - Integer.numberOfLeadingZeros(length - 1);
+        return Math.max(shift, MIN_SIZE_SHIFT) - MIN_SIZE_SHIFT;
+    }
+
+    /**
+     * Returns the chunks of collected buffers to the pools of their slabs and adopts the pools of
+     * ended threads.
+     */
+    private void reclaim(LocalPool pool) {
+        for (Object ref; (ref = queue.poll()) != null;) {
+            if (ref instanceof ChunkReference) {
+                Chunk chunk = ((ChunkReference) ref).chunk;
+                chunk.reference = null;
+                usedBytes.add(-chunk.slab.chunkSize);
+                LocalPool owner = chunk.slab.owner;
+                if (owner == pool) {
+                    pool.free(chunk);
+                } else {
+                    owner.returned.add(chunk);
+                }
+            } else {
+                ThreadEndReference threadEnd = (ThreadEndReference) ref;
+                threadEndReferences.remove(threadEnd);
+                LocalPool orphan = threadEnd.pool;
+                orphan.adopt();
+                pool.orphans.add(orphan);
+                // pools the ended thread had adopted itself
+                pool.orphans.addAll(orphan.orphans);
+                orphan.orphans.clear();
+            }
+        }
+        pool.freeReturned();
+        for (Iterator<LocalPool> iterator = pool.orphans.iterator(); iterator.hasNext();) {
+            LocalPool orphan = iterator.next();
+            orphan.freeReturned();
+            if (orphan.slabs.isEmpty()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Number of buffers served from the pool.
+     */
+    long getPooledAllocations() {
+        return pooledAllocations.sum();
+    }
+
+    /**
+     * Number of buffers too small or too large for the pool.
+     */
+    long getUnpooledAllocations() {
+        return unpooledAllocations.sum();
+    }
+
+    /**
+     * Native memory of the pool currently used by live buffers.
+     */
+    long getUsedBytes() {
+        return usedBytes.sum();
+    }
+
+    /**
+     * Native memory held by the slabs of the pool.
+     */
+    long getRetainedBytes() {
+        return retainedBytes.get();
+    }
+
+    @Override
+    public String toString() {
+        return "BufferPool [pooled=" + getPooledAllocations() + ", unpooled=" + getUnpooledAllocations() + ", used=" + getUsedBytes() + ", retained=" + getRetainedBytes() + "]";
+    }
+
+    /**
+     * Referenced only from the thread-local map of the pool's thread, so that it becomes weakly
+     * reachable when the thread ends.
+     */
+    private static final class PoolHandle {
+        final LocalPool pool;
+
+        PoolHandle(LocalPool pool) {
+            this.pool = pool;
+        }
+    }
+
+    private static final class ThreadEndReference extends WeakReference<PoolHandle> {
+        final LocalPool pool;
+
+        ThreadEndReference(PoolHandle handle, ReferenceQueue<Object> queue) {
+            super(handle, queue);
+            this.pool = handle.pool;
+        }
+    }
+
+    /**
+     * Slabs of one thread. Only accessed by that thread or, once the thread has ended, by the
+     * thread that adopted the pool; other threads only add to {@link #returned}.
+     */
+    private final class LocalPool {
+        /** Slabs with free chunks, per size class. */
+        @SuppressWarnings("unchecked") private final ArrayDeque<Slab>[] available = new ArrayDeque[MAX_SIZE_SHIFT - MIN_SIZE_SHIFT + 1];
+        /** Number of completely free slabs, per size class. */
+        private final int[] emptySlabs = new int[available.length];
+        /** All slabs of this pool; keeps the references of chunks in use reachable. */
+        final Set<Slab> slabs = new HashSet<>();
+        /** Chunks of this pool's slabs whose buffers were collected by another thread. */
+        final ConcurrentLinkedQueue<Chunk> returned = new ConcurrentLinkedQueue<>();
+        /** Pools of ended threads adopted by this pool. */
+        final List<LocalPool> orphans = new ArrayList<>();
+        /** Set when the thread has ended; the slabs are then released as soon as they are free. */
+        boolean orphaned;
+
+        LocalPool() {
+            for (int i = 0; i < available.length; i++) {
+                available[i] = new ArrayDeque<>();
+            }
+        }
+
+        Chunk take(int sizeClass) {
+            ArrayDeque<Slab> slabsWithFreeChunks = available[sizeClass];
+            Slab slab = slabsWithFreeChunks.peekFirst();
+            if (slab == null) {
+                slab = new Slab(this, sizeClass);
+                slabs.add(slab);
+                retainedBytes.addAndGet(SLAB_SIZE);
+                slabsWithFreeChunks.addFirst(slab);
+                emptySlabs[sizeClass]++;
+            }
+            if (slab.freeCount == slab.chunks.length) {
+                emptySlabs[sizeClass]--;
+            }
+            Chunk chunk = slab.chunks[slab.free[--slab.freeCount]];
+            if (slab.freeCount == 0) {
+                slabsWithFreeChunks.pollFirst();
+            }
+            return chunk;
+        }
+
+        void free(Chunk chunk) {
+            Slab slab = chunk.slab;
+            int sizeClass = slab.sizeClass;
+            if (slab.freeCount == 0) {
+                // partially used slabs are filled up first, so that empty ones can be released
+                available[sizeClass].addFirst(slab);
+            }
+            slab.free[slab.freeCount++] = chunk.index;
+            if (slab.freeCount == slab.chunks.length) {
+                if (orphaned || emptySlabs[sizeClass] >= MAX_EMPTY_SLABS) {
+                    available[sizeClass].remove(slab);
+                    slabs.remove(slab);
+                    retainedBytes.addAndGet(-SLAB_SIZE);
+                } else {
+                    emptySlabs[sizeClass]++;
+                }
+            }
+        }
+
+        /**
+         * Marks the pool as orphaned and releases its spare slabs.
+         */
+        void adopt() {
+            orphaned = true;
+            for (Iterator<Slab> iterator = slabs.iterator(); iterator.hasNext();) {
+                Slab slab = iterator.next();
+                if (slab.freeCount == slab.chunks.length) {
+                    available[slab.sizeClass].remove(slab);
+                    iterator.remove();
+                    retainedBytes.addAndGet(-SLAB_SIZE);
+                }
+            }
+        }
+
+        void freeReturned() {
+            for (Chunk chunk; (chunk = returned.poll()) != null;) {
+                free(chunk);
+            }
+        }
+    }
+
+    /**
+     * A slab of chunks of one size class.
+     */
+    private static final class Slab {
+        final LocalPool owner;
+        final ByteBuffer memory;
+        final int sizeClass;
+        final int chunkSize;
+        final Chunk[] chunks;
+        /** Indices of the free chunks; only accessed by the owner. */
+        final int[] free;
+        int freeCount;
+
+        Slab(LocalPool owner, int sizeClass) {
+            this.owner = owner;
+            this.memory = DirectByteBufferHelper.allocateDirect(SLAB_SIZE);
+            this.sizeClass = sizeClass;
+            this.chunkSize = 1 << (sizeClass + MIN_SIZE_SHIFT);
+            this.chunks = new Chunk[SLAB_SIZE / chunkSize];
+            this.free = new int[chunks.length];
+            for (int i = 0; i < chunks.length; i++) {
+                chunks[i] = new Chunk(this, i);
+                // hand out the chunks in address order
+                free[i] = chunks.length - 1 - i;
+            }
+            this.freeCount = chunks.length;
+        }
+    }
+
+    /**
+     * A fixed-size region of a slab.
+     */
+    private static final class Chunk {
+        final Slab slab;
+        final int index;
+        /** Reference to the buffer currently using this chunk; keeps the reference reachable. */
+        volatile ChunkReference reference;
+
+        Chunk(Slab slab, int index) {
+            this.slab = slab;
+            this.index = index;
+        }
+
+        ByteBuffer take(int length, ReferenceQueue<Object> queue) {
+            assert reference == null && length <= slab.chunkSize;
+            ByteBuffer duplicate = slab.memory.duplicate();
+            int offset = index * slab.chunkSize;
+            duplicate.limit(offset + length).position(offset);
+            ByteBuffer buffer = DirectByteBufferHelper.cast(duplicate.slice().order(slab.memory.order()));
+            // recycled memory must look freshly allocated
+            buffer.put(ZEROS, 0, length);
+            buffer.clear();
+            reference = new ChunkReference(buffer, this, queue);
+            return buffer;
+        }
+    }
+
+    private static final class ChunkReference extends WeakReference<ByteBuffer> {
+        final Chunk chunk;
+
+        ChunkReference(ByteBuffer buffer, Chunk chunk, ReferenceQueue<Object> queue) {
+            super(buffer, queue);
+            this.chunk = chunk;
+        }
+    }
+}
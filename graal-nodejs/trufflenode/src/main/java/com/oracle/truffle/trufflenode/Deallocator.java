@@ -46,9 +46,9 @@ import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
 import java.lang.reflect.Field;
 import java.nio.ByteBuffer;
-import java.util.Collections;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A class responsible for the deallocation of the external memory segments associated with Java
@@ -99,7 +99,11 @@ final class Deallocator {
      * Collection holding all the weak references to the buffers whose memory has not been
      * deallocated yet.
      */
-    private final Set<ReferenceWithPointer> enqueued = Collections.synchronizedSet(new HashSet<>());
+    private final Set<ReferenceWithPointer> enqueued = ConcurrentHashMap.newKeySet();
+    /**
+     * Size of the memory of the registered buffers that has not been deallocated yet.
+     */
+    private final AtomicLong externalBytes = new AtomicLong();
     /**
      * Determines whether the cleanup thread has been started.
      */
@@ -116,10 +120,13 @@ final class Deallocator {
      * @param pointer pointer to the memory that should be deallocated.
      */
     void register(ByteBuffer buffer, long pointer) {
+        int size = buffer.capacity();
+        externalBytes.addAndGet(size);
         if (buffer.getClass() == DIRECT_BYTE_BUFFER_CLASS) {
             try {
                 CLEANER_FIELD.set(buffer, sun.misc.Cleaner.create(buffer, () -> {
                     NativeAccess.deallocate(pointer);
+                    externalBytes.addAndGet(-size);
                 }));
             } catch (IllegalAccessException | IllegalArgumentException ex) {
                 ex.printStackTrace();
@@ -128,10 +135,17 @@ final class Deallocator {
             if (!cleanupThreadStarted) {
                 startCleanupThread();
             }
-            enqueued.add(new ReferenceWithPointer(buffer, pointer));
+            enqueued.add(new ReferenceWithPointer(buffer, pointer, size));
         }
     }
 
+    /**
+     * Returns the size of the memory of the registered buffers that has not been deallocated yet.
+     */
+    long getExternalBytes() {
+        return externalBytes.get();
+    }
+
     /**
      * Starts the cleanup thread (if it is not running already).
      */
@@ -168,14 +182,20 @@ final class Deallocator {
          * Pointer to the memory that should be deallocated.
          */
         private final long pointer;
+        /**
+         * Size of the memory that should be deallocated.
+         */
+        private final int size;
 
-        ReferenceWithPointer(ByteBuffer object, long pointer) {
+        ReferenceWithPointer(ByteBuffer object, long pointer, int size) {
             super(object, queue);
             this.pointer = pointer;
+            this.size = size;
         }
 
         void deallocate() {
             NativeAccess.deallocate(pointer);
+            externalBytes.addAndGet(-size);
         }
     }
 
@@ -207,6 +207,7 @@ public final class GraalJSAccess {
     private static final boolean VERBOSE = Boolean.getBoolean("truffle.node.js.verbose");
     private static final boolean USE_NIO_BUFFER = !"false".equals(System.getProperty("node.buffer.nio"));
     private static final boolean USE_SNAPSHOTS = !"false".equalsIgnoreCase(System.getProperty("truffle.node.js.snapshots"));
+    private static final String HEAP_MODULE_NAME = "internal/graal/heap.js";
 
     private static final HiddenKey PRIVATE_VALUES_KEY = new HiddenKey("PrivateValues");
     private static final HiddenKey FUNCTION_TEMPLATE_DATA_KEY = new HiddenKey("FunctionTemplateData");
@@ -228,6 +229,9 @@ public final class GraalJSAccess {
     private final JSContext mainJSContext;
     private JSRealm debugRealm;
     private final Deallocator deallocator;
+    private final BufferPool bufferPool;
+    private final HeapStatisticsCollector heapStatistics;
+    private long peakMallocedMemory;
     private ESModuleLoader moduleLoader;
 
     /** Env that can be used for accessing instruments when no context is active anymore. */
@@ -270,6 +274,7 @@ public final class GraalJSAccess {
         contextBuilder.option(JSContextOptions.DIRECT_BYTE_BUFFER_NAME, "true");
         contextBuilder.option(JSContextOptions.V8_COMPATIBILITY_MODE_NAME, "true");
         contextBuilder.option(JSContextOptions.INTL_402_NAME, "true");
+        contextBuilder.option(JSContextOptions.JSON_STRINGIFY_OUTPUT_NAME, "true");
         contextBuilder.option(GraalJSParserOptions.SYNTAX_EXTENSIONS_NAME, "false");
 
         exposeGC = options.isGCExposed();
@@ -280,6 +285,8 @@ public final class GraalJSAccess {
         GraalJSJavaInteropMainWorker worker = new GraalJSJavaInteropMainWorker(this, loopAddress);
         mainJSContext.initializeJavaInteropWorkers(worker, worker);
         deallocator = new Deallocator();
+        bufferPool = new BufferPool();
+        heapStatistics = new HeapStatisticsCollector();
         envForInstruments = mainJSRealm.getEnv();
 
         ensureErrorClassesInitialized();
@@ -894,7 +901,7 @@ public final class GraalJSAccess {
     }
 
     public Object arrayBufferNew(Object context, int byteLength) {
-        return JSArrayBuffer.createDirectArrayBuffer(((JSRealm) context).getContext(), byteLength);
+        return JSArrayBuffer.createDirectArrayBuffer(((JSRealm) context).getContext(), bufferPool.allocate(byteLength));
     }
 
     public Object arrayBufferGetContents(Object arrayBuffer) {
@@ -1475,15 +1482,41 @@ public final class GraalJSAccess {
         if (USE_NIO_BUFFER && NIO_BUFFER_MODULE_NAME.equals(moduleName)) {
             // NIO-based buffer APIs in internal/graal/buffer.js are initialized by passing one
             // extra argument to the module loading function.
-            Object[] extendedArgs = new Object[userArgs.length + 1];
-            System.arraycopy(userArgs, 0, extendedArgs, 0, userArgs.length);
-            extendedArgs[userArgs.length] = NIOBufferObject.createInitFunction(node);
-            return extendedArgs;
+            return appendArgument(userArgs, NIOBufferObject.createInitFunction(node));
+        } else if (HEAP_MODULE_NAME.equals(moduleName)) {
+            // internal/graal/heap.js reads the statistics that V8's heap statistics have no fields
+            // for through one extra argument
+            return appendArgument(userArgs, createHeapStatisticsFunction(node.getContext()));
         } else {
             return userArgs;
         }
     }
 
+    private static Object[] appendArgument(Object[] userArgs, Object argument) {
+        Object[] extendedArgs = new Object[userArgs.length + 1];
+        System.arraycopy(userArgs, 0, extendedArgs, 0, userArgs.length);
+        extendedArgs[userArgs.length] = argument;
+        return extendedArgs;
+    }
+
+    /**
+     * Creates a function returning
+     * {@code [gcCount, gcTime, pooledAllocations, unpooledAllocations, poolUsedBytes, poolRetainedBytes]};
+     * these are not part of V8's heap statistics.
+     */
+    private Object createHeapStatisticsFunction(JSContext context) {
+        JavaScriptRootNode statisticsNode = new JavaScriptRootNode() {
+            @TruffleBoundary
+            @Override
+            public Object execute(VirtualFrame frame) {
+                return JSArray.createConstantDoubleArray(context, new double[]{getGCCount(), getGCTime(), bufferPool.getPooledAllocations(), bufferPool.getUnpooledAllocations(),
+                                bufferPool.getUsedBytes(), bufferPool.getRetainedBytes()});
+            }
+        };
+        JSFunctionData functionData = JSFunctionData.createCallOnly(context, Truffle.getRuntime().createCallTarget(statisticsNode), 0, "getHeapStatistics");
+        return JSFunction.create(context.getRealm(), functionData);
+    }
+
     public Object scriptGetUnboundScript(Object script) {
         return new UnboundScript((Script) script);
     }
@@ -2095,14 +2128,43 @@ public final class GraalJSAccess {
     }
 
     public void isolateGetHeapStatistics() {
-        Runtime runtime = Runtime.getRuntime();
-        long total = runtime.totalMemory();
-        long free = runtime.freeMemory();
-        long max = runtime.maxMemory();
+        long[] heapUsage = heapStatistics.getHeapUsage();
+        long committed = heapUsage[0];
+        long used = heapUsage[1];
+        long limit = Runtime.getRuntime().maxMemory();
+        long malloced = bufferPool.getRetainedBytes() + deallocator.getExternalBytes();
+        peakMallocedMemory = Math.max(peakMallocedMemory, malloced);
         resetSharedBuffer();
-        sharedBuffer.putLong(total);
-        sharedBuffer.putLong(max);
-        sharedBuffer.putLong(total - free);
+        sharedBuffer.putLong(committed);
+        sharedBuffer.putLong(heapStatistics.getCodeSize());
+        sharedBuffer.putLong(committed);
+        sharedBuffer.putLong(Math.max(0, limit - used));
+        sharedBuffer.putLong(used);
+        sharedBuffer.putLong(limit);
+        sharedBuffer.putLong(malloced);
+        sharedBuffer.putLong(peakMallocedMemory);
+    }
+
+    public void isolateGetHeapSpaceStatistics(int space) {
+        long[] usage = heapStatistics.getHeapSpaceUsage(space);
+        resetSharedBuffer();
+        for (long value : usage) {
+            sharedBuffer.putLong(value);
+        }
+    }
+
+    /**
+     * Total number of garbage collections; not part of V8's heap statistics.
+     */
+    public long getGCCount() {
+        return heapStatistics.getGCCount();
+    }
+
+    /**
+     * Total time (in milliseconds) spent in garbage collection; not part of V8's heap statistics.
+     */
+    public long getGCTime() {
+        return heapStatistics.getGCTime();
     }
 
     private boolean terminateExecution;
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.trufflenode;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Heap statistics in terms of V8's heap model, collected from the memory pool and garbage
+ * collector MXBeans of the JVM.
+ *
+ * The JVM memory pools are mapped to V8 heap spaces by name: young generation pools to
+ * {@code new_space}, the remaining heap pools to {@code old_space}, the code cache to
+ * {@code code_space} and class metadata to {@code map_space}. The MXBeans are looked up once, so
+ * that polling the statistics is cheap.
+ */
+final class HeapStatisticsCollector {
+
+    static final String[] HEAP_SPACE_NAMES = {"new_space", "old_space", "code_space", "map_space", "large_object_space"};
+
+    private static final int NEW_SPACE = 0;
+    private static final int OLD_SPACE = 1;
+    private static final int CODE_SPACE = 2;
+    private static final int MAP_SPACE = 3;
+
+    private final List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+    @SuppressWarnings("unchecked") private final List<MemoryPoolMXBean>[] spacePools = new List[HEAP_SPACE_NAMES.length];
+    private final List<GarbageCollectorMXBean> collectors;
+
+    HeapStatisticsCollector() {
+        for (int i = 0; i < spacePools.length; i++) {
+            spacePools[i] = new ArrayList<>();
+        }
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                heapPools.add(pool);
+            }
+            int space = heapSpaceOf(pool);
+            if (space >= 0) {
+                spacePools[space].add(pool);
+            }
+        }
+        this.collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    }
+
+    private static int heapSpaceOf(MemoryPoolMXBean pool) {
+        String name = pool.getName();
+        if (pool.getType() == MemoryType.HEAP) {
+            if (name.contains("Eden") || name.contains("Survivor") || name.contains("Young") || name.contains("Nursery")) {
+                return NEW_SPACE;
+            }
+            return OLD_SPACE;
+        } else if (name.contains("Code")) {
+            return CODE_SPACE;
+        } else if (name.contains("Metaspace") || name.contains("Class Space")) {
+            return MAP_SPACE;
+        }
+        return -1;
+    }
+
+    /**
+     * Sum of the committed, used and maximum sizes of the given pools, in this order. The maximum
+     * is {@code -1} if undefined for any of the pools.
+     */
+    private static long[] sum(List<MemoryPoolMXBean> pools) {
+        long committed = 0;
+        long used = 0;
+        long max = 0;
+        for (MemoryPoolMXBean pool : pools) {
+            MemoryUsage usage = pool.getUsage();
+            if (usage == null) {
+                continue; // pool no longer valid
+            }
+            committed += usage.getCommitted();
+            used += usage.getUsed();
+            max = (max < 0 || usage.getMax() < 0) ? -1 : max + usage.getMax();
+        }
+        return new long[]{committed, used, max};
+    }
+
+    /**
+     * Committed, used and maximum size of the whole Java heap.
+     */
+    long[] getHeapUsage() {
+        return sum(heapPools);
+    }
+
+    /**
+     * Size, used size, available size and physical size of the given V8 heap space.
+     */
+    long[] getHeapSpaceUsage(int space) {
+        long[] usage = sum(spacePools[space]);
+        long committed = usage[0];
+        long used = usage[1];
+        long limit = usage[2] < 0 ? committed : usage[2];
+        return new long[]{committed, used, Math.max(0, limit - used), committed};
+    }
+
+    /**
+     * Committed size of the code cache.
+     */
+    long getCodeSize() {
+        return sum(spacePools[CODE_SPACE])[0];
+    }
+
+    /**
+     * Total number of collections performed by all garbage collectors.
+     */
+    long getGCCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+
+    /**
+     * Total time (in milliseconds) spent in garbage collection.
+     */
+    long getGCTime() {
+        long time = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            time += Math.max(0, collector.getCollectionTime());
+        }
+        return time;
+    }
+}
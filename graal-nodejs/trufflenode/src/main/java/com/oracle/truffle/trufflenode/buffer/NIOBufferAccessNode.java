@@ -40,10 +40,6 @@
  */
 package com.oracle.truffle.trufflenode.buffer;
 
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.nio.charset.Charset;
-
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.js.nodes.access.ArrayBufferViewGetByteLengthNode;
@@ -57,8 +53,6 @@ import com.oracle.truffle.js.runtime.builtins.JSArrayBufferView;
 
 public abstract class NIOBufferAccessNode extends JSBuiltinNode {
 
-    protected static final Charset utf8 = Charset.forName("UTF-8");
-
     @Child protected ArrayBufferViewGetByteLengthNode getLenNode;
 
     public NIOBufferAccessNode(JSContext context, JSBuiltin builtin) {
@@ -82,11 +76,6 @@ public abstract class NIOBufferAccessNode extends JSBuiltinNode {
         return getLenNode.executeInt(target);
     }
 
-    protected static ByteBuffer sliceBuffer(ByteBuffer rawBuffer, int byteOffset) {
-        ByteBuffer data = ((ByteBuffer) rawBuffer.duplicate().position(byteOffset)).slice().order(ByteOrder.nativeOrder());
-        return data;
-    }
-
     @TruffleBoundary
     protected static void outOfBoundsFail() {
         throw Errors.createRangeError("out of range index");
@@ -52,7 +52,9 @@ public final class NIOBufferBuiltins extends JSBuiltinsContainer.SwitchEnum<NIOB
 
     public enum Buffer implements BuiltinEnum<Buffer> {
         utf8Write(0),
-        utf8Slice(0);
+        utf8Slice(0),
+        jsonParse(0),
+        jsonSink(2);
 
         private final int length;
 
@@ -73,6 +75,10 @@ public final class NIOBufferBuiltins extends JSBuiltinsContainer.SwitchEnum<NIOB
                 return NIOBufferUTF8WriteNodeGen.create(context, builtin, args().withThis().fixedArgs(3).createArgumentNodes(context));
             case utf8Slice:
                 return NIOBufferUTF8SliceNodeGen.create(context, builtin, args().withThis().fixedArgs(2).createArgumentNodes(context));
+            case jsonParse:
+                return NIOBufferJSONParseNodeGen.create(context, builtin, args().withThis().createArgumentNodes(context));
+            case jsonSink:
+                return NIOBufferJSONSinkNodeGen.create(context, builtin, args().fixedArgs(2).createArgumentNodes(context));
         }
         return null;
     }
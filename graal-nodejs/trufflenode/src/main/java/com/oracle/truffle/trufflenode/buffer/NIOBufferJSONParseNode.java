@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.trufflenode.buffer;
+
+import java.nio.ByteBuffer;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.js.builtins.helper.TruffleJSONStreamParser;
+import com.oracle.truffle.js.nodes.function.JSBuiltin;
+import com.oracle.truffle.js.runtime.Errors;
+import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.builtins.JSArrayBuffer;
+
+/**
+ * Parses the UTF-8 encoded JSON text of a buffer without decoding it into a string first.
+ */
+public abstract class NIOBufferJSONParseNode extends NIOBufferAccessNode {
+
+    private TruffleJSONStreamParser parser;
+
+    public NIOBufferJSONParseNode(JSContext context, JSBuiltin builtin) {
+        super(context, builtin);
+    }
+
+    @Specialization(guards = {"accept(target)"})
+    public Object parse(DynamicObject target) {
+        DynamicObject arrayBuffer = getArrayBuffer(target);
+        ByteBuffer rawBuffer = JSArrayBuffer.getDirectByteBuffer(arrayBuffer);
+        return doParse(rawBuffer, getOffset(target), getLength(target));
+    }
+
+    @SuppressWarnings("unused")
+    @Specialization(guards = {"!isJSArrayBufferView(target)"})
+    public Object parseAbort(Object target) {
+        throw Errors.createTypeErrorArrayBufferViewExpected();
+    }
+
+    @TruffleBoundary(transferToInterpreterOnException = false)
+    private Object doParse(ByteBuffer rawBuffer, int byteOffset, int length) {
+        ByteBuffer utf8 = rawBuffer.duplicate();
+        utf8.limit(byteOffset + length);
+        utf8.position(byteOffset);
+        if (parser == null) {
+            parser = new TruffleJSONStreamParser(getContext());
+        }
+        return parser.parse(utf8);
+    }
+}
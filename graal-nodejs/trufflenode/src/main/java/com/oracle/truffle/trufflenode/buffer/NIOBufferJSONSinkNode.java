@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.trufflenode.buffer;
+
+import java.io.Flushable;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.interop.java.JavaInterop;
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.js.nodes.function.JSBuiltin;
+import com.oracle.truffle.js.nodes.function.JSBuiltinNode;
+import com.oracle.truffle.js.runtime.Errors;
+import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.builtins.JSArrayBuffer;
+import com.oracle.truffle.js.runtime.builtins.JSArrayBufferView;
+import com.oracle.truffle.js.runtime.builtins.JSFunction;
+import com.oracle.truffle.js.runtime.objects.Undefined;
+
+/**
+ * Creates a byte channel that can be passed to {@code JSON.stringify} to receive the UTF-8 encoded
+ * JSON text in a chain of buffers.
+ *
+ * The text is written into the initial buffer. Once it is full, and when the text is complete, the
+ * callback is invoked with the buffer and the number of bytes written to it. The callback returns
+ * the buffer that receives the next chunk: the same buffer once its contents have been consumed,
+ * or a new one if the consumer keeps it. The serializer waits for the callback, so it never runs
+ * ahead of the consumer by more than one buffer.
+ */
+public abstract class NIOBufferJSONSinkNode extends JSBuiltinNode {
+
+    public NIOBufferJSONSinkNode(JSContext context, JSBuiltin builtin) {
+        super(context, builtin);
+    }
+
+    @Specialization(guards = {"isJSArrayBufferView(buffer)", "isJSFunction(onChunk)"})
+    public Object sink(DynamicObject buffer, DynamicObject onChunk) {
+        return createSink(getContext(), buffer, onChunk);
+    }
+
+    @SuppressWarnings("unused")
+    @Specialization(guards = {"!isJSArrayBufferView(buffer)"})
+    public Object sinkAbort(Object buffer, Object onChunk) {
+        throw Errors.createTypeErrorArrayBufferViewExpected();
+    }
+
+    @SuppressWarnings("unused")
+    @Specialization(guards = {"isJSArrayBufferView(buffer)", "!isJSFunction(onChunk)"})
+    public Object sinkNotAFunction(Object buffer, Object onChunk) {
+        throw Errors.createTypeErrorNotAFunction(onChunk);
+    }
+
+    @TruffleBoundary
+    private static Object createSink(JSContext context, DynamicObject buffer, DynamicObject onChunk) {
+        return JavaInterop.asTruffleObject(new BufferChainChannel(context, buffer, onChunk));
+    }
+
+    static final class BufferChainChannel implements WritableByteChannel, Flushable {
+        private final JSContext context;
+        private final DynamicObject onChunk;
+        private DynamicObject chunk;
+        /** The memory of {@link #chunk}; its position is the number of bytes written to it. */
+        private ByteBuffer chunkBytes;
+
+        BufferChainChannel(JSContext context, DynamicObject buffer, DynamicObject onChunk) {
+            this.context = context;
+            this.onChunk = onChunk;
+            setChunk(buffer);
+        }
+
+        private void setChunk(Object buffer) {
+            if (!JSArrayBufferView.isJSArrayBufferView(buffer)) {
+                throw Errors.createTypeErrorArrayBufferViewExpected();
+            }
+            DynamicObject view = (DynamicObject) buffer;
+            DynamicObject arrayBuffer = JSArrayBufferView.getArrayBuffer(view);
+            if (!JSArrayBuffer.isJSDirectArrayBuffer(arrayBuffer)) {
+                throw Errors.createTypeError("Buffer expected");
+            }
+            int offset = JSArrayBufferView.getByteOffset(view, true, context);
+            int length = JSArrayBufferView.getByteLength(view, true, context);
+            if (length == 0) {
+                throw Errors.createRangeError("Buffer must not be empty");
+            }
+            ByteBuffer bytes = JSArrayBuffer.getDirectByteBuffer(arrayBuffer).duplicate();
+            bytes.limit(offset + length).position(offset);
+            chunk = view;
+            chunkBytes = bytes.slice();
+        }
+
+        /**
+         * Passes the current chunk to the callback and continues with the buffer it returns.
+         */
+        private void emitChunk() {
+            Object next = JSFunction.call(onChunk, Undefined.instance, new Object[]{chunk, chunkBytes.position()});
+            setChunk(next);
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            int length = src.remaining();
+            while (src.hasRemaining()) {
+                if (!chunkBytes.hasRemaining()) {
+                    emitChunk();
+                }
+                int count = Math.min(src.remaining(), chunkBytes.remaining());
+                ByteBuffer part = src.duplicate();
+                part.limit(part.position() + count);
+                chunkBytes.put(part);
+                src.position(src.position() + count);
+            }
+            return length;
+        }
+
+        /**
+         * Passes the last, partially filled chunk to the callback.
+         */
+        @Override
+        public void flush() {
+            if (chunkBytes.position() > 0) {
+                emitChunk();
+            }
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -41,12 +41,7 @@
 package com.oracle.truffle.trufflenode.buffer;
 
 import java.nio.ByteBuffer;
-import java.nio.CharBuffer;
-import java.nio.charset.CharacterCodingException;
-import java.nio.charset.CharsetDecoder;
-import java.nio.charset.CodingErrorAction;
 
-import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.profiles.BranchProfile;
@@ -73,20 +68,20 @@ public abstract class NIOBufferUTF8SliceNode extends NIOBufferAccessNode {
 
     @Specialization(guards = {"accept(target)"})
     public Object slice(DynamicObject target, int start, int end) {
-        try {
-            return doSlice(target, start, end);
-        } catch (CharacterCodingException e) {
+        Object result = doSlice(target, start, end);
+        if (result == null) {
             return doNativeFallback(target, start, end);
         }
+        return result;
     }
 
     @Specialization(guards = {"accept(target)"})
     public Object slice(DynamicObject target, double start, double end) {
-        try {
-            return doSlice(target, (int) start, (int) end);
-        } catch (CharacterCodingException e) {
+        Object result = doSlice(target, (int) start, (int) end);
+        if (result == null) {
             return doNativeFallback(target, start, end);
         }
+        return result;
     }
 
     @Specialization
@@ -105,7 +100,12 @@ public abstract class NIOBufferUTF8SliceNode extends NIOBufferAccessNode {
         return JSFunction.call(getNativeUtf8Slice(), target, new Object[]{start, end});
     }
 
-    private Object doSlice(DynamicObject target, int start, int end) throws CharacterCodingException {
+    /**
+     * Decodes the requested range of the target buffer.
+     *
+     * @return the decoded string, or {@code null} if the bytes are not well-formed UTF-8
+     */
+    private Object doSlice(DynamicObject target, int start, int end) {
         DynamicObject arrayBuffer = getArrayBuffer(target);
         ByteBuffer rawBuffer = JSArrayBuffer.getDirectByteBuffer(arrayBuffer);
         int byteOffset = getOffset(target);
@@ -128,19 +128,7 @@ public abstract class NIOBufferUTF8SliceNode extends NIOBufferAccessNode {
         if (length > bufferLen) {
             outOfBoundsFail();
         }
-        ByteBuffer data = sliceBuffer(rawBuffer, byteOffset);
-        data.position(start);
-        data.limit(end);
-        return doDecode(data);
-    }
-
-    @TruffleBoundary
-    private static Object doDecode(ByteBuffer data) throws CharacterCodingException {
-        CharsetDecoder decoder = utf8.newDecoder();
-        decoder.onMalformedInput(CodingErrorAction.REPORT);
-        decoder.onUnmappableCharacter(CodingErrorAction.REPORT);
-        CharBuffer decoded = decoder.decode(data);
-        return decoded.toString();
+        return Utf8Codec.decode(rawBuffer, byteOffset + start, byteOffset + end);
     }
 
     private static boolean oobCheck(int start, int end) {
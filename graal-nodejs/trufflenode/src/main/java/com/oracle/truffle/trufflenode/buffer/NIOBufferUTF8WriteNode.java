@@ -41,13 +41,7 @@
 package com.oracle.truffle.trufflenode.buffer;
 
 import java.nio.ByteBuffer;
-import java.nio.CharBuffer;
-import java.nio.charset.CharacterCodingException;
-import java.nio.charset.CharsetEncoder;
-import java.nio.charset.CoderResult;
-import java.nio.charset.CodingErrorAction;
 
-import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.profiles.BranchProfile;
@@ -77,38 +71,38 @@ public abstract class NIOBufferUTF8WriteNode extends NIOBufferAccessNode {
 
     @Specialization(guards = "accept(target)")
     public Object write(DynamicObject target, String str, int destOffset, int bytes) {
-        try {
-            return doWrite(target, str, destOffset, bytes);
-        } catch (CharacterCodingException e) {
+        int written = doWrite(target, str, destOffset, bytes);
+        if (written == Utf8Codec.MALFORMED) {
             return doNativeFallback(target, str, destOffset, bytes);
         }
+        return written;
     }
 
     @Specialization(guards = {"accept(target)", "isUndefined(bytes)"})
     public Object writeDefaultOffset(DynamicObject target, String str, int destOffset, Object bytes) {
-        try {
-            return doWrite(target, str, destOffset, getBytes(str).length);
-        } catch (CharacterCodingException e) {
+        int written = doWrite(target, str, destOffset, Integer.MAX_VALUE);
+        if (written == Utf8Codec.MALFORMED) {
             return doNativeFallback(target, str, destOffset, bytes);
         }
+        return written;
     }
 
     @Specialization(guards = {"accept(target)", "isUndefined(destOffset)", "isUndefined(bytes)"})
     public Object writeDefaultValues(DynamicObject target, String str, Object destOffset, Object bytes) {
-        try {
-            return doWrite(target, str, 0, getBytes(str).length);
-        } catch (CharacterCodingException e) {
+        int written = doWrite(target, str, 0, Integer.MAX_VALUE);
+        if (written == Utf8Codec.MALFORMED) {
             return doNativeFallback(target, str, destOffset, bytes);
         }
+        return written;
     }
 
     @Specialization(guards = "accept(target)")
     public Object write(DynamicObject target, String str, double destOffset, double bytes) {
-        try {
-            return doWrite(target, str, toInt.executeInt(destOffset), toInt.executeInt(bytes));
-        } catch (CharacterCodingException e) {
+        int written = doWrite(target, str, toInt.executeInt(destOffset), toInt.executeInt(bytes));
+        if (written == Utf8Codec.MALFORMED) {
             return doNativeFallback(target, str, destOffset, bytes);
         }
+        return written;
     }
 
     @Specialization
@@ -127,7 +121,12 @@ public abstract class NIOBufferUTF8WriteNode extends NIOBufferAccessNode {
         return JSFunction.call(getNativeUtf8Write(), target, new Object[]{str, destOffset, bytes});
     }
 
-    private int doWrite(DynamicObject target, String str, int destOffset, int bytes) throws CharacterCodingException {
+    /**
+     * Encodes {@code str} directly into the target buffer.
+     *
+     * @return the number of bytes written, or {@link Utf8Codec#MALFORMED}
+     */
+    private int doWrite(DynamicObject target, String str, int destOffset, int bytes) {
         DynamicObject arrayBuffer = getArrayBuffer(target);
         int bufferOffset = getOffset(target);
         int bufferLen = getLength(target);
@@ -136,39 +135,7 @@ public abstract class NIOBufferUTF8WriteNode extends NIOBufferAccessNode {
             outOfBoundsFail();
         }
         ByteBuffer rawBuffer = JSArrayBuffer.getDirectByteBuffer(arrayBuffer);
-        ByteBuffer buffer = sliceBuffer(rawBuffer, bufferOffset);
-        buffer.position(destOffset);
-        buffer.limit(Math.min(bufferLen, destOffset + bytes));
-
-        CoderResult res = doEncode(str, buffer);
-        if (cannotEncode(res)) {
-            throw new CharacterCodingException();
-        }
-        return buffer.position() - destOffset;
-    }
-
-    @TruffleBoundary
-    private static CoderResult doEncode(String str, ByteBuffer buffer) {
-        CharsetEncoder encoder = utf8.newEncoder();
-        encoder.onMalformedInput(CodingErrorAction.REPORT);
-        encoder.onUnmappableCharacter(CodingErrorAction.REPORT);
-        CharBuffer cb = CharBuffer.wrap(str);
-        CoderResult res = encoder.encode(cb, buffer, true);
-
-        if (res.isUnderflow()) {
-            encoder.encode(cb, buffer, true);
-            res = encoder.flush(buffer);
-        }
-        return res;
+        int limit = (int) Math.min(bufferLen, (long) destOffset + bytes);
+        return Utf8Codec.encode(str, rawBuffer, bufferOffset + destOffset, bufferOffset + limit);
     }
-
-    @TruffleBoundary
-    private static byte[] getBytes(String str) {
-        return str.getBytes(utf8);
-    }
-
-    private static boolean cannotEncode(CoderResult res) {
-        return res.isMalformed() || res.isUnmappable() || res.isError();
-    }
-
 }
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.trufflenode.buffer;
+
+import java.nio.ByteBuffer;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Allocation-free UTF-8 encoding and decoding between Java strings and direct byte buffers.
+ *
+ * All buffer accesses use absolute indices, so no buffer views are created. Malformed input (lone
+ * surrogates when encoding, ill-formed byte sequences when decoding) is reported to the caller,
+ * which falls back to the native implementation to get V8's replacement behavior.
+ */
+final class Utf8Codec {
+
+    static final int MALFORMED = -1;
+
+    private Utf8Codec() {
+    }
+
+    /**
+     * Encodes as many whole characters of {@code str} as fit into {@code buffer[start, limit)}.
+     *
+     * @return the number of bytes written, or {@link #MALFORMED} if a lone surrogate was found
+     */
+    @TruffleBoundary
+    static int encode(String str, ByteBuffer buffer, int start, int limit) {
+        int length = str.length();
+        int pos = start;
+        int i = 0;
+        // ASCII prefix
+        while (i < length && pos < limit) {
+            char c = str.charAt(i);
+            if (c >= 0x80) {
+                break;
+            }
+            buffer.put(pos++, (byte) c);
+            i++;
+        }
+        while (i < length) {
+            char c = str.charAt(i);
+            if (c < 0x80) {
+                if (pos >= limit) {
+                    break;
+                }
+                buffer.put(pos++, (byte) c);
+            } else if (c < 0x800) {
+                if (pos + 2 > limit) {
+                    break;
+                }
+                buffer.put(pos++, (byte) (0xC0 | (c >> 6)));
+                buffer.put(pos++, (byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                if (!Character.isHighSurrogate(c) || i + 1 >= length || !Character.isLowSurrogate(str.charAt(i + 1))) {
+                    return MALFORMED;
+                }
+                if (pos + 4 > limit) {
+                    break;
+                }
+                int codePoint = Character.toCodePoint(c, str.charAt(++i));
+                buffer.put(pos++, (byte) (0xF0 | (codePoint >> 18)));
+                buffer.put(pos++, (byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                buffer.put(pos++, (byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                buffer.put(pos++, (byte) (0x80 | (codePoint & 0x3F)));
+            } else {
+                if (pos + 3 > limit) {
+                    break;
+                }
+                buffer.put(pos++, (byte) (0xE0 | (c >> 12)));
+                buffer.put(pos++, (byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.put(pos++, (byte) (0x80 | (c & 0x3F)));
+            }
+            i++;
+        }
+        return pos - start;
+    }
+
+    /**
+     * Decodes the well-formed UTF-8 bytes in {@code buffer[start, end)}.
+     *
+     * @return the decoded string, or {@code null} if the bytes are not well-formed UTF-8
+     */
+    @TruffleBoundary
+    static String decode(ByteBuffer buffer, int start, int end) {
+        // a UTF-8 sequence never decodes to more UTF-16 chars than it has bytes
+        char[] chars = new char[end - start];
+        int n = 0;
+        int pos = start;
+        // ASCII prefix
+        while (pos < end) {
+            byte b = buffer.get(pos);
+            if (b < 0) {
+                break;
+            }
+            chars[n++] = (char) b;
+            pos++;
+        }
+        if (pos == end) {
+            return new String(chars);
+        }
+        while (pos < end) {
+            int b0 = buffer.get(pos++) & 0xFF;
+            if (b0 < 0x80) {
+                chars[n++] = (char) b0;
+            } else if (b0 >= 0xC2 && b0 <= 0xDF) {
+                if (pos >= end) {
+                    return null;
+                }
+                int b1 = buffer.get(pos++) & 0xFF;
+                if (!isContinuation(b1)) {
+                    return null;
+                }
+                chars[n++] = (char) (((b0 & 0x1F) << 6) | (b1 & 0x3F));
+            } else if (b0 >= 0xE0 && b0 <= 0xEF) {
+                if (pos + 2 > end) {
+                    return null;
+                }
+                int b1 = buffer.get(pos++) & 0xFF;
+                int b2 = buffer.get(pos++) & 0xFF;
+                int lower = b0 == 0xE0 ? 0xA0 : 0x80; // no overlong encodings
+                int upper = b0 == 0xED ? 0x9F : 0xBF; // no surrogates
+                if (b1 < lower || b1 > upper || !isContinuation(b2)) {
+                    return null;
+                }
+                chars[n++] = (char) (((b0 & 0x0F) << 12) | ((b1 & 0x3F) << 6) | (b2 & 0x3F));
+            } else if (b0 >= 0xF0 && b0 <= 0xF4) {
+                if (pos + 3 > end) {
+                    return null;
+                }
+                int b1 = buffer.get(pos++) & 0xFF;
+                int b2 = buffer.get(pos++) & 0xFF;
+                int b3 = buffer.get(pos++) & 0xFF;
+                int lower = b0 == 0xF0 ? 0x90 : 0x80; // no overlong encodings
+                int upper = b0 == 0xF4 ? 0x8F : 0xBF; // nothing above U+10FFFF
+                if (b1 < lower || b1 > upper || !isContinuation(b2) || !isContinuation(b3)) {
+                    return null;
+                }
+                int codePoint = ((b0 & 0x07) << 18) | ((b1 & 0x3F) << 12) | ((b2 & 0x3F) << 6) | (b3 & 0x3F);
+                chars[n++] = Character.highSurrogate(codePoint);
+                chars[n++] = Character.lowSurrogate(codePoint);
+            } else {
+                return null;
+            }
+        }
+        return new String(chars, 0, n);
+    }
+
+    private static boolean isContinuation(int b) {
+        return (b & 0xC0) == 0x80;
+    }
+}